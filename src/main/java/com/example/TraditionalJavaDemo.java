@@ -30,6 +30,7 @@ public class TraditionalJavaDemo {
 
     private UserService userService = new UserService();
     private OrderService orderService = new OrderService();
+    private Order createdOrder;
 
     public static void main(String[] args) {
         System.out.println("╔" + "═".repeat(100) + "╗");
@@ -272,6 +273,7 @@ public class TraditionalJavaDemo {
                 "ORDER_SYSTEM"                             // 18. createdBy
             );
             
+            createdOrder = order;
             System.out.println("Order created successfully: " + order.getOrderId());
             System.out.println("Order total: $" + order.getTotalAmount());
             System.out.println("Number of items: " + order.getItemCount());
@@ -290,10 +292,12 @@ public class TraditionalJavaDemo {
         System.out.println("Most parameters are optional (null = no change), increasing complexity");
         
         try {
+            String orderId = (createdOrder != null) ? createdOrder.getOrderId() : "ORDER_12345";
+            
             // Payment processing with comprehensive parameter set
             System.out.println("\nPayment processing:");
             boolean paymentResult = orderService.processPayment(
-                "ORDER_12345",                             // 1. orderId
+                orderId,                                   // 1. orderId
                 "CREDIT_CARD",                             // 2. paymentMethod
                 new BigDecimal("1459.97"),                 // 3. amount
                 "USD",                                     // 4. currency
@@ -318,7 +322,7 @@ public class TraditionalJavaDemo {
             // Order update with 23 parameters - EVEN WORSE!
             System.out.println("\n🔥 Order update method call:");
             Order updatedOrder = orderService.updateOrder(
-                "ORDER_12345",                             // 1. orderId
+                orderId,                                   // 1. orderId
                 "PROCESSING",                              // 2. orderStatus
                 "URGENT",                                  // 3. priority
                 "PAID",                                    // 4. paymentStatus
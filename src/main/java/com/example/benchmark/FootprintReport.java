@@ -0,0 +1,112 @@
+package com.example.benchmark;
+
+import com.example.model.Order;
+import com.example.model.OrderItem;
+import com.example.model.User;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.function.IntFunction;
+
+/**
+ * Model footprint report - eager vs lazy empty collections
+ *
+ * Keeps N freshly constructed Orders, Users and OrderItems resident and
+ * reports the retained heap per object, measured as the used-heap delta
+ * across full GCs. The "eager" rows give every object its own empty
+ * collections through the setters, as the constructors used to; the
+ * "lazy" rows keep the shared empty instances the constructors now use.
+ * Run with a fixed heap (-Xms = -Xmx) and a serial collector for stable
+ * numbers.
+ *
+ * Usage: java -Xms1g -Xmx1g -XX:+UseSerialGC com.example.benchmark.FootprintReport [objects]
+ */
+public class FootprintReport {
+
+    private static final int MEASURED_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int objects = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+
+        System.out.println("================================================================================");
+        System.out.println("                  MODEL FOOTPRINT REPORT (eager vs lazy collections)            ");
+        System.out.println("================================================================================");
+        System.out.println("Objects per row: " + objects);
+
+        report("Order", objects, i -> eager(new Order()), i -> new Order());
+        report("User", objects, i -> eager(new User()), i -> new User());
+        report("OrderItem", objects, i -> eager(item(i)), FootprintReport::item);
+    }
+
+    private static void report(String name, int objects, IntFunction<Object> eager, IntFunction<Object> lazy) {
+        long eagerBytes = retainedBytes(objects, eager);
+        long lazyBytes = retainedBytes(objects, lazy);
+        System.out.printf("%-10s eager: %,6d B/object   lazy: %,6d B/object   saved per million: %,8.1f MB%n",
+                name, eagerBytes / objects, lazyBytes / objects,
+                (eagerBytes - lazyBytes) * (1_000_000.0 / objects) / (1024 * 1024));
+    }
+
+    // Median of a few rounds; one round now and then still sees the previous round's objects as live
+    private static long retainedBytes(int objects, IntFunction<Object> factory) {
+        long[] rounds = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            rounds[i] = measure(objects, factory);
+        }
+        Arrays.sort(rounds);
+        return rounds[MEASURED_ROUNDS / 2];
+    }
+
+    private static long measure(int objects, IntFunction<Object> factory) {
+        Object[] resident = new Object[objects];
+        long before = usedHeap();
+        for (int i = 0; i < objects; i++) {
+            resident[i] = factory.apply(i);
+        }
+        long after = usedHeap();
+        if (resident[objects - 1] == null) {
+            throw new IllegalStateException("Object was not created");
+        }
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static OrderItem item(int i) {
+        return new OrderItem("PROD_" + (i & 1023), "Product", new BigDecimal("9.99"), 1);
+    }
+
+    // What the constructors used to allocate for every object
+    private static Order eager(Order order) {
+        order.setOrderItems(new ArrayList<>());
+        order.setAppliedDiscountCodes(new ArrayList<>());
+        order.setOrderNotes(new HashMap<>());
+        order.setCustomAttributes(new HashMap<>());
+        order.setTags(new ArrayList<>());
+        return order;
+    }
+
+    private static User eager(User user) {
+        user.setCustomAttributes(new HashMap<>());
+        user.setInterests(new ArrayList<>());
+        user.setTags(new ArrayList<>());
+        return user;
+    }
+
+    private static OrderItem eager(OrderItem item) {
+        item.setProductAttributes(new HashMap<>());
+        return item;
+    }
+}
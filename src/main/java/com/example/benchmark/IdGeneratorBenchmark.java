@@ -0,0 +1,116 @@
+package com.example.benchmark;
+
+import com.example.id.IdGenerator;
+import com.example.id.SnowflakeIdGenerator;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * IdGenerator throughput benchmark
+ *
+ * Runs N threads that each draw a fixed number of IDs from one shared
+ * generator, reports aggregate IDs per second, and verifies that no ID was
+ * handed out twice. For comparison it also counts collisions produced by the
+ * legacy "currentTimeMillis + Math.random() * 1000" scheme over the same run.
+ *
+ * One node can issue at most 4096 IDs per millisecond (about 4.1M/s); past
+ * that the generator waits for the clock, so results at the ceiling mean the
+ * sequence space, not contention, is the limit.
+ *
+ * Usage: java com.example.benchmark.IdGeneratorBenchmark [threads] [idsPerThread]
+ */
+public class IdGeneratorBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int idsPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+
+        System.out.println("================================================================================");
+        System.out.println("                         ID GENERATOR THROUGHPUT BENCHMARK                      ");
+        System.out.println("================================================================================");
+        System.out.println("Threads: " + threads + ", IDs per thread: " + idsPerThread);
+        System.out.printf("Per-node ceiling: %,d IDs/s%n", (1L << SnowflakeIdGenerator.SEQUENCE_BITS) * 1000);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(new SnowflakeIdGenerator(1), threads, idsPerThread);
+        }
+
+        double bestIdsPerSecond = 0;
+        long totalDuplicates = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            RoundResult result = run(new SnowflakeIdGenerator(1), threads, idsPerThread);
+            bestIdsPerSecond = Math.max(bestIdsPerSecond, result.idsPerSecond);
+            totalDuplicates += result.duplicates;
+            System.out.printf("Round %d: %,.0f IDs/s, duplicates: %d%n", i + 1, result.idsPerSecond, result.duplicates);
+        }
+        System.out.printf("Snowflake best: %,.0f IDs/s, duplicates across all rounds: %d%n",
+                bestIdsPerSecond, totalDuplicates);
+
+        RoundResult legacy = run(legacyGenerator(), threads, Math.min(idsPerThread, 100_000));
+        System.out.printf("Legacy millis+random: %,.0f IDs/s, duplicates: %d%n",
+                legacy.idsPerSecond, legacy.duplicates);
+    }
+
+    private static RoundResult run(IdGenerator generator, int threads, int idsPerThread)
+            throws InterruptedException {
+        long[][] perThread = new long[threads][idsPerThread];
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            long[] ids = perThread[t];
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = generator.nextId();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            worker.start();
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsedNanos = System.nanoTime() - startNanos;
+
+        long[] all = new long[threads * idsPerThread];
+        for (int t = 0; t < threads; t++) {
+            System.arraycopy(perThread[t], 0, all, t * idsPerThread, idsPerThread);
+        }
+        Arrays.sort(all);
+        long duplicates = 0;
+        for (int i = 1; i < all.length; i++) {
+            if (all[i] == all[i - 1]) {
+                duplicates++;
+            }
+        }
+
+        double idsPerSecond = all.length / (elapsedNanos / 1_000_000_000.0);
+        return new RoundResult(idsPerSecond, duplicates);
+    }
+
+    // Numeric equivalent of the old "PREFIX_" + currentTimeMillis() + "_" + random(1000) IDs
+    private static IdGenerator legacyGenerator() {
+        return () -> System.currentTimeMillis() * 1000 + (int) (Math.random() * 1000);
+    }
+
+    private static final class RoundResult {
+        private final double idsPerSecond;
+        private final long duplicates;
+
+        private RoundResult(double idsPerSecond, long duplicates) {
+            this.idsPerSecond = idsPerSecond;
+            this.duplicates = duplicates;
+        }
+    }
+}
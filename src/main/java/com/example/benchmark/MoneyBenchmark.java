@@ -0,0 +1,161 @@
+package com.example.benchmark;
+
+import com.example.model.Money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money arithmetic benchmark - BigDecimal vs long minor units
+ *
+ * Replays the pricing hot paths (order total recalculation, the shipping
+ * multiplier chain, a capped percentage discount) once with the original
+ * BigDecimal expressions and once with the Money long helpers that Order,
+ * OrderItem and OrderService now use, and reports operations per second
+ * for each. Both variants fold their results into a checksum so the JIT
+ * cannot drop the work.
+ *
+ * Usage: java com.example.benchmark.MoneyBenchmark [iterations]
+ */
+public class MoneyBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int PRICE_COUNT = 1024;
+
+    private static final BigDecimal[] DECIMAL_PRICES = new BigDecimal[PRICE_COUNT];
+    private static final long[] MINOR_PRICES = new long[PRICE_COUNT];
+
+    static {
+        for (int i = 0; i < PRICE_COUNT; i++) {
+            long cents = 199 + (i * 7919L) % 250_000;
+            MINOR_PRICES[i] = cents;
+            DECIMAL_PRICES[i] = BigDecimal.valueOf(cents, 2);
+        }
+    }
+
+    public static void main(String[] args) {
+        int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+
+        System.out.println("================================================================================");
+        System.out.println("                    MONEY ARITHMETIC BENCHMARK (BigDecimal vs long)             ");
+        System.out.println("================================================================================");
+        System.out.println("Iterations per round: " + iterations);
+
+        report("Order total", iterations, MoneyBenchmark::decimalTotal, MoneyBenchmark::minorTotal);
+        report("Shipping chain", iterations, MoneyBenchmark::decimalShipping, MoneyBenchmark::minorShipping);
+        report("Percentage discount", iterations, MoneyBenchmark::decimalDiscount, MoneyBenchmark::minorDiscount);
+    }
+
+    private static void report(String name, int iterations, Workload decimal, Workload minor) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            decimal.run(iterations);
+            minor.run(iterations);
+        }
+        double bestDecimal = 0;
+        double bestMinor = 0;
+        long checksum = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            checksum += decimal.run(iterations);
+            bestDecimal = Math.max(bestDecimal, opsPerSecond(iterations, System.nanoTime() - start));
+
+            start = System.nanoTime();
+            checksum += minor.run(iterations);
+            bestMinor = Math.max(bestMinor, opsPerSecond(iterations, System.nanoTime() - start));
+        }
+        System.out.printf("%-20s BigDecimal: %,15.0f ops/s   long: %,15.0f ops/s   speedup: %.1fx   (checksum %d)%n",
+                name, bestDecimal, bestMinor, bestMinor / bestDecimal, checksum);
+    }
+
+    private static double opsPerSecond(int iterations, long elapsedNanos) {
+        return iterations / (elapsedNanos / 1_000_000_000.0);
+    }
+
+    // Order.calculateTotalAmount as it was: subtotal + tax + shipping - discount
+    private static long decimalTotal(int iterations) {
+        long checksum = 0;
+        BigDecimal tax = new BigDecimal("4.25");
+        BigDecimal shipping = new BigDecimal("9.99");
+        BigDecimal discount = new BigDecimal("5.00");
+        for (int i = 0; i < iterations; i++) {
+            BigDecimal subtotal = DECIMAL_PRICES[i & (PRICE_COUNT - 1)];
+            BigDecimal total = subtotal.add(tax).add(shipping).subtract(discount);
+            checksum += total.unscaledValue().longValue();
+        }
+        return checksum;
+    }
+
+    private static long minorTotal(int iterations) {
+        long checksum = 0;
+        long tax = 425;
+        long shipping = 999;
+        long discount = 500;
+        for (int i = 0; i < iterations; i++) {
+            long subtotal = MINOR_PRICES[i & (PRICE_COUNT - 1)];
+            checksum += subtotal + tax + shipping - discount;
+        }
+        return checksum;
+    }
+
+    // OrderService.calculateShipping multiplier chain: expedited, EXPRESS, UPS, OVERSIZED
+    private static long decimalShipping(int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            BigDecimal rate = DECIMAL_PRICES[i & (PRICE_COUNT - 1)]
+                    .add(BigDecimal.valueOf(15.00))
+                    .multiply(BigDecimal.valueOf(2.5))
+                    .multiply(BigDecimal.valueOf(1.8))
+                    .multiply(BigDecimal.valueOf(1.15))
+                    .multiply(BigDecimal.valueOf(1.5))
+                    .setScale(2, RoundingMode.HALF_UP);
+            checksum += rate.unscaledValue().longValue();
+        }
+        return checksum;
+    }
+
+    private static long minorShipping(int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            long rate = MINOR_PRICES[i & (PRICE_COUNT - 1)] + 1_500;
+            rate = Money.applyRate(rate, 2_500_000, Money.DEFAULT_ROUNDING);
+            rate = Money.applyRate(rate, 1_800_000, Money.DEFAULT_ROUNDING);
+            rate = Money.applyRate(rate, 1_150_000, Money.DEFAULT_ROUNDING);
+            rate = Money.applyRate(rate, 1_500_000, Money.DEFAULT_ROUNDING);
+            checksum += rate;
+        }
+        return checksum;
+    }
+
+    // OrderService.applyDiscount PERCENTAGE branch with a maximum discount cap
+    private static long decimalDiscount(int iterations) {
+        long checksum = 0;
+        BigDecimal percent = new BigDecimal("15");
+        BigDecimal maximum = new BigDecimal("100.00");
+        for (int i = 0; i < iterations; i++) {
+            BigDecimal discount = DECIMAL_PRICES[i & (PRICE_COUNT - 1)]
+                    .multiply(percent.divide(BigDecimal.valueOf(100)));
+            if (discount.compareTo(maximum) > 0) {
+                discount = maximum;
+            }
+            checksum += discount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValue();
+        }
+        return checksum;
+    }
+
+    private static long minorDiscount(int iterations) {
+        long checksum = 0;
+        long percentPpm = Money.percentToPpm(new BigDecimal("15"));
+        long maximum = 10_000;
+        for (int i = 0; i < iterations; i++) {
+            long discount = Money.applyRate(MINOR_PRICES[i & (PRICE_COUNT - 1)], percentPpm, Money.DEFAULT_ROUNDING);
+            checksum += Math.min(discount, maximum);
+        }
+        return checksum;
+    }
+
+    @FunctionalInterface
+    private interface Workload {
+        long run(int iterations);
+    }
+}
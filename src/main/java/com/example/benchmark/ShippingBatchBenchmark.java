@@ -0,0 +1,101 @@
+package com.example.benchmark;
+
+import com.example.model.Address;
+import com.example.service.OrderService;
+import com.example.shipping.ShipmentBatch;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Shipping quote benchmark - one calculateShipping call per order vs the batch API
+ *
+ * Prices the same synthetic open-order book three ways: a
+ * calculateShipping call per order, one sequential
+ * calculateShippingBatch, and one parallel calculateShippingBatch. It
+ * reports shipments per second for each and checks that all three agree.
+ *
+ * Usage: java com.example.benchmark.ShippingBatchBenchmark [shipments]
+ */
+public class ShippingBatchBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+
+    private static final String[] METHODS = {"STANDARD", "EXPRESS", "OVERNIGHT", "SAME_DAY"};
+    private static final String[] CARRIERS = {null, "USPS", "FEDEX", "UPS", "DHL"};
+    private static final List<List<String>> RESTRICTIONS = Arrays.asList(
+            Collections.<String>emptyList(),
+            Collections.singletonList("FRAGILE"),
+            Collections.singletonList("OVERSIZED"),
+            Arrays.asList("HAZARDOUS", "OVERSIZED"));
+
+    public static void main(String[] args) {
+        int shipments = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+
+        System.out.println("================================================================================");
+        System.out.println("                 SHIPPING QUOTE BENCHMARK (per call vs batch)                   ");
+        System.out.println("================================================================================");
+        System.out.println("Shipments per round: " + shipments);
+        System.out.println("Cores: " + Runtime.getRuntime().availableProcessors());
+
+        OrderService orderService = new OrderService();
+        ShipmentBatch batch = new ShipmentBatch(shipments);
+        for (int i = 0; i < shipments; i++) {
+            batch.add(METHODS[i % METHODS.length], CARRIERS[(i / 7) % CARRIERS.length], 250 + (i * 7919L) % 40_000,
+                    i % 5 == 0, i % 3 == 0, i % 11 == 0, RESTRICTIONS.get((i / 13) % RESTRICTIONS.size()));
+        }
+
+        long[] perCall = new long[shipments];
+        long[] sequential = null;
+        long[] parallel = null;
+        double bestPerCall = 0;
+        double bestSequential = 0;
+        double bestParallel = 0;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            boolean measured = round >= WARMUP_ROUNDS;
+
+            long start = System.nanoTime();
+            quotePerCall(orderService, batch, perCall);
+            double rate = shipmentsPerSecond(shipments, System.nanoTime() - start);
+            bestPerCall = measured ? Math.max(bestPerCall, rate) : bestPerCall;
+
+            start = System.nanoTime();
+            sequential = orderService.calculateShippingBatch(batch, false, "benchmark");
+            rate = shipmentsPerSecond(shipments, System.nanoTime() - start);
+            bestSequential = measured ? Math.max(bestSequential, rate) : bestSequential;
+
+            start = System.nanoTime();
+            parallel = orderService.calculateShippingBatch(batch, true, "benchmark");
+            rate = shipmentsPerSecond(shipments, System.nanoTime() - start);
+            bestParallel = measured ? Math.max(bestParallel, rate) : bestParallel;
+        }
+
+        System.out.printf("%-22s %,15.0f shipments/s%n", "calculateShipping", bestPerCall);
+        System.out.printf("%-22s %,15.0f shipments/s   speedup: %.1fx%n", "batch (sequential)",
+                bestSequential, bestSequential / bestPerCall);
+        System.out.printf("%-22s %,15.0f shipments/s   speedup: %.1fx%n", "batch (parallel)",
+                bestParallel, bestParallel / bestPerCall);
+        System.out.println("Results match: " + (Arrays.equals(perCall, sequential) && Arrays.equals(perCall, parallel)));
+    }
+
+    private static void quotePerCall(OrderService orderService, ShipmentBatch batch, long[] quotes) {
+        Address address = new Address();
+        for (int i = 0; i < batch.size(); i++) {
+            byte flags = batch.getFlags(i);
+            BigDecimal quote = orderService.calculateShipping("ORD-" + i, batch.getMethod(i), address, address,
+                    BigDecimal.valueOf(batch.getWeightMilli(i), 3), null,
+                    (flags & ShipmentBatch.INTERNATIONAL) != 0,
+                    (flags & ShipmentBatch.REQUIRES_SIGNATURE) != 0,
+                    (flags & ShipmentBatch.EXPEDITED) != 0,
+                    batch.getCarrier(i), RESTRICTIONS.get((i / 13) % RESTRICTIONS.size()), "benchmark");
+            quotes[i] = quote.unscaledValue().longValueExact();
+        }
+    }
+
+    private static double shipmentsPerSecond(int shipments, long elapsedNanos) {
+        return shipments / (elapsedNanos / 1_000_000_000.0);
+    }
+}
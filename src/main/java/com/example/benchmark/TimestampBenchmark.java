@@ -0,0 +1,100 @@
+package com.example.benchmark;
+
+import com.example.model.Order;
+import com.example.time.CachedTimeSource;
+import com.example.time.TimeSource;
+import com.example.time.TimeSources;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Timestamp benchmark - LocalDateTime.now() vs the cached time source
+ *
+ * Replays the setter calls of a typical OrderService.updateOrder (status,
+ * shipping, tracking, amounts, notes, updatedBy/updatedAt) on one order,
+ * once with TimeSources.system(), which reads and converts the clock in
+ * every setter as the model used to, and once with a CachedTimeSource.
+ * Reports order updates per second for each and how many timestamps one
+ * update takes.
+ *
+ * Usage: java com.example.benchmark.TimestampBenchmark [updates]
+ */
+public class TimestampBenchmark {
+
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final String[] STATUSES = {"CONFIRMED", "PROCESSING", "SHIPPED", "DELIVERED"};
+
+    // Folds in every update's results so the JIT cannot drop the work
+    private static long checksum;
+
+    public static void main(String[] args) {
+        int updates = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        TimeSource original = TimeSources.getDefault();
+
+        System.out.println("================================================================================");
+        System.out.println("                 TIMESTAMP BENCHMARK (LocalDateTime.now() vs cached)            ");
+        System.out.println("================================================================================");
+        System.out.println("Order updates per round: " + updates);
+
+        try {
+            int[] reads = new int[1];
+            TimeSource system = TimeSources.system();
+            TimeSources.setDefault(() -> {
+                reads[0]++;
+                return system.now();
+            });
+            update(new Order("CUST_1", "bench@example.com"), 1);
+            System.out.println("Timestamps per order update: " + reads[0]);
+
+            double systemRate = measure(TimeSources.system(), updates);
+            double cachedRate = measure(new CachedTimeSource(), updates);
+            System.out.printf("LocalDateTime.now(): %,12.0f updates/s   cached: %,12.0f updates/s   speedup: %.1fx%n",
+                    systemRate, cachedRate, cachedRate / systemRate);
+            System.out.printf("Saved per order update: %.0f ns   (checksum %d)%n",
+                    1e9 / systemRate - 1e9 / cachedRate, checksum);
+        } finally {
+            TimeSources.setDefault(original);
+        }
+    }
+
+    private static double measure(TimeSource source, int updates) {
+        TimeSources.setDefault(source);
+        Order order = new Order("CUST_1", "bench@example.com");
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            update(order, updates);
+        }
+        double best = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            checksum += update(order, updates);
+            best = Math.max(best, updates / ((System.nanoTime() - start) / 1_000_000_000.0));
+        }
+        return best;
+    }
+
+    // The setters updateOrder calls for a status, shipping and amount change
+    private static long update(Order order, int updates) {
+        long sum = 0;
+        BigDecimal shipping = new BigDecimal("9.99");
+        BigDecimal tax = new BigDecimal("4.25");
+        for (int i = 0; i < updates; i++) {
+            order.setOrderStatus(STATUSES[i & 3]);
+            order.setPriority("HIGH");
+            order.setPaymentStatus("PAID");
+            order.setShippingMethod("EXPRESS");
+            order.setShippingCarrier("UPS");
+            order.setTrackingNumber("1Z999");
+            order.setShippingAmount(shipping);
+            order.setTaxAmount(tax);
+            order.setRequiresSignature((i & 1) == 0);
+            order.setPromotionCode("SAVE10");
+            order.setUpdatedBy("benchmark");
+            order.setUpdatedAt(TimeSources.now());
+            LocalDateTime updatedAt = order.getUpdatedAt();
+            sum += updatedAt.getNano() + order.getTotalMinorUnits();
+        }
+        return sum;
+    }
+}
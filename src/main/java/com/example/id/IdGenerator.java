@@ -0,0 +1,12 @@
+package com.example.id;
+
+/**
+ * Source of unique 64-bit identifiers for model objects.
+ */
+public interface IdGenerator {
+
+    /**
+     * @return an identifier never returned before by this generator
+     */
+    long nextId();
+}
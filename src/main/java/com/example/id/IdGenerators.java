@@ -0,0 +1,35 @@
+package com.example.id;
+
+/**
+ * Process-wide IdGenerator used by the model classes.
+ *
+ * Defaults to a SnowflakeIdGenerator whose node ID is read from the
+ * "com.example.id.node" system property (0 if unset). Replace it with
+ * setDefault() before creating model objects, e.g. to give each instance
+ * of a clustered deployment its own node ID.
+ */
+public final class IdGenerators {
+
+    public static final String NODE_ID_PROPERTY = "com.example.id.node";
+
+    private static volatile IdGenerator defaultGenerator =
+            new SnowflakeIdGenerator(Integer.getInteger(NODE_ID_PROPERTY, 0));
+
+    private IdGenerators() {
+    }
+
+    public static IdGenerator getDefault() {
+        return defaultGenerator;
+    }
+
+    public static void setDefault(IdGenerator generator) {
+        if (generator == null) {
+            throw new IllegalArgumentException("ID generator is required");
+        }
+        defaultGenerator = generator;
+    }
+
+    public static long nextId() {
+        return defaultGenerator.nextId();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.id;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * SnowflakeIdGenerator - lock-free, monotonic 64-bit IDs
+ *
+ * Layout (high to low): 1 unused sign bit, 41 bits of milliseconds since
+ * EPOCH_MILLIS, 10 node bits, 12 sequence bits. That allows 1024 nodes,
+ * 4096 IDs per millisecond per node, and about 69 years of timestamps.
+ *
+ * The timestamp and sequence are kept together in one AtomicLong and
+ * advanced with CAS, so threads never take a lock. An ID's timestamp is
+ * never ahead of the wall clock: if the sequence runs out within a
+ * millisecond, callers spin until the next one, so a node issues at most
+ * 4096 IDs per millisecond. Borrowing future milliseconds instead would let
+ * the generator drift ahead of the clock, and a restart with the same node
+ * ID would then hand out IDs already issued. If the clock moves backwards
+ * by up to MAX_CLOCK_BACKWARDS_MILLIS, callers wait for it to catch up; a
+ * larger step fails with IllegalStateException. IDs stay unique and
+ * strictly increasing.
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+    /** 2024-01-01T00:00:00Z */
+    public static final long EPOCH_MILLIS = 1704067200000L;
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    public static final long MAX_CLOCK_BACKWARDS_MILLIS = 50;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = NODE_BITS + SEQUENCE_BITS;
+
+    private final long nodeBits;
+    // (millis since EPOCH_MILLIS << SEQUENCE_BITS) | sequence
+    private final AtomicLong state = new AtomicLong();
+
+    public SnowflakeIdGenerator(int nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Node ID must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeBits = (long) nodeId << SEQUENCE_BITS;
+    }
+
+    /**
+     * @throws IllegalStateException if the clock has moved back by more than MAX_CLOCK_BACKWARDS_MILLIS
+     */
+    @Override
+    public long nextId() {
+        while (true) {
+            long now = currentTimeMillis() - EPOCH_MILLIS;
+            long previous = state.get();
+            long candidate = now << SEQUENCE_BITS;
+            long next = candidate > previous ? candidate : previous + 1;
+            // Positive when this millisecond's sequence is used up or the clock went back
+            long ahead = (next >>> SEQUENCE_BITS) - now;
+            if (ahead > 0) {
+                if (ahead > MAX_CLOCK_BACKWARDS_MILLIS) {
+                    throw new IllegalStateException("Clock is " + ahead
+                            + " ms behind the last issued ID on node " + getNodeId());
+                }
+                Thread.onSpinWait();
+            } else if (state.compareAndSet(previous, next)) {
+                return ((next >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | nodeBits | (next & SEQUENCE_MASK);
+            }
+        }
+    }
+
+    public int getNodeId() {
+        return (int) (nodeBits >>> SEQUENCE_BITS);
+    }
+
+    public static long extractTimestampMillis(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS;
+    }
+
+    public static int extractNodeId(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE_ID);
+    }
+
+    public static int extractSequence(long id) {
+        return (int) (id & SEQUENCE_MASK);
+    }
+
+    // Overridable so tests can drive the clock
+    protected long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+}
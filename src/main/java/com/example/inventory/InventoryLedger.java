@@ -0,0 +1,344 @@
+package com.example.inventory;
+
+import com.example.model.Order;
+import com.example.model.OrderItem;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * InventoryLedger - in-process stock levels per SKU and warehouse, with
+ * reservations for orders
+ *
+ * Each stock level is one AtomicLong packing the on-hand and reserved
+ * quantities, so every change is a single compare-and-set on that SKU:
+ * two checkouts racing for the last units of a flash-sale item cannot both
+ * win, no update is lost, and orders for other SKUs never wait on it.
+ *
+ * reserve() holds stock for all items of an order or for none: its lines
+ * are reserved one after another and, if one is short, the ones already
+ * reserved are given back. Other orders may briefly see those units as
+ * reserved. commit() takes the reserved units off hand once the order is
+ * paid; release() returns them to the available stock.
+ *
+ * Items are keyed by productSku (productId if there is none) and
+ * warehouseLocation (null = the default warehouse).
+ */
+public class InventoryLedger {
+
+    private final ConcurrentHashMap<StockKey, StockLevel> levels = new ConcurrentHashMap<>();
+    // Only modified inside compute()/remove() on the order's key
+    private final ConcurrentHashMap<String, Reservation> reservations = new ConcurrentHashMap<>();
+
+    /**
+     * Add received units to the stock on hand.
+     */
+    public void receive(String sku, String warehouseLocation, int quantity) {
+        if (sku == null || sku.trim().isEmpty()) {
+            throw new IllegalArgumentException("SKU is required");
+        }
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        levels.computeIfAbsent(new StockKey(sku, warehouseLocation), key -> new StockLevel()).receive(quantity);
+    }
+
+    public int getOnHand(String sku, String warehouseLocation) {
+        StockLevel level = level(sku, warehouseLocation);
+        return level != null ? onHand(level.state.get()) : 0;
+    }
+
+    public int getReserved(String sku, String warehouseLocation) {
+        StockLevel level = level(sku, warehouseLocation);
+        return level != null ? reserved(level.state.get()) : 0;
+    }
+
+    /**
+     * Units on hand and not reserved.
+     */
+    public int getAvailable(String sku, String warehouseLocation) {
+        StockLevel level = level(sku, warehouseLocation);
+        if (level == null) {
+            return 0;
+        }
+        long state = level.state.get();
+        return onHand(state) - reserved(state);
+    }
+
+    /**
+     * Units of the item's SKU available in its warehouse.
+     */
+    public int getAvailable(OrderItem item) {
+        return getAvailable(skuOf(item), item.getWarehouseLocation());
+    }
+
+    /**
+     * Whether the order needs more units of the item's SKU and warehouse
+     * than it can get. All of the order's items with that SKU and warehouse
+     * count together, and units the ledger already holds for the order
+     * count as available to it, so a reserved order is not short of its own
+     * reservation.
+     */
+    public boolean isShort(Order order, OrderItem item) {
+        String sku = skuOf(item);
+        if (sku == null) {
+            return item.getQuantity() > 0;
+        }
+        StockKey key = new StockKey(sku, item.getWarehouseLocation());
+        long needed = 0;
+        for (OrderItem line : order.getOrderItems()) {
+            if (line.getQuantity() > 0 && sku.equals(skuOf(line))
+                    && key.warehouseLocation.equals(warehouseOf(line))) {
+                needed += line.getQuantity();
+            }
+        }
+        if (needed == 0) {
+            return false;
+        }
+        StockLevel level = levels.get(key);
+        if (level == null) {
+            return true;
+        }
+        long state = level.state.get();
+        Reservation held = order.getOrderId() != null ? reservations.get(order.getOrderId()) : null;
+        return needed > onHand(state) - reserved(state) + (held != null ? held.quantityOf(level) : 0);
+    }
+
+    /**
+     * Reserve stock for every item of the order.
+     *
+     * @throws IllegalArgumentException naming the first item that is short; nothing is reserved then
+     * @throws IllegalStateException if the order already holds a reservation
+     */
+    public void reserve(Order order) {
+        String shortSku = tryReserveOrShortSku(order);
+        if (shortSku != null) {
+            throw new IllegalArgumentException("Insufficient inventory for product: " + shortSku);
+        }
+    }
+
+    /**
+     * Reserve stock for every item of the order, or for none.
+     *
+     * @return false if an item is short
+     * @throws IllegalStateException if the order already holds a reservation
+     */
+    public boolean tryReserve(Order order) {
+        return tryReserveOrShortSku(order) == null;
+    }
+
+    /**
+     * Take the order's reserved units off hand, e.g. once it is paid.
+     *
+     * @return false if the order held no reservation
+     */
+    public boolean commit(String orderId) {
+        Reservation reservation = orderId != null ? reservations.remove(orderId) : null;
+        if (reservation == null) {
+            return false;
+        }
+        for (int i = 0; i < reservation.levels.length; i++) {
+            reservation.levels[i].commit(reservation.quantities[i]);
+        }
+        return true;
+    }
+
+    /**
+     * Return the order's reserved units to the available stock.
+     *
+     * @return false if the order held no reservation
+     */
+    public boolean release(String orderId) {
+        Reservation reservation = orderId != null ? reservations.remove(orderId) : null;
+        if (reservation == null) {
+            return false;
+        }
+        for (int i = 0; i < reservation.levels.length; i++) {
+            reservation.levels[i].release(reservation.quantities[i]);
+        }
+        return true;
+    }
+
+    public boolean hasReservation(String orderId) {
+        return orderId != null && reservations.containsKey(orderId);
+    }
+
+    // null on success, else the SKU of the first short line
+    private String tryReserveOrShortSku(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order is required");
+        }
+        if (order.getOrderId() == null) {
+            throw new IllegalArgumentException("Order ID is required");
+        }
+        // Several items of the same SKU and warehouse are reserved as one line
+        Map<StockKey, Integer> lines = new HashMap<>();
+        List<OrderItem> items = order.getOrderItems();
+        if (items != null) {
+            for (OrderItem item : items) {
+                if (skuOf(item) == null) {
+                    throw new IllegalArgumentException("Order item has no SKU or product ID");
+                }
+                if (item.getQuantity() > 0) {
+                    lines.merge(new StockKey(skuOf(item), item.getWarehouseLocation()), item.getQuantity(), Integer::sum);
+                }
+            }
+        }
+        String[] shortSku = new String[1];
+        reservations.compute(order.getOrderId(), (orderId, existing) -> {
+            if (existing != null) {
+                throw new IllegalStateException("Inventory already reserved for order: " + orderId);
+            }
+            Reservation reservation = new Reservation(lines.size());
+            for (Map.Entry<StockKey, Integer> line : lines.entrySet()) {
+                StockLevel level = levels.get(line.getKey());
+                if (level == null || !level.tryReserve(line.getValue())) {
+                    reservation.undo();
+                    shortSku[0] = line.getKey().sku;
+                    return null;
+                }
+                reservation.add(level, line.getValue());
+            }
+            return reservation;
+        });
+        return shortSku[0];
+    }
+
+    private StockLevel level(String sku, String warehouseLocation) {
+        return sku != null ? levels.get(new StockKey(sku, warehouseLocation)) : null;
+    }
+
+    private static String skuOf(OrderItem item) {
+        return item.getProductSku() != null ? item.getProductSku() : item.getProductId();
+    }
+
+    private static String warehouseOf(OrderItem item) {
+        return item.getWarehouseLocation() != null ? item.getWarehouseLocation() : "";
+    }
+
+    private static int onHand(long state) {
+        return (int) (state >> 32);
+    }
+
+    private static int reserved(long state) {
+        return (int) state;
+    }
+
+    private static long pack(int onHand, int reserved) {
+        return ((long) onHand << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    /**
+     * On-hand units in the high half, reserved units in the low half.
+     */
+    private static final class StockLevel {
+        private final AtomicLong state = new AtomicLong();
+
+        void receive(int quantity) {
+            long current;
+            long next;
+            do {
+                current = state.get();
+                next = pack(Math.addExact(onHand(current), quantity), reserved(current));
+            } while (!state.compareAndSet(current, next));
+        }
+
+        boolean tryReserve(int quantity) {
+            long current;
+            long next;
+            do {
+                current = state.get();
+                int reserved = reserved(current);
+                if (onHand(current) - reserved < quantity) {
+                    return false;
+                }
+                next = pack(onHand(current), reserved + quantity);
+            } while (!state.compareAndSet(current, next));
+            return true;
+        }
+
+        void commit(int quantity) {
+            long current;
+            long next;
+            do {
+                current = state.get();
+                next = pack(onHand(current) - quantity, reserved(current) - quantity);
+            } while (!state.compareAndSet(current, next));
+        }
+
+        void release(int quantity) {
+            long current;
+            long next;
+            do {
+                current = state.get();
+                next = pack(onHand(current), reserved(current) - quantity);
+            } while (!state.compareAndSet(current, next));
+        }
+    }
+
+    /**
+     * The stock levels an order holds units of, and how many.
+     */
+    private static final class Reservation {
+        private final StockLevel[] levels;
+        private final int[] quantities;
+        private int size;
+
+        Reservation(int lines) {
+            this.levels = new StockLevel[lines];
+            this.quantities = new int[lines];
+        }
+
+        void add(StockLevel level, int quantity) {
+            levels[size] = level;
+            quantities[size] = quantity;
+            size++;
+        }
+
+        int quantityOf(StockLevel level) {
+            for (int i = 0; i < size; i++) {
+                if (levels[i] == level) {
+                    return quantities[i];
+                }
+            }
+            return 0;
+        }
+
+        void undo() {
+            for (int i = 0; i < size; i++) {
+                levels[i].release(quantities[i]);
+            }
+        }
+    }
+
+    private static final class StockKey {
+        private final String sku;
+        private final String warehouseLocation;
+
+        StockKey(String sku, String warehouseLocation) {
+            this.sku = sku;
+            this.warehouseLocation = warehouseLocation != null ? warehouseLocation : "";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof StockKey)) {
+                return false;
+            }
+            StockKey other = (StockKey) o;
+            return sku.equals(other.sku) && warehouseLocation.equals(other.warehouseLocation);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sku, warehouseLocation);
+        }
+    }
+}
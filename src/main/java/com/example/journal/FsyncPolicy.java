@@ -0,0 +1,16 @@
+package com.example.journal;
+
+/**
+ * When the journal writer forces written batches to disk.
+ */
+public enum FsyncPolicy {
+
+    /** force() after every batch - one fsync per group commit */
+    EVERY_BATCH,
+
+    /** force() at most once per configured interval; a crash may lose the last interval */
+    INTERVAL,
+
+    /** leave flushing to the operating system */
+    NEVER
+}
@@ -0,0 +1,31 @@
+package com.example.journal;
+
+/**
+ * OrderService operation that produced a journal record.
+ */
+public enum JournalRecordType {
+
+    CREATE((byte) 1),
+    UPDATE((byte) 2),
+    PAYMENT((byte) 3),
+    DISCOUNT((byte) 4);
+
+    private final byte code;
+
+    JournalRecordType(byte code) {
+        this.code = code;
+    }
+
+    public byte getCode() {
+        return code;
+    }
+
+    public static JournalRecordType fromCode(byte code) {
+        for (JournalRecordType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown journal record type: " + code);
+    }
+}
@@ -0,0 +1,422 @@
+package com.example.journal;
+
+import com.example.model.Order;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * OrderJournal - append-only write-ahead journal for order mutations
+ *
+ * Callers encode a record and hand it to a single writer thread, which
+ * drains whatever has queued up and writes it as one batch through a
+ * gathering FileChannel write. Durability therefore costs one fsync per
+ * batch (or per interval) instead of one per order, and the calling
+ * thread never blocks on disk unless it asks to via awaitDurable().
+ *
+ * Record layout: [int payloadLength][int crc32][byte type][payload].
+ * A torn or corrupt tail left by a crash is detected by length/CRC and
+ * truncated when the journal is opened.
+ *
+ * The file is locked while the journal is open, so a second journal on it,
+ * in this process or another, fails to open instead of interleaving
+ * records. Once a write fails, append() refuses further records.
+ */
+public class OrderJournal implements Closeable {
+
+    public static final int DEFAULT_MAX_BATCH_SIZE = 512;
+    public static final long DEFAULT_FSYNC_INTERVAL_MILLIS = 50;
+
+    private static final int HEADER_BYTES = 4 + 4 + 1;
+    private static final PendingRecord SHUTDOWN = new PendingRecord(-1, ByteBuffer.allocate(0));
+
+    private final Path file;
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final int maxBatchSize;
+    private final BlockingQueue<PendingRecord> queue = new LinkedBlockingQueue<>();
+    private final Object appendLock = new Object();
+    private final Object progressLock = new Object();
+    private final Thread writer;
+
+    private long lastAssignedSequence;
+    private long writtenSequence;
+    private long durableSequence;
+    private long lastForceMillis;
+    private boolean unforcedData;
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    public OrderJournal(Path file) throws IOException {
+        this(file, FsyncPolicy.EVERY_BATCH, DEFAULT_FSYNC_INTERVAL_MILLIS, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public OrderJournal(Path file, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis, int maxBatchSize)
+            throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("Journal file is required");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("Max batch size must be positive");
+        }
+        if (fsyncPolicy == FsyncPolicy.INTERVAL && fsyncIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Fsync interval must be positive");
+        }
+        this.file = file;
+        this.fsyncPolicy = fsyncPolicy != null ? fsyncPolicy : FsyncPolicy.EVERY_BATCH;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.maxBatchSize = maxBatchSize;
+
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        // Released when the channel is closed
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IllegalStateException("Journal is already open: " + file);
+        }
+
+        // Drop any torn tail so new records are never appended after garbage
+        long validLength = scan(null);
+        if (validLength < channel.size()) {
+            channel.truncate(validLength);
+            channel.force(true);
+        }
+        channel.position(validLength);
+        this.lastForceMillis = System.currentTimeMillis();
+
+        this.writer = new Thread(this::writeLoop, "order-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queue a snapshot of the order. The snapshot is encoded on the calling
+     * thread, so later changes to the order are not captured by this record.
+     *
+     * @return sequence number to pass to awaitDurable()
+     * @throws IllegalStateException if the journal is closed or a write has failed
+     */
+    public long append(JournalRecordType type, Order order) {
+        if (type == null) {
+            throw new IllegalArgumentException("Record type is required");
+        }
+        if (order == null) {
+            throw new IllegalArgumentException("Order is required");
+        }
+        byte[] payload = OrderRecordCodec.encode(order);
+        ByteBuffer record = frame(type, payload);
+
+        // Sequence assignment and enqueue are paired so the queue is always in sequence order
+        synchronized (appendLock) {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed: " + file);
+            }
+            if (failure != null) {
+                throw new IllegalStateException("Journal write failed: " + file, failure);
+            }
+            if (!writer.isAlive()) {
+                throw new IllegalStateException("Journal writer has stopped: " + file);
+            }
+            long sequence = ++lastAssignedSequence;
+            queue.add(new PendingRecord(sequence, record));
+            return sequence;
+        }
+    }
+
+    /**
+     * Block until the record with the given sequence is on disk according
+     * to the fsync policy (written for NEVER, forced otherwise).
+     */
+    public void awaitDurable(long sequence) {
+        synchronized (progressLock) {
+            while (durableSequence < sequence) {
+                if (failure != null) {
+                    throw new UncheckedIOException("Journal write failed: " + file, failure);
+                }
+                if (!writer.isAlive()) {
+                    throw new IllegalStateException("Journal writer has stopped: " + file);
+                }
+                try {
+                    progressLock.wait(fsyncIntervalMillis > 0 ? fsyncIntervalMillis : DEFAULT_FSYNC_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for journal", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Block until everything appended so far is durable.
+     */
+    public void flush() {
+        long sequence;
+        synchronized (appendLock) {
+            sequence = lastAssignedSequence;
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Read every intact record in file order. Records after a torn or
+     * corrupt one are ignored, matching what open() keeps.
+     *
+     * @return number of records replayed
+     * @throws IOException if a record passes its CRC check but cannot be decoded
+     */
+    public int replay(BiConsumer<JournalRecordType, Order> consumer) throws IOException {
+        if (consumer == null) {
+            throw new IllegalArgumentException("Consumer is required");
+        }
+        int[] count = new int[1];
+        scan((type, order) -> {
+            consumer.accept(type, order);
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    public long getDurableSequence() {
+        synchronized (progressLock) {
+            return durableSequence;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (appendLock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            // Queued behind every appended record, so the writer drains them all first
+            queue.add(SHUTDOWN);
+        }
+        // Not interrupt(): interrupting a thread inside FileChannel I/O closes the channel
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure == null && fsyncPolicy != FsyncPolicy.NEVER) {
+                channel.force(false);
+                markDurable(writtenSequence());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingRecord> batch = new ArrayList<>(maxBatchSize);
+        boolean running = true;
+        try {
+            while (running) {
+                PendingRecord first;
+                try {
+                    first = fsyncPolicy == FsyncPolicy.INTERVAL
+                            ? queue.poll(fsyncIntervalMillis, TimeUnit.MILLISECONDS)
+                            : queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    if (batch.get(batch.size() - 1) == SHUTDOWN) {
+                        batch.remove(batch.size() - 1);
+                        running = false;
+                    }
+                    if (!batch.isEmpty()) {
+                        writeBatch(batch);
+                    }
+                    batch.clear();
+                }
+                forceIfDue();
+            }
+        } catch (IOException e) {
+            synchronized (progressLock) {
+                failure = e;
+                progressLock.notifyAll();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingRecord> batch) throws IOException {
+        ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+        long remaining = 0;
+        for (int i = 0; i < buffers.length; i++) {
+            buffers[i] = batch.get(i).record;
+            remaining += buffers[i].remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+
+        long lastSequence = batch.get(batch.size() - 1).sequence;
+        synchronized (progressLock) {
+            writtenSequence = lastSequence;
+            unforcedData = true;
+        }
+        if (fsyncPolicy == FsyncPolicy.NEVER) {
+            markDurable(lastSequence);
+        } else if (fsyncPolicy == FsyncPolicy.EVERY_BATCH) {
+            channel.force(false);
+            markDurable(lastSequence);
+        }
+    }
+
+    private void forceIfDue() throws IOException {
+        if (fsyncPolicy != FsyncPolicy.INTERVAL) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long sequence;
+        synchronized (progressLock) {
+            if (!unforcedData || now - lastForceMillis < fsyncIntervalMillis) {
+                return;
+            }
+            sequence = writtenSequence;
+        }
+        channel.force(false);
+        lastForceMillis = now;
+        markDurable(sequence);
+    }
+
+    private long writtenSequence() {
+        synchronized (progressLock) {
+            return writtenSequence;
+        }
+    }
+
+    private void markDurable(long sequence) {
+        synchronized (progressLock) {
+            if (sequence > durableSequence) {
+                durableSequence = sequence;
+            }
+            if (durableSequence >= writtenSequence) {
+                unforcedData = false;
+            }
+            progressLock.notifyAll();
+        }
+    }
+
+    /**
+     * Walk the file from the start, validating each record.
+     *
+     * @return byte offset just past the last intact record
+     */
+    private long scan(BiConsumer<JournalRecordType, Order> consumer) throws IOException {
+        long position = 0;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        CRC32 crc = new CRC32();
+
+        while (position + HEADER_BYTES <= size) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            int payloadLength = header.getInt();
+            int expectedCrc = header.getInt();
+            byte typeCode = header.get();
+            if (payloadLength < 0 || position + HEADER_BYTES + payloadLength > size) {
+                break;
+            }
+
+            ByteBuffer payload = ByteBuffer.allocate(payloadLength);
+            readFully(payload, position + HEADER_BYTES);
+            crc.reset();
+            crc.update(typeCode);
+            crc.update(payload.array(), 0, payloadLength);
+            if ((int) crc.getValue() != expectedCrc) {
+                break;
+            }
+
+            if (consumer != null) {
+                JournalRecordType type;
+                Order order;
+                try {
+                    type = JournalRecordType.fromCode(typeCode);
+                    order = OrderRecordCodec.decode(payload.array(), 0, payloadLength);
+                } catch (IOException | IllegalArgumentException e) {
+                    // Intact on disk, so open() kept it; skipping it would hide every later record
+                    throw new IOException("Journal record at offset " + position + " cannot be decoded: " + file, e);
+                }
+                consumer.accept(type, order);
+            }
+            position += HEADER_BYTES + payloadLength;
+        }
+        return position;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + buffer.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of journal: " + file);
+            }
+        }
+    }
+
+    private static ByteBuffer frame(JournalRecordType type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type.getCode());
+        crc.update(payload);
+
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        record.putInt(payload.length);
+        record.putInt((int) crc.getValue());
+        record.put(type.getCode());
+        record.put(payload);
+        record.flip();
+        return record;
+    }
+
+    private static final class PendingRecord {
+        private final long sequence;
+        private final ByteBuffer record;
+
+        private PendingRecord(long sequence, ByteBuffer record) {
+            this.sequence = sequence;
+            this.record = record;
+        }
+    }
+}
@@ -0,0 +1,464 @@
+package com.example.journal;
+
+import com.example.model.Address;
+import com.example.model.Order;
+import com.example.model.OrderItem;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot encoding of an Order for the journal.
+ *
+ * Every record carries the full order state, so replay is "last record
+ * wins" per orderId and never depends on earlier records being intact.
+ * customAttributes values are journaled in their String form.
+ */
+final class OrderRecordCodec {
+
+    private static final byte FORMAT_VERSION = 1;
+
+    // Billing address flags - billing is usually the shipping instance
+    private static final byte NO_ADDRESS = 0;
+    private static final byte OWN_ADDRESS = 1;
+    private static final byte SAME_AS_SHIPPING = 2;
+
+    private OrderRecordCodec() {
+    }
+
+    static byte[] encode(Order order) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(FORMAT_VERSION);
+            writeOrder(out, order);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            // ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static Order decode(byte[] payload, int offset, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, offset, length));
+        byte version = in.readByte();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported journal record version: " + version);
+        }
+        return readOrder(in);
+    }
+
+    private static void writeOrder(DataOutput out, Order order) throws IOException {
+        writeString(out, order.getOrderId());
+        writeString(out, order.getOrderNumber());
+        writeString(out, order.getCustomerId());
+        writeString(out, order.getCustomerEmail());
+        writeString(out, order.getCustomerPhoneNumber());
+        writeDateTime(out, order.getOrderDate());
+        writeDateTime(out, order.getEstimatedDeliveryDate());
+        writeDateTime(out, order.getActualDeliveryDate());
+        writeString(out, order.getOrderStatus());
+        writeString(out, order.getPriority());
+
+        writeDecimal(out, order.getSubtotalAmount());
+        writeDecimal(out, order.getTaxAmount());
+        writeDecimal(out, order.getShippingAmount());
+        writeDecimal(out, order.getDiscountAmount());
+        writeDecimal(out, order.getTotalAmount());
+        writeString(out, order.getCurrency());
+        writeString(out, order.getPaymentStatus());
+        writeString(out, order.getPaymentMethod());
+        writeString(out, order.getPaymentTransactionId());
+
+        writeString(out, order.getShippingMethod());
+        writeString(out, order.getShippingCarrier());
+        writeString(out, order.getTrackingNumber());
+        writeDecimal(out, order.getShippingWeight());
+        writeString(out, order.getShippingDimensions());
+        out.writeBoolean(order.isRequiresSignature());
+        out.writeBoolean(order.isGift());
+        writeString(out, order.getGiftMessage());
+        writeString(out, order.getGiftWrapType());
+
+        writeString(out, order.getSalesChannel());
+        writeString(out, order.getPromotionCode());
+        writeString(out, order.getReferralCode());
+        out.writeBoolean(order.isInternational());
+        writeString(out, order.getSourceCountry());
+        writeString(out, order.getDestinationCountry());
+        out.writeBoolean(order.isRequiresCustomsClearance());
+        writeString(out, order.getCustomsDeclarationNumber());
+
+        List<OrderItem> items = order.getOrderItems();
+        out.writeInt(items != null ? items.size() : 0);
+        if (items != null) {
+            for (OrderItem item : items) {
+                writeItem(out, item);
+            }
+        }
+        writeStringList(out, order.getAppliedDiscountCodes());
+        writeStringMap(out, order.getOrderNotes());
+        writeObjectMap(out, order.getCustomAttributes());
+        writeStringList(out, order.getTags());
+
+        Address shipping = order.getShippingAddress();
+        Address billing = order.getBillingAddress();
+        if (shipping == null) {
+            out.writeByte(NO_ADDRESS);
+        } else {
+            out.writeByte(OWN_ADDRESS);
+            writeAddress(out, shipping);
+        }
+        if (billing == null) {
+            out.writeByte(NO_ADDRESS);
+        } else if (billing == shipping) {
+            out.writeByte(SAME_AS_SHIPPING);
+        } else {
+            out.writeByte(OWN_ADDRESS);
+            writeAddress(out, billing);
+        }
+
+        writeDateTime(out, order.getCreatedAt());
+        writeDateTime(out, order.getUpdatedAt());
+        writeString(out, order.getCreatedBy());
+        writeString(out, order.getUpdatedBy());
+        out.writeLong(order.getVersion() != null ? order.getVersion() : 1L);
+    }
+
+    private static Order readOrder(DataInput in) throws IOException {
+        Order order = new Order();
+        order.setOrderId(readString(in));
+        order.setOrderNumber(readString(in));
+        order.setCustomerId(readString(in));
+        order.setCustomerEmail(readString(in));
+        order.setCustomerPhoneNumber(readString(in));
+        order.setOrderDate(readDateTime(in));
+        order.setEstimatedDeliveryDate(readDateTime(in));
+        order.setActualDeliveryDate(readDateTime(in));
+        order.setOrderStatus(readString(in));
+        order.setPriority(readString(in));
+
+        BigDecimal subtotal = readDecimal(in);
+        BigDecimal tax = readDecimal(in);
+        BigDecimal shippingAmount = readDecimal(in);
+        BigDecimal discount = readDecimal(in);
+        BigDecimal total = readDecimal(in);
+        order.setCurrency(readString(in));
+        order.setPaymentStatus(readString(in));
+        order.setPaymentMethod(readString(in));
+        order.setPaymentTransactionId(readString(in));
+
+        order.setShippingMethod(readString(in));
+        order.setShippingCarrier(readString(in));
+        order.setTrackingNumber(readString(in));
+        order.setShippingWeight(readDecimal(in));
+        order.setShippingDimensions(readString(in));
+        order.setRequiresSignature(in.readBoolean());
+        order.setGift(in.readBoolean());
+        order.setGiftMessage(readString(in));
+        order.setGiftWrapType(readString(in));
+
+        order.setSalesChannel(readString(in));
+        order.setPromotionCode(readString(in));
+        order.setReferralCode(readString(in));
+        boolean international = in.readBoolean();
+        String sourceCountry = readString(in);
+        String destinationCountry = readString(in);
+        boolean requiresCustomsClearance = in.readBoolean();
+        order.setCustomsDeclarationNumber(readString(in));
+
+        int itemCount = in.readInt();
+        List<OrderItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(readItem(in));
+        }
+        order.setOrderItems(items);
+        order.setAppliedDiscountCodes(readStringList(in));
+        order.setOrderNotes(readStringMap(in));
+        Map<String, String> customAttributes = readStringMap(in);
+        order.setCustomAttributes(customAttributes != null ? new HashMap<>(customAttributes) : null);
+        order.setTags(readStringList(in));
+
+        Address shipping = in.readByte() == OWN_ADDRESS ? readAddress(in) : null;
+        byte billingFlag = in.readByte();
+        Address billing = billingFlag == OWN_ADDRESS ? readAddress(in)
+                        : billingFlag == SAME_AS_SHIPPING ? shipping : null;
+        order.setShippingAddress(shipping);
+        order.setBillingAddress(billing);
+
+        // Restore derived fields last - the setters above recompute them
+        order.setInternational(international);
+        order.setSourceCountry(sourceCountry);
+        order.setDestinationCountry(destinationCountry);
+        order.setRequiresCustomsClearance(requiresCustomsClearance);
+        order.setSubtotalAmount(subtotal);
+        order.setTaxAmount(tax);
+        order.setShippingAmount(shippingAmount);
+        order.setDiscountAmount(discount);
+        order.setTotalAmount(total);
+
+        order.setCreatedAt(readDateTime(in));
+        LocalDateTime updatedAt = readDateTime(in);
+        order.setCreatedBy(readString(in));
+        order.setUpdatedBy(readString(in));
+        order.setVersion(in.readLong());
+        order.setUpdatedAt(updatedAt);
+        return order;
+    }
+
+    private static void writeItem(DataOutput out, OrderItem item) throws IOException {
+        writeString(out, item.getOrderItemId());
+        writeString(out, item.getProductId());
+        writeString(out, item.getProductName());
+        writeString(out, item.getProductSku());
+        writeString(out, item.getProductCategory());
+        writeString(out, item.getProductBrand());
+        writeString(out, item.getProductDescription());
+        writeString(out, item.getProductImageUrl());
+        writeDecimal(out, item.getUnitPrice());
+        out.writeInt(item.getQuantity());
+        writeDecimal(out, item.getTotalPrice());
+        writeString(out, item.getCurrency());
+        writeDecimal(out, item.getWeight());
+        writeString(out, item.getDimensions());
+        out.writeBoolean(item.isDigital());
+        out.writeBoolean(item.isGiftCard());
+        writeString(out, item.getGiftCardRecipientEmail());
+        writeString(out, item.getGiftCardMessage());
+        writeString(out, item.getVariantId());
+        writeString(out, item.getVariantName());
+        writeStringMap(out, item.getProductAttributes());
+        writeString(out, item.getSupplierCode());
+        writeString(out, item.getWarehouseLocation());
+        out.writeBoolean(item.isPreOrder());
+        writeDateTime(out, item.getEstimatedShipDate());
+        writeDateTime(out, item.getCreatedAt());
+        writeDateTime(out, item.getUpdatedAt());
+    }
+
+    private static OrderItem readItem(DataInput in) throws IOException {
+        String orderItemId = readString(in);
+        String productId = readString(in);
+        String productName = readString(in);
+        String productSku = readString(in);
+        String productCategory = readString(in);
+        String productBrand = readString(in);
+        String productDescription = readString(in);
+        String productImageUrl = readString(in);
+        BigDecimal unitPrice = readDecimal(in);
+        int quantity = in.readInt();
+        BigDecimal totalPrice = readDecimal(in);
+        String currency = readString(in);
+        BigDecimal weight = readDecimal(in);
+        String dimensions = readString(in);
+        boolean digital = in.readBoolean();
+        boolean giftCard = in.readBoolean();
+        String giftCardRecipientEmail = readString(in);
+        String giftCardMessage = readString(in);
+        String variantId = readString(in);
+        String variantName = readString(in);
+        Map<String, String> productAttributes = readStringMap(in);
+        String supplierCode = readString(in);
+        String warehouseLocation = readString(in);
+        boolean preOrder = in.readBoolean();
+        LocalDateTime estimatedShipDate = readDateTime(in);
+
+        OrderItem item = new OrderItem(orderItemId, productId, productName, productSku, productCategory,
+                productBrand, productDescription, productImageUrl, unitPrice, quantity, currency, weight,
+                dimensions, digital, giftCard, giftCardRecipientEmail, giftCardMessage, variantId,
+                variantName, supplierCode, warehouseLocation, preOrder, estimatedShipDate);
+        item.setTotalPrice(totalPrice);
+        item.setProductAttributes(productAttributes);
+        item.setCreatedAt(readDateTime(in));
+        item.setUpdatedAt(readDateTime(in));
+        return item;
+    }
+
+    private static void writeAddress(DataOutput out, Address address) throws IOException {
+        writeString(out, address.getAddressId());
+        writeString(out, address.getAddressType());
+        writeString(out, address.getStreetAddress());
+        writeString(out, address.getStreetAddress2());
+        writeString(out, address.getCity());
+        writeString(out, address.getState());
+        writeString(out, address.getPostalCode());
+        writeString(out, address.getCountry());
+        writeString(out, address.getCountryCode());
+        writeString(out, address.getRegion());
+        writeString(out, address.getDistrict());
+        writeString(out, address.getLandmark());
+        writeString(out, address.getPhoneNumber());
+        writeString(out, address.getContactName());
+        writeString(out, address.getCompany());
+        out.writeBoolean(address.isDefault());
+        out.writeBoolean(address.isVerified());
+        writeString(out, address.getVerificationStatus());
+        writeNullableDouble(out, address.getLatitude());
+        writeNullableDouble(out, address.getLongitude());
+        writeString(out, address.getTimeZone());
+        writeString(out, address.getDeliveryInstructions());
+        writeString(out, address.getAccessCodes());
+        out.writeBoolean(address.isCommercial());
+        out.writeBoolean(address.isHasLoadingDock());
+        writeString(out, address.getBusinessHours());
+        writeString(out, address.getCreatedBy());
+        writeString(out, address.getUpdatedBy());
+        writeDateTime(out, address.getCreatedAt());
+        writeDateTime(out, address.getUpdatedAt());
+    }
+
+    private static Address readAddress(DataInput in) throws IOException {
+        Address address = new Address(readString(in), readString(in), readString(in), readString(in),
+                readString(in), readString(in), readString(in), readString(in), readString(in),
+                readString(in), readString(in), readString(in), readString(in), readString(in),
+                readString(in), in.readBoolean(), in.readBoolean(), readString(in),
+                readNullableDouble(in), readNullableDouble(in), readString(in), readString(in),
+                readString(in), in.readBoolean(), in.readBoolean(), readString(in), readString(in));
+        address.setUpdatedBy(readString(in));
+        address.setCreatedAt(readDateTime(in));
+        address.setUpdatedAt(readDateTime(in));
+        return address;
+    }
+
+    // Primitive encoders - length -1 marks null
+
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDecimal(DataOutput out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(unscaled.length);
+        out.write(unscaled);
+        out.writeInt(value.scale());
+    }
+
+    private static BigDecimal readDecimal(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] unscaled = new byte[length];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), in.readInt());
+    }
+
+    private static void writeDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    private static void writeNullableDouble(DataOutput out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Double readNullableDouble(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    private static void writeStringList(DataOutput out, List<String> values) throws IOException {
+        out.writeInt(values != null ? values.size() : 0);
+        if (values != null) {
+            for (String value : values) {
+                writeString(out, value);
+            }
+        }
+    }
+
+    // null when empty, so the model keeps its shared empty instance
+    private static List<String> readStringList(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size == 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(in));
+        }
+        return values;
+    }
+
+    private static void writeStringMap(DataOutput out, Map<String, String> values) throws IOException {
+        out.writeInt(values != null ? values.size() : 0);
+        if (values != null) {
+            for (Map.Entry<String, String> entry : values.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue());
+            }
+        }
+    }
+
+    private static void writeObjectMap(DataOutput out, Map<String, Object> values) throws IOException {
+        out.writeInt(values != null ? values.size() : 0);
+        if (values != null) {
+            for (Map.Entry<String, Object> entry : values.entrySet()) {
+                writeString(out, entry.getKey());
+                writeString(out, entry.getValue() != null ? String.valueOf(entry.getValue()) : null);
+            }
+        }
+    }
+
+    // null when empty, so the model keeps its shared empty instance
+    private static Map<String, String> readStringMap(DataInput in) throws IOException {
+        int size = in.readInt();
+        if (size == 0) {
+            return null;
+        }
+        Map<String, String> values = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            values.put(readString(in), readString(in));
+        }
+        return values;
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.model;
 
+import com.example.id.IdGenerators;
+import com.example.time.TimeSources;
+
 import java.time.LocalDateTime;
 import java.util.Objects;
 
@@ -39,6 +42,7 @@ public class Address {
     private LocalDateTime updatedAt;
     private String createdBy;
     private String updatedBy;
+    private boolean shared; // pooled by AddressPool and referenced by many orders; never changes again
     
     // Default constructor with defaults nightmare
     public Address() {
@@ -48,8 +52,8 @@ public class Address {
         this.verificationStatus = "UNVERIFIED";
         this.isCommercial = false;
         this.hasLoadingDock = false;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = TimeSources.now();
+        this.updatedAt = TimeSources.now();
     }
     
     // Constructor with required fields
@@ -110,184 +114,212 @@ public class Address {
         this.hasLoadingDock = hasLoadingDock;
         this.businessHours = businessHours;
         this.createdBy = createdBy;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = TimeSources.now();
+        this.updatedAt = TimeSources.now();
     }
     
     // Massive getters and setters
     
     public String getAddressId() { return addressId; }
     public void setAddressId(String addressId) { 
+        checkNotShared();
         this.addressId = addressId; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getAddressType() { return addressType; }
     public void setAddressType(String addressType) { 
+        checkNotShared();
         this.addressType = addressType != null ? addressType : "OTHER"; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getStreetAddress() { return streetAddress; }
     public void setStreetAddress(String streetAddress) { 
+        checkNotShared();
         this.streetAddress = streetAddress; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getStreetAddress2() { return streetAddress2; }
     public void setStreetAddress2(String streetAddress2) { 
+        checkNotShared();
         this.streetAddress2 = streetAddress2; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCity() { return city; }
     public void setCity(String city) { 
+        checkNotShared();
         this.city = city; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getState() { return state; }
     public void setState(String state) { 
+        checkNotShared();
         this.state = state; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getPostalCode() { return postalCode; }
     public void setPostalCode(String postalCode) { 
+        checkNotShared();
         this.postalCode = postalCode; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCountry() { return country; }
     public void setCountry(String country) { 
+        checkNotShared();
         this.country = country; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCountryCode() { return countryCode; }
     public void setCountryCode(String countryCode) { 
+        checkNotShared();
         this.countryCode = countryCode; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getRegion() { return region; }
     public void setRegion(String region) { 
+        checkNotShared();
         this.region = region; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getDistrict() { return district; }
     public void setDistrict(String district) { 
+        checkNotShared();
         this.district = district; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getLandmark() { return landmark; }
     public void setLandmark(String landmark) { 
+        checkNotShared();
         this.landmark = landmark; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getPhoneNumber() { return phoneNumber; }
     public void setPhoneNumber(String phoneNumber) { 
+        checkNotShared();
         this.phoneNumber = phoneNumber; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getContactName() { return contactName; }
     public void setContactName(String contactName) { 
+        checkNotShared();
         this.contactName = contactName; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCompany() { return company; }
     public void setCompany(String company) { 
+        checkNotShared();
         this.company = company; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isDefault() { return isDefault; }
     public void setDefault(boolean aDefault) { 
+        checkNotShared();
         isDefault = aDefault; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isVerified() { return isVerified; }
     public void setVerified(boolean verified) { 
+        checkNotShared();
         isVerified = verified; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getVerificationStatus() { return verificationStatus; }
     public void setVerificationStatus(String verificationStatus) { 
+        checkNotShared();
         this.verificationStatus = verificationStatus != null ? verificationStatus : "UNVERIFIED"; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public Double getLatitude() { return latitude; }
     public void setLatitude(Double latitude) { 
+        checkNotShared();
         this.latitude = latitude; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public Double getLongitude() { return longitude; }
     public void setLongitude(Double longitude) { 
+        checkNotShared();
         this.longitude = longitude; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getTimeZone() { return timeZone; }
     public void setTimeZone(String timeZone) { 
+        checkNotShared();
         this.timeZone = timeZone; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getDeliveryInstructions() { return deliveryInstructions; }
     public void setDeliveryInstructions(String deliveryInstructions) { 
+        checkNotShared();
         this.deliveryInstructions = deliveryInstructions; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getAccessCodes() { return accessCodes; }
     public void setAccessCodes(String accessCodes) { 
+        checkNotShared();
         this.accessCodes = accessCodes; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isCommercial() { return isCommercial; }
     public void setCommercial(boolean commercial) { 
+        checkNotShared();
         isCommercial = commercial; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isHasLoadingDock() { return hasLoadingDock; }
     public void setHasLoadingDock(boolean hasLoadingDock) { 
+        checkNotShared();
         this.hasLoadingDock = hasLoadingDock; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getBusinessHours() { return businessHours; }
     public void setBusinessHours(String businessHours) { 
+        checkNotShared();
         this.businessHours = businessHours; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDateTime getCreatedAt() { return createdAt; }
-    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { checkNotShared(); this.createdAt = createdAt; }
     
     public LocalDateTime getUpdatedAt() { return updatedAt; }
-    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { checkNotShared(); this.updatedAt = updatedAt; }
     
     public String getCreatedBy() { return createdBy; }
     public void setCreatedBy(String createdBy) { 
+        checkNotShared();
         this.createdBy = createdBy; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getUpdatedBy() { return updatedBy; }
     public void setUpdatedBy(String updatedBy) { 
+        checkNotShared();
         this.updatedBy = updatedBy; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     // Helper methods
@@ -329,8 +361,41 @@ public class Address {
         return latitude != null && longitude != null;
     }
     
+    /**
+     * Whether this is a shared AddressPool instance. A shared address
+     * cannot be changed; change a copy() and set that instead.
+     */
+    public boolean isShared() {
+        return shared;
+    }
+    
+    /**
+     * An unshared copy with every field, ID and timestamps included.
+     */
+    public Address copy() {
+        Address copy = new Address(addressId, addressType, streetAddress, streetAddress2, city, state,
+                postalCode, country, countryCode, region, district, landmark, phoneNumber, contactName,
+                company, isDefault, isVerified, verificationStatus, latitude, longitude, timeZone,
+                deliveryInstructions, accessCodes, isCommercial, hasLoadingDock, businessHours, createdBy);
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        copy.updatedBy = updatedBy;
+        return copy;
+    }
+    
+    // Called by AddressPool before the address is published
+    void share() {
+        this.shared = true;
+    }
+    
+    private void checkNotShared() {
+        if (shared) {
+            throw new IllegalStateException("Shared address cannot be changed; change a copy instead");
+        }
+    }
+    
     private String generateAddressId() {
-        return "ADDR_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
+        return "ADDR_" + IdGenerators.nextId();
     }
     
     @Override
@@ -0,0 +1,239 @@
+package com.example.model;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * AddressPool - one shared, unchangeable Address per distinct address
+ *
+ * Repeat customers ship to the same few addresses, yet every order used
+ * to hold its own 30-field copy. intern() hash-conses addresses by
+ * content: the first address seen with some content is copied, marked
+ * shared and kept; every later address with the same content gets that
+ * instance back, so all those orders reference one object.
+ *
+ * Content is every field except the ID, audit fields and timestamps.
+ * Text is compared trimmed, with null equal to blank, and the street and
+ * locality fields ignore case, so "12 Main St " and "12 MAIN ST" share
+ * one instance (the first one seen, with its ID). Comparing needs no
+ * normalized copies of the strings.
+ *
+ * Shared addresses throw on every setter. To change an order's address,
+ * change a copy() and set it (or intern it again).
+ *
+ * The pool holds its addresses weakly: once no order or caller references
+ * a shared address it can be garbage collected, and its entry is dropped
+ * by a later intern() or size(). Interning the same content after that
+ * pools a new instance.
+ */
+public class AddressPool {
+
+    // Each entry maps its key to itself; the key is the weak reference to the pooled address
+    private final ConcurrentHashMap<Object, PooledKey> addresses = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Address> collected = new ReferenceQueue<>();
+
+    /**
+     * The shared address with this address's content, pooling a copy of it
+     * if there is none yet. Returns null for null and a shared address as is.
+     */
+    public Address intern(Address address) {
+        if (address == null || address.isShared()) {
+            return address;
+        }
+        expungeCollected();
+        PooledKey entry = addresses.get(new ContentKey(address));
+        Address pooled = entry != null ? entry.get() : null;
+        if (pooled != null) {
+            return pooled;
+        }
+        Address snapshot = address.copy();
+        snapshot.share();
+        PooledKey key = new PooledKey(snapshot, collected);
+        while (true) {
+            entry = addresses.putIfAbsent(key, key);
+            if (entry == null) {
+                return snapshot;
+            }
+            pooled = entry.get();
+            if (pooled != null) {
+                return pooled;
+            }
+            // Collected since it matched; its slot is free for the snapshot
+            addresses.remove(entry, entry);
+        }
+    }
+
+    /**
+     * Number of pooled addresses. Addresses collected since the last
+     * intern() or size() may still be counted until the collector reports
+     * them.
+     */
+    public int size() {
+        expungeCollected();
+        return addresses.size();
+    }
+
+    public void clear() {
+        addresses.clear();
+        expungeCollected();
+    }
+
+    private void expungeCollected() {
+        for (Reference<? extends Address> ref; (ref = collected.poll()) != null; ) {
+            addresses.remove(ref, ref);
+        }
+    }
+
+    // The address a map key stands for, or null once a pooled one is collected
+    private static Address addressOf(Object key) {
+        if (key instanceof PooledKey) {
+            return ((PooledKey) key).get();
+        }
+        return key instanceof ContentKey ? ((ContentKey) key).address : null;
+    }
+
+    private static boolean matches(Address a, Object key) {
+        Address b = addressOf(key);
+        return a != null && b != null && sameContent(a, b);
+    }
+
+    private static boolean sameContent(Address a, Address b) {
+        return a.isDefault() == b.isDefault()
+                && a.isVerified() == b.isVerified()
+                && a.isCommercial() == b.isCommercial()
+                && a.isHasLoadingDock() == b.isHasLoadingDock()
+                && Objects.equals(a.getLatitude(), b.getLatitude())
+                && Objects.equals(a.getLongitude(), b.getLongitude())
+                && sameText(a.getStreetAddress(), b.getStreetAddress(), true)
+                && sameText(a.getStreetAddress2(), b.getStreetAddress2(), true)
+                && sameText(a.getCity(), b.getCity(), true)
+                && sameText(a.getState(), b.getState(), true)
+                && sameText(a.getPostalCode(), b.getPostalCode(), true)
+                && sameText(a.getCountry(), b.getCountry(), true)
+                && sameText(a.getCountryCode(), b.getCountryCode(), true)
+                && sameText(a.getRegion(), b.getRegion(), true)
+                && sameText(a.getDistrict(), b.getDistrict(), true)
+                && sameText(a.getAddressType(), b.getAddressType(), false)
+                && sameText(a.getLandmark(), b.getLandmark(), false)
+                && sameText(a.getPhoneNumber(), b.getPhoneNumber(), false)
+                && sameText(a.getContactName(), b.getContactName(), false)
+                && sameText(a.getCompany(), b.getCompany(), false)
+                && sameText(a.getVerificationStatus(), b.getVerificationStatus(), false)
+                && sameText(a.getTimeZone(), b.getTimeZone(), false)
+                && sameText(a.getDeliveryInstructions(), b.getDeliveryInstructions(), false)
+                && sameText(a.getAccessCodes(), b.getAccessCodes(), false)
+                && sameText(a.getBusinessHours(), b.getBusinessHours(), false);
+    }
+
+    // Must agree with sameContent: equal content, equal hash
+    private static int contentHash(Address a) {
+        int h = (a.isDefault() ? 1 : 0) | (a.isVerified() ? 2 : 0) | (a.isCommercial() ? 4 : 0)
+                | (a.isHasLoadingDock() ? 8 : 0);
+        h = 31 * h + Objects.hashCode(a.getLatitude());
+        h = 31 * h + Objects.hashCode(a.getLongitude());
+        h = 31 * h + textHash(a.getStreetAddress(), true);
+        h = 31 * h + textHash(a.getStreetAddress2(), true);
+        h = 31 * h + textHash(a.getCity(), true);
+        h = 31 * h + textHash(a.getState(), true);
+        h = 31 * h + textHash(a.getPostalCode(), true);
+        h = 31 * h + textHash(a.getCountry(), true);
+        h = 31 * h + textHash(a.getContactName(), false);
+        h = 31 * h + textHash(a.getPhoneNumber(), false);
+        h = 31 * h + textHash(a.getDeliveryInstructions(), false);
+        return h;
+    }
+
+    private static boolean sameText(String a, String b, boolean ignoreCase) {
+        if (a == b) {
+            return true;
+        }
+        int aStart = start(a);
+        int aEnd = end(a, aStart);
+        int bStart = start(b);
+        int bEnd = end(b, bStart);
+        int length = aEnd - aStart;
+        if (length != bEnd - bStart) {
+            return false;
+        }
+        return length == 0 || a.regionMatches(ignoreCase, aStart, b, bStart, length);
+    }
+
+    private static int textHash(String s, boolean ignoreCase) {
+        int start = start(s);
+        int end = end(s, start);
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            // Folded the way regionMatches(true, ...) compares
+            h = 31 * h + (ignoreCase ? Character.toLowerCase(Character.toUpperCase(c)) : c);
+        }
+        return h;
+    }
+
+    // Trimmed bounds as String.trim() would cut them; null is empty
+    private static int start(String s) {
+        if (s == null) {
+            return 0;
+        }
+        int start = 0;
+        while (start < s.length() && s.charAt(start) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int end(String s, int start) {
+        if (s == null) {
+            return 0;
+        }
+        int end = s.length();
+        while (end > start && s.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    // Looks up an address by content; matches the pooled key with the same content
+    private static final class ContentKey {
+        private final Address address;
+        private final int hash;
+
+        ContentKey(Address address) {
+            this.address = address;
+            this.hash = contentHash(address);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || matches(address, o);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    // A collected key keeps its hash and equals only itself, so it can still be removed
+    private static final class PooledKey extends WeakReference<Address> {
+        private final int hash;
+
+        PooledKey(Address address, ReferenceQueue<Address> queue) {
+            super(address, queue);
+            this.hash = contentHash(address);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o == this || matches(get(), o);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.model;
+
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * LazyCollections - collection fields that stay on the shared empty
+ * instances until something is written to them
+ *
+ * Most models never get notes, attributes or tags, so those fields start on
+ * Collections.emptyList()/emptyMap(). While a field is still shared, its
+ * getter hands out a view that reads the field and allocates the real
+ * collection on the first write through it, so callers can add to what a
+ * getter returns whether or not anything was added before. Reading through
+ * the view allocates nothing.
+ */
+final class LazyCollections {
+
+    private LazyCollections() {
+    }
+
+    /**
+     * What a getter returns: the current value of the field, or a view of
+     * the field while it is the shared empty list. The view writes through
+     * writable, which swaps a shared field for a real list and returns it.
+     */
+    static <E> List<E> list(List<E> current, Supplier<List<E>> field, Supplier<List<E>> writable) {
+        return current == Collections.<E>emptyList() ? new InflatingList<>(field, writable) : current;
+    }
+
+    static <K, V> Map<K, V> map(Map<K, V> current, Supplier<Map<K, V>> field, Supplier<Map<K, V>> writable) {
+        return current == Collections.<K, V>emptyMap() ? new InflatingMap<>(field, writable) : current;
+    }
+
+    static <E> List<E> writable(List<E> list) {
+        return list == Collections.<E>emptyList() ? new ArrayList<>(4) : list;
+    }
+
+    static <K, V> Map<K, V> writable(Map<K, V> map) {
+        return map == Collections.<K, V>emptyMap() ? new HashMap<>(4) : map;
+    }
+
+    /**
+     * The list with the element added - a new one if the list was shared or
+     * otherwise unmodifiable, e.g. a List.of() given to a setter.
+     */
+    static <E> List<E> add(List<E> list, E element) {
+        List<E> target = writable(list);
+        try {
+            target.add(element);
+            return target;
+        } catch (UnsupportedOperationException e) {
+            List<E> copy = new ArrayList<>(list.size() + 4);
+            copy.addAll(list);
+            copy.add(element);
+            return copy;
+        }
+    }
+
+    static <K, V> Map<K, V> put(Map<K, V> map, K key, V value) {
+        Map<K, V> target = writable(map);
+        try {
+            target.put(key, value);
+            return target;
+        } catch (UnsupportedOperationException e) {
+            Map<K, V> copy = new HashMap<>(map);
+            copy.put(key, value);
+            return copy;
+        }
+    }
+
+    private static final class InflatingList<E> extends AbstractList<E> {
+        private final Supplier<List<E>> field;
+        private final Supplier<List<E>> writable;
+
+        InflatingList(Supplier<List<E>> field, Supplier<List<E>> writable) {
+            this.field = field;
+            this.writable = writable;
+        }
+
+        @Override
+        public E get(int index) {
+            return field.get().get(index);
+        }
+
+        @Override
+        public int size() {
+            return field.get().size();
+        }
+
+        @Override
+        public E set(int index, E element) {
+            return writable.get().set(index, element);
+        }
+
+        @Override
+        public void add(int index, E element) {
+            writable.get().add(index, element);
+        }
+
+        @Override
+        public E remove(int index) {
+            return writable.get().remove(index);
+        }
+    }
+
+    private static final class InflatingMap<K, V> extends AbstractMap<K, V> {
+        private final Supplier<Map<K, V>> field;
+        private final Supplier<Map<K, V>> writable;
+
+        InflatingMap(Supplier<Map<K, V>> field, Supplier<Map<K, V>> writable) {
+            this.field = field;
+            this.writable = writable;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return field.get().entrySet();
+        }
+
+        @Override
+        public int size() {
+            return field.get().size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return field.get().containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return field.get().get(key);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            return writable.get().put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return field.get().remove(key);
+        }
+
+        @Override
+        public void clear() {
+            field.get().clear();
+        }
+    }
+}
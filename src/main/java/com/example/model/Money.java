@@ -0,0 +1,267 @@
+package com.example.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Money - fixed-point amount in minor units (cents) plus an ISO currency code
+ *
+ * Order and OrderItem keep their amounts as raw longs and use the static
+ * helpers below, so the pricing hot paths do primitive arithmetic and
+ * allocate nothing. BigDecimal is only created at the API boundary
+ * (getters, setters, service return values). Money instances are the
+ * immutable value form of the same arithmetic for code that wants one.
+ *
+ * Rates (shipping multipliers, percentage discounts) are expressed in
+ * parts per million, so 1.15 is 1_150_000 and 10% is 100_000. Every
+ * operation that can produce a fraction of a minor unit takes an explicit
+ * RoundingMode.
+ */
+public final class Money implements Comparable<Money> {
+
+    public static final RoundingMode DEFAULT_ROUNDING = RoundingMode.HALF_UP;
+    public static final long PPM = 1_000_000L;
+    public static final String DEFAULT_CURRENCY = "USD";
+
+    private static final int DEFAULT_SCALE = 2;
+    private static final long[] POWERS_OF_TEN = {
+        1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L
+    };
+    private static final Map<String, Integer> SCALES = new ConcurrentHashMap<>();
+
+    private final long minorUnits;
+    private final String currency;
+
+    private Money(long minorUnits, String currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    public static Money ofMinor(long minorUnits, String currency) {
+        return new Money(minorUnits, currency != null ? currency : DEFAULT_CURRENCY);
+    }
+
+    public static Money of(BigDecimal amount, String currency) {
+        return of(amount, currency, DEFAULT_ROUNDING);
+    }
+
+    public static Money of(BigDecimal amount, String currency, RoundingMode roundingMode) {
+        String code = currency != null ? currency : DEFAULT_CURRENCY;
+        return new Money(toMinor(amount, scaleOf(code), roundingMode), code);
+    }
+
+    public static Money zero(String currency) {
+        return ofMinor(0L, currency);
+    }
+
+    public long getMinorUnits() { return minorUnits; }
+    public String getCurrency() { return currency; }
+    public int getScale() { return scaleOf(currency); }
+
+    public BigDecimal toBigDecimal() {
+        return toBigDecimal(minorUnits, getScale());
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(minorUnits, other.minorUnits), currency);
+    }
+
+    public Money times(long quantity) {
+        return new Money(Math.multiplyExact(minorUnits, quantity), currency);
+    }
+
+    public Money applyRate(long ratePpm, RoundingMode roundingMode) {
+        return new Money(applyRate(minorUnits, ratePpm, roundingMode), currency);
+    }
+
+    public Money percentage(BigDecimal percent, RoundingMode roundingMode) {
+        return applyRate(percentToPpm(percent), roundingMode);
+    }
+
+    public boolean isZero() { return minorUnits == 0; }
+    public boolean isNegative() { return minorUnits < 0; }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (other == null) {
+            throw new IllegalArgumentException("Money is required");
+        }
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " vs " + other.currency);
+        }
+    }
+
+    // Primitive helpers - the allocation-free path used by the model and services
+
+    /**
+     * Number of minor-unit digits for a currency (2 for USD, 0 for JPY).
+     * Unknown codes fall back to 2.
+     */
+    public static int scaleOf(String currency) {
+        if (currency == null) {
+            return DEFAULT_SCALE;
+        }
+        Integer cached = SCALES.get(currency);
+        if (cached != null) {
+            return cached;
+        }
+        int scale;
+        try {
+            scale = Currency.getInstance(currency).getDefaultFractionDigits();
+        } catch (IllegalArgumentException e) {
+            scale = DEFAULT_SCALE;
+        }
+        if (scale < 0 || scale >= POWERS_OF_TEN.length) {
+            scale = DEFAULT_SCALE;
+        }
+        SCALES.put(currency, scale);
+        return scale;
+    }
+
+    public static long toMinor(BigDecimal amount, int scale, RoundingMode roundingMode) {
+        if (amount == null) {
+            return 0L;
+        }
+        return amount.setScale(scale, roundingMode).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toBigDecimal(long minorUnits, int scale) {
+        return BigDecimal.valueOf(minorUnits, scale);
+    }
+
+    /**
+     * Convert an amount between currency scales, e.g. when an order's currency changes.
+     */
+    public static long rescale(long minorUnits, int fromScale, int toScale, RoundingMode roundingMode) {
+        if (fromScale == toScale) {
+            return minorUnits;
+        }
+        if (toScale > fromScale) {
+            return Math.multiplyExact(minorUnits, POWERS_OF_TEN[toScale - fromScale]);
+        }
+        return divide(minorUnits, POWERS_OF_TEN[fromScale - toScale], roundingMode);
+    }
+
+    /**
+     * minorUnits * ratePpm / 1,000,000, rounded. Falls back to BigDecimal
+     * only when the intermediate product would overflow a long.
+     */
+    public static long applyRate(long minorUnits, long ratePpm, RoundingMode roundingMode) {
+        long product;
+        try {
+            product = Math.multiplyExact(minorUnits, ratePpm);
+        } catch (ArithmeticException overflow) {
+            return BigDecimal.valueOf(minorUnits)
+                    .multiply(BigDecimal.valueOf(ratePpm))
+                    .divide(BigDecimal.valueOf(PPM), 0, roundingMode)
+                    .longValueExact();
+        }
+        return divide(product, PPM, roundingMode);
+    }
+
+    /**
+     * 10 (percent) -> 100_000 ppm. Precision beyond 0.0001% is rounded half-up.
+     */
+    public static long percentToPpm(BigDecimal percent) {
+        if (percent == null) {
+            return 0L;
+        }
+        return percent.movePointRight(4).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * 1.15 (multiplier) -> 1_150_000 ppm.
+     */
+    public static long rateToPpm(BigDecimal rate) {
+        if (rate == null) {
+            return 0L;
+        }
+        return rate.movePointRight(6).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static long rateToPpm(double rate) {
+        return Math.round(rate * PPM);
+    }
+
+    /**
+     * Integer division with an explicit rounding mode.
+     */
+    public static long divide(long dividend, long divisor, RoundingMode roundingMode) {
+        if (divisor == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        // signum of the exact result, and whether the discarded fraction is >, = or < one half
+        int signum = (dividend < 0) == (divisor < 0) ? 1 : -1;
+        long twiceRemainder = Math.abs(remainder) * 2;
+        long absDivisor = Math.abs(divisor);
+        int halfComparison = twiceRemainder < 0 ? 1 : Long.compare(twiceRemainder, absDivisor);
+
+        boolean increment;
+        switch (roundingMode) {
+            case UP:
+                increment = true;
+                break;
+            case DOWN:
+                increment = false;
+                break;
+            case CEILING:
+                increment = signum > 0;
+                break;
+            case FLOOR:
+                increment = signum < 0;
+                break;
+            case HALF_UP:
+                increment = halfComparison >= 0;
+                break;
+            case HALF_DOWN:
+                increment = halfComparison > 0;
+                break;
+            case HALF_EVEN:
+                increment = halfComparison > 0 || (halfComparison == 0 && (quotient & 1) != 0);
+                break;
+            case UNNECESSARY:
+            default:
+                throw new ArithmeticException("Rounding necessary");
+        }
+        return increment ? quotient + signum : quotient;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Money money = (Money) o;
+        return minorUnits == money.minorUnits && Objects.equals(currency, money.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minorUnits, currency);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal() + " " + currency;
+    }
+}
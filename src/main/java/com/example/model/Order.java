@@ -1,12 +1,16 @@
 package com.example.model;
 
+import com.example.id.IdGenerators;
+import com.example.time.TimeSources;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.EnumSet;
 
 /**
  * Complex Order class demonstrating traditional Java nightmare with:
@@ -18,6 +22,16 @@ import java.util.HashMap;
  */
 public class Order {
     
+    private static final long HIGH_VALUE_THRESHOLD = 1000;
+    private static final int STATUS_PENDING = StatusField.ORDER_STATUS.codeOf("PENDING");
+    private static final int STATUS_CONFIRMED = StatusField.ORDER_STATUS.codeOf("CONFIRMED");
+    private static final int PRIORITY_HIGH = StatusField.PRIORITY.codeOf("HIGH");
+    private static final int PRIORITY_URGENT = StatusField.PRIORITY.codeOf("URGENT");
+    private static final int PRIORITY_VIP = StatusField.PRIORITY.codeOf("VIP");
+    private static final int PAYMENT_PAID = StatusField.PAYMENT_STATUS.codeOf("PAID");
+    private static final int SHIPPING_EXPRESS = StatusField.SHIPPING_METHOD.codeOf("EXPRESS");
+    private static final int SHIPPING_OVERNIGHT = StatusField.SHIPPING_METHOD.codeOf("OVERNIGHT");
+    
     // Core order information
     private String orderId;
     private String orderNumber;
@@ -27,23 +41,26 @@ public class Order {
     private LocalDateTime orderDate;
     private LocalDateTime estimatedDeliveryDate;
     private LocalDateTime actualDeliveryDate;
-    private String orderStatus; // PENDING, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED, REFUNDED
-    private String priority; // LOW, NORMAL, HIGH, URGENT
-    
-    // Financial information
-    private BigDecimal subtotalAmount;
-    private BigDecimal taxAmount;
-    private BigDecimal shippingAmount;
-    private BigDecimal discountAmount;
-    private BigDecimal totalAmount;
+    // orderStatus, priority, paymentStatus, shippingMethod, shippingCarrier and salesChannel,
+    // as StatusField codes in one int; values outside a field's vocabulary are kept as strings
+    // in unlistedStatus (null until an order has one). Status checks compare codes.
+    private volatile int statusCodes;
+    private volatile String[] unlistedStatus;
+    
+    // Financial information - amounts held in minor units of the order currency (see Money).
+    // Volatile, like the status codes and collection fields readers poll: OrderService changes an
+    // order under its lock while other threads read it without one.
+    private volatile long subtotalMinor;
+    private volatile long taxMinor;
+    private volatile long shippingMinor;
+    private volatile long discountMinor;
+    private volatile long totalMinor;
     private String currency;
-    private String paymentStatus; // PENDING, PAID, FAILED, REFUNDED, PARTIALLY_REFUNDED
+    private volatile int currencyScale;
     private String paymentMethod; // CREDIT_CARD, DEBIT_CARD, BANK_TRANSFER, PAYPAL, APPLE_PAY, etc.
     private String paymentTransactionId;
     
     // Shipping information
-    private String shippingMethod; // STANDARD, EXPRESS, OVERNIGHT, PICKUP
-    private String shippingCarrier; // UPS, FEDEX, DHL, USPS
     private String trackingNumber;
     private BigDecimal shippingWeight;
     private String shippingDimensions;
@@ -53,7 +70,6 @@ public class Order {
     private String giftWrapType;
     
     // Business logic fields
-    private String salesChannel; // ONLINE, MOBILE_APP, PHONE, STORE, MARKETPLACE
     private String promotionCode;
     private String referralCode;
     private boolean isInternational;
@@ -63,8 +79,11 @@ public class Order {
     private String customsDeclarationNumber;
     
     // Collections - nightmare for null safety!
-    private List<OrderItem> orderItems;
-    private List<String> appliedDiscountCodes;
+    // Empty ones are the shared Collections.empty*() instances until first written (see LazyCollections)
+    // Items and discount codes are copied on write, so a reader iterates a list no writer changes;
+    // both are held read-only, so they change only through the methods that keep the subtotal right
+    private volatile List<OrderItem> orderItems;
+    private volatile List<String> appliedDiscountCodes;
     private Map<String, String> orderNotes;
     private Map<String, Object> customAttributes;
     private List<String> tags;
@@ -82,30 +101,27 @@ public class Order {
     
     // Default constructor with terrible defaults handling
     public Order() {
-        this.orderItems = new ArrayList<>();
-        this.appliedDiscountCodes = new ArrayList<>();
-        this.orderNotes = new HashMap<>();
-        this.customAttributes = new HashMap<>();
-        this.tags = new ArrayList<>();
-        this.orderDate = LocalDateTime.now();
-        this.orderStatus = "PENDING";
-        this.priority = "NORMAL";
-        this.paymentStatus = "PENDING";
+        // Most orders never get notes, attributes or tags; all start on the shared empty instances
+        this.orderItems = Collections.emptyList();
+        this.appliedDiscountCodes = Collections.emptyList();
+        this.orderNotes = Collections.emptyMap();
+        this.customAttributes = Collections.emptyMap();
+        this.tags = Collections.emptyList();
+        this.orderDate = TimeSources.now();
+        setStatus(StatusField.ORDER_STATUS, "PENDING");
+        setStatus(StatusField.PRIORITY, "NORMAL");
+        setStatus(StatusField.PAYMENT_STATUS, "PENDING");
         this.currency = "USD";
-        this.subtotalAmount = BigDecimal.ZERO;
-        this.taxAmount = BigDecimal.ZERO;
-        this.shippingAmount = BigDecimal.ZERO;
-        this.discountAmount = BigDecimal.ZERO;
-        this.totalAmount = BigDecimal.ZERO;
+        this.currencyScale = Money.scaleOf(this.currency);
         this.shippingWeight = BigDecimal.ZERO;
         this.requiresSignature = false;
         this.isGift = false;
         this.isInternational = false;
         this.requiresCustomsClearance = false;
-        this.salesChannel = "ONLINE";
+        setStatus(StatusField.SALES_CHANNEL, "ONLINE");
         this.version = 1L;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = TimeSources.now();
+        this.updatedAt = TimeSources.now();
     }
     
     // Constructor with minimal required fields
@@ -140,12 +156,12 @@ public class Order {
                 String shippingMethod, String priority, boolean isGift, String giftMessage,
                 String promotionCode, String salesChannel) {
         this(customerId, customerEmail, customerPhoneNumber, paymentMethod, shippingAddress, billingAddress);
-        this.shippingMethod = shippingMethod != null ? shippingMethod : "STANDARD";
-        this.priority = priority != null ? priority : "NORMAL";
+        setStatus(StatusField.SHIPPING_METHOD, shippingMethod != null ? shippingMethod : "STANDARD");
+        setStatus(StatusField.PRIORITY, priority != null ? priority : "NORMAL");
         this.isGift = isGift;
         this.giftMessage = giftMessage;
         this.promotionCode = promotionCode;
-        this.salesChannel = salesChannel != null ? salesChannel : "ONLINE";
+        setStatus(StatusField.SALES_CHANNEL, salesChannel != null ? salesChannel : "ONLINE");
         
         // Gift logic
         if (isGift && giftMessage != null && !giftMessage.trim().isEmpty()) {
@@ -165,11 +181,12 @@ public class Order {
                 String createdBy) {
         
         // Initialize collections first
-        this.orderItems = orderItems != null ? new ArrayList<>(orderItems) : new ArrayList<>();
-        this.appliedDiscountCodes = new ArrayList<>();
-        this.orderNotes = new HashMap<>();
-        this.customAttributes = new HashMap<>();
-        this.tags = new ArrayList<>();
+        this.orderItems = orderItems != null && !orderItems.isEmpty()
+                ? readOnly(new ArrayList<>(orderItems)) : Collections.emptyList();
+        this.appliedDiscountCodes = Collections.emptyList();
+        this.orderNotes = Collections.emptyMap();
+        this.customAttributes = Collections.emptyMap();
+        this.tags = Collections.emptyList();
         
         // Set all parameters with null checks and defaults
         this.orderId = orderId != null ? orderId : generateOrderId();
@@ -177,24 +194,30 @@ public class Order {
         this.customerId = customerId;
         this.customerEmail = customerEmail;
         this.customerPhoneNumber = customerPhoneNumber;
-        this.orderDate = orderDate != null ? orderDate : LocalDateTime.now();
-        this.orderStatus = orderStatus != null ? orderStatus : "PENDING";
-        this.priority = priority != null ? priority : "NORMAL";
-        this.subtotalAmount = subtotalAmount != null ? subtotalAmount : BigDecimal.ZERO;
-        this.taxAmount = taxAmount != null ? taxAmount : BigDecimal.ZERO;
-        this.shippingAmount = shippingAmount != null ? shippingAmount : BigDecimal.ZERO;
-        this.discountAmount = discountAmount != null ? discountAmount : BigDecimal.ZERO;
+        this.orderDate = orderDate != null ? orderDate : TimeSources.now();
+        setStatus(StatusField.ORDER_STATUS, orderStatus != null ? orderStatus : "PENDING");
+        setStatus(StatusField.PRIORITY, priority != null ? priority : "NORMAL");
         this.currency = currency != null ? currency : "USD";
+        this.currencyScale = Money.scaleOf(this.currency);
+        // With items, the subtotal is their sum - later item changes are applied to it as deltas
+        if (this.orderItems.isEmpty()) {
+            this.subtotalMinor = toMinor(subtotalAmount);
+        } else {
+            this.subtotalMinor = attachAll(this.orderItems);
+        }
+        this.taxMinor = toMinor(taxAmount);
+        this.shippingMinor = toMinor(shippingAmount);
+        this.discountMinor = toMinor(discountAmount);
         this.paymentMethod = paymentMethod;
         this.paymentTransactionId = paymentTransactionId;
-        this.shippingMethod = shippingMethod != null ? shippingMethod : "STANDARD";
-        this.shippingCarrier = shippingCarrier;
+        setStatus(StatusField.SHIPPING_METHOD, shippingMethod != null ? shippingMethod : "STANDARD");
+        setStatus(StatusField.SHIPPING_CARRIER, shippingCarrier);
         this.trackingNumber = trackingNumber;
         this.requiresSignature = requiresSignature;
         this.isGift = isGift;
         this.giftMessage = giftMessage;
         this.giftWrapType = giftWrapType;
-        this.salesChannel = salesChannel != null ? salesChannel : "ONLINE";
+        setStatus(StatusField.SALES_CHANNEL, salesChannel != null ? salesChannel : "ONLINE");
         this.promotionCode = promotionCode;
         this.referralCode = referralCode;
         this.isInternational = isInternational;
@@ -203,10 +226,10 @@ public class Order {
         this.createdBy = createdBy;
         
         // Calculate totals
-        this.totalAmount = calculateTotalAmount();
+        this.totalMinor = calculateTotalMinor();
         
         // Set defaults for other fields
-        this.paymentStatus = "PENDING";
+        setStatus(StatusField.PAYMENT_STATUS, "PENDING");
         this.shippingWeight = BigDecimal.ZERO;
         this.requiresCustomsClearance = isInternational;
         
@@ -220,8 +243,8 @@ public class Order {
         
         // System fields
         this.version = 1L;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = TimeSources.now();
+        this.updatedAt = TimeSources.now();
     }
     
     // Massive amount of getters and setters with business logic scattered everywhere!
@@ -229,155 +252,187 @@ public class Order {
     public String getOrderId() { return orderId; }
     public void setOrderId(String orderId) { 
         this.orderId = orderId; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getOrderNumber() { return orderNumber; }
     public void setOrderNumber(String orderNumber) { 
         this.orderNumber = orderNumber; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCustomerId() { return customerId; }
     public void setCustomerId(String customerId) { 
         this.customerId = customerId; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCustomerEmail() { return customerEmail; }
     public void setCustomerEmail(String customerEmail) { 
         this.customerEmail = customerEmail; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCustomerPhoneNumber() { return customerPhoneNumber; }
     public void setCustomerPhoneNumber(String customerPhoneNumber) { 
         this.customerPhoneNumber = customerPhoneNumber; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDateTime getOrderDate() { return orderDate; }
     public void setOrderDate(LocalDateTime orderDate) { 
         this.orderDate = orderDate; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDateTime getEstimatedDeliveryDate() { return estimatedDeliveryDate; }
     public void setEstimatedDeliveryDate(LocalDateTime estimatedDeliveryDate) { 
         this.estimatedDeliveryDate = estimatedDeliveryDate; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDateTime getActualDeliveryDate() { return actualDeliveryDate; }
     public void setActualDeliveryDate(LocalDateTime actualDeliveryDate) { 
         this.actualDeliveryDate = actualDeliveryDate; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
-    public String getOrderStatus() { return orderStatus; }
+    public String getOrderStatus() { return status(StatusField.ORDER_STATUS); }
     public void setOrderStatus(String orderStatus) { 
-        this.orderStatus = orderStatus != null ? orderStatus : "PENDING"; 
-        this.updatedAt = LocalDateTime.now();
+        setStatus(StatusField.ORDER_STATUS, orderStatus != null ? orderStatus : "PENDING");
+        this.updatedAt = TimeSources.now();
     }
     
-    public String getPriority() { return priority; }
+    public String getPriority() { return status(StatusField.PRIORITY); }
     public void setPriority(String priority) { 
-        this.priority = priority != null ? priority : "NORMAL"; 
-        this.updatedAt = LocalDateTime.now();
+        setStatus(StatusField.PRIORITY, priority != null ? priority : "NORMAL");
+        this.updatedAt = TimeSources.now();
     }
     
-    public BigDecimal getSubtotalAmount() { return subtotalAmount; }
+    // BigDecimal views are created on demand - amounts are stored as minor units
+    public BigDecimal getSubtotalAmount() { return Money.toBigDecimal(subtotalMinor, currencyScale); }
     public void setSubtotalAmount(BigDecimal subtotalAmount) { 
-        this.subtotalAmount = subtotalAmount != null ? subtotalAmount : BigDecimal.ZERO; 
-        this.totalAmount = calculateTotalAmount();
-        this.updatedAt = LocalDateTime.now();
+        this.subtotalMinor = toMinor(subtotalAmount); 
+        this.totalMinor = calculateTotalMinor();
+        this.updatedAt = TimeSources.now();
     }
     
-    public BigDecimal getTaxAmount() { return taxAmount; }
+    public BigDecimal getTaxAmount() { return Money.toBigDecimal(taxMinor, currencyScale); }
     public void setTaxAmount(BigDecimal taxAmount) { 
-        this.taxAmount = taxAmount != null ? taxAmount : BigDecimal.ZERO; 
-        this.totalAmount = calculateTotalAmount();
-        this.updatedAt = LocalDateTime.now();
+        setTaxMinorUnits(toMinor(taxAmount));
     }
     
-    public BigDecimal getShippingAmount() { return shippingAmount; }
+    public BigDecimal getShippingAmount() { return Money.toBigDecimal(shippingMinor, currencyScale); }
     public void setShippingAmount(BigDecimal shippingAmount) { 
-        this.shippingAmount = shippingAmount != null ? shippingAmount : BigDecimal.ZERO; 
-        this.totalAmount = calculateTotalAmount();
-        this.updatedAt = LocalDateTime.now();
+        setShippingMinorUnits(toMinor(shippingAmount));
     }
     
-    public BigDecimal getDiscountAmount() { return discountAmount; }
+    public BigDecimal getDiscountAmount() { return Money.toBigDecimal(discountMinor, currencyScale); }
     public void setDiscountAmount(BigDecimal discountAmount) { 
-        this.discountAmount = discountAmount != null ? discountAmount : BigDecimal.ZERO; 
-        this.totalAmount = calculateTotalAmount();
-        this.updatedAt = LocalDateTime.now();
+        setDiscountMinorUnits(toMinor(discountAmount));
     }
     
-    public BigDecimal getTotalAmount() { return totalAmount; }
+    public BigDecimal getTotalAmount() { return Money.toBigDecimal(totalMinor, currencyScale); }
     public void setTotalAmount(BigDecimal totalAmount) { 
-        this.totalAmount = totalAmount != null ? totalAmount : BigDecimal.ZERO; 
-        this.updatedAt = LocalDateTime.now();
+        this.totalMinor = toMinor(totalAmount); 
+        this.updatedAt = TimeSources.now();
+    }
+    
+    // Minor-unit accessors for the pricing hot paths - no BigDecimal involved
+    public long getSubtotalMinorUnits() { return subtotalMinor; }
+    public long getTaxMinorUnits() { return taxMinor; }
+    public long getShippingMinorUnits() { return shippingMinor; }
+    public long getDiscountMinorUnits() { return discountMinor; }
+    public long getTotalMinorUnits() { return totalMinor; }
+    public int getCurrencyScale() { return currencyScale; }
+    
+    public void setTaxMinorUnits(long taxMinor) { 
+        this.taxMinor = taxMinor; 
+        this.totalMinor = calculateTotalMinor();
+        this.updatedAt = TimeSources.now();
+    }
+    
+    public void setShippingMinorUnits(long shippingMinor) { 
+        this.shippingMinor = shippingMinor; 
+        this.totalMinor = calculateTotalMinor();
+        this.updatedAt = TimeSources.now();
+    }
+    
+    public void setDiscountMinorUnits(long discountMinor) { 
+        this.discountMinor = discountMinor; 
+        this.totalMinor = calculateTotalMinor();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { 
         this.currency = currency != null ? currency : "USD"; 
-        this.updatedAt = LocalDateTime.now();
+        
+        // Keep amounts numerically unchanged when the number of minor digits changes
+        int newScale = Money.scaleOf(this.currency);
+        if (newScale != this.currencyScale) {
+            this.subtotalMinor = Money.rescale(subtotalMinor, currencyScale, newScale, Money.DEFAULT_ROUNDING);
+            this.taxMinor = Money.rescale(taxMinor, currencyScale, newScale, Money.DEFAULT_ROUNDING);
+            this.shippingMinor = Money.rescale(shippingMinor, currencyScale, newScale, Money.DEFAULT_ROUNDING);
+            this.discountMinor = Money.rescale(discountMinor, currencyScale, newScale, Money.DEFAULT_ROUNDING);
+            this.totalMinor = Money.rescale(totalMinor, currencyScale, newScale, Money.DEFAULT_ROUNDING);
+            this.currencyScale = newScale;
+        }
+        this.updatedAt = TimeSources.now();
     }
     
-    public String getPaymentStatus() { return paymentStatus; }
+    public String getPaymentStatus() { return status(StatusField.PAYMENT_STATUS); }
     public void setPaymentStatus(String paymentStatus) { 
-        this.paymentStatus = paymentStatus != null ? paymentStatus : "PENDING"; 
-        this.updatedAt = LocalDateTime.now();
+        setStatus(StatusField.PAYMENT_STATUS, paymentStatus != null ? paymentStatus : "PENDING");
+        this.updatedAt = TimeSources.now();
     }
     
     public String getPaymentMethod() { return paymentMethod; }
     public void setPaymentMethod(String paymentMethod) { 
         this.paymentMethod = paymentMethod; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getPaymentTransactionId() { return paymentTransactionId; }
     public void setPaymentTransactionId(String paymentTransactionId) { 
         this.paymentTransactionId = paymentTransactionId; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
-    public String getShippingMethod() { return shippingMethod; }
+    public String getShippingMethod() { return status(StatusField.SHIPPING_METHOD); }
     public void setShippingMethod(String shippingMethod) { 
-        this.shippingMethod = shippingMethod != null ? shippingMethod : "STANDARD"; 
-        this.updatedAt = LocalDateTime.now();
+        setStatus(StatusField.SHIPPING_METHOD, shippingMethod != null ? shippingMethod : "STANDARD");
+        this.updatedAt = TimeSources.now();
     }
     
-    public String getShippingCarrier() { return shippingCarrier; }
+    public String getShippingCarrier() { return status(StatusField.SHIPPING_CARRIER); }
     public void setShippingCarrier(String shippingCarrier) { 
-        this.shippingCarrier = shippingCarrier; 
-        this.updatedAt = LocalDateTime.now();
+        setStatus(StatusField.SHIPPING_CARRIER, shippingCarrier);
+        this.updatedAt = TimeSources.now();
     }
     
     public String getTrackingNumber() { return trackingNumber; }
     public void setTrackingNumber(String trackingNumber) { 
         this.trackingNumber = trackingNumber; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public BigDecimal getShippingWeight() { return shippingWeight; }
     public void setShippingWeight(BigDecimal shippingWeight) { 
         this.shippingWeight = shippingWeight != null ? shippingWeight : BigDecimal.ZERO; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getShippingDimensions() { return shippingDimensions; }
     public void setShippingDimensions(String shippingDimensions) { 
         this.shippingDimensions = shippingDimensions; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isRequiresSignature() { return requiresSignature; }
     public void setRequiresSignature(boolean requiresSignature) { 
         this.requiresSignature = requiresSignature; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isGift() { return isGift; }
@@ -387,114 +442,152 @@ public class Order {
             this.giftMessage = null;
             this.giftWrapType = null;
         }
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getGiftMessage() { return giftMessage; }
     public void setGiftMessage(String giftMessage) { 
         this.giftMessage = giftMessage; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getGiftWrapType() { return giftWrapType; }
     public void setGiftWrapType(String giftWrapType) { 
         this.giftWrapType = giftWrapType; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
-    public String getSalesChannel() { return salesChannel; }
+    public String getSalesChannel() { return status(StatusField.SALES_CHANNEL); }
     public void setSalesChannel(String salesChannel) { 
-        this.salesChannel = salesChannel != null ? salesChannel : "ONLINE"; 
-        this.updatedAt = LocalDateTime.now();
+        setStatus(StatusField.SALES_CHANNEL, salesChannel != null ? salesChannel : "ONLINE");
+        this.updatedAt = TimeSources.now();
     }
     
     public String getPromotionCode() { return promotionCode; }
     public void setPromotionCode(String promotionCode) { 
         this.promotionCode = promotionCode; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getReferralCode() { return referralCode; }
     public void setReferralCode(String referralCode) { 
         this.referralCode = referralCode; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isInternational() { return isInternational; }
     public void setInternational(boolean international) { 
         isInternational = international; 
         this.requiresCustomsClearance = international;
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getSourceCountry() { return sourceCountry; }
     public void setSourceCountry(String sourceCountry) { 
         this.sourceCountry = sourceCountry; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getDestinationCountry() { return destinationCountry; }
     public void setDestinationCountry(String destinationCountry) { 
         this.destinationCountry = destinationCountry; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isRequiresCustomsClearance() { return requiresCustomsClearance; }
     public void setRequiresCustomsClearance(boolean requiresCustomsClearance) { 
         this.requiresCustomsClearance = requiresCustomsClearance; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCustomsDeclarationNumber() { return customsDeclarationNumber; }
     public void setCustomsDeclarationNumber(String customsDeclarationNumber) { 
         this.customsDeclarationNumber = customsDeclarationNumber; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
+    /**
+     * Read-only; change the items through addOrderItem, removeOrderItem or
+     * setOrderItems, which attach them and keep the subtotal up to date.
+     */
     public List<OrderItem> getOrderItems() { return orderItems; }
     public void setOrderItems(List<OrderItem> orderItems) { 
-        this.orderItems = orderItems != null ? orderItems : new ArrayList<>(); 
-        this.subtotalAmount = calculateSubtotal();
-        this.totalAmount = calculateTotalAmount();
-        this.updatedAt = LocalDateTime.now();
+        List<OrderItem> items = orderItems != null ? orderItems : Collections.emptyList();
+        for (OrderItem item : items) {
+            if (item != null) {
+                item.checkAttachableTo(this);
+            }
+        }
+        for (OrderItem item : this.orderItems) {
+            if (item != null) {
+                item.detachFrom(this);
+            }
+        }
+        this.subtotalMinor = attachAll(items);
+        this.orderItems = readOnly(items);
+        this.totalMinor = calculateTotalMinor();
+        this.updatedAt = TimeSources.now();
     }
     
+    /**
+     * Read-only; add codes through applyDiscountCode.
+     */
     public List<String> getAppliedDiscountCodes() { return appliedDiscountCodes; }
     public void setAppliedDiscountCodes(List<String> appliedDiscountCodes) { 
-        this.appliedDiscountCodes = appliedDiscountCodes != null ? appliedDiscountCodes : new ArrayList<>(); 
-        this.updatedAt = LocalDateTime.now();
+        this.appliedDiscountCodes = readOnly(appliedDiscountCodes); 
+        this.updatedAt = TimeSources.now();
     }
     
-    public Map<String, String> getOrderNotes() { return orderNotes; }
+    public Map<String, String> getOrderNotes() { 
+        return LazyCollections.map(orderNotes, () -> orderNotes,
+                () -> orderNotes = LazyCollections.writable(orderNotes));
+    }
+    public void putOrderNote(String key, String note) {
+        this.orderNotes = LazyCollections.put(orderNotes, key, note);
+        this.updatedAt = TimeSources.now();
+    }
     public void setOrderNotes(Map<String, String> orderNotes) { 
-        this.orderNotes = orderNotes != null ? orderNotes : new HashMap<>(); 
-        this.updatedAt = LocalDateTime.now();
+        this.orderNotes = orderNotes != null ? orderNotes : Collections.emptyMap(); 
+        this.updatedAt = TimeSources.now();
     }
     
-    public Map<String, Object> getCustomAttributes() { return customAttributes; }
+    public Map<String, Object> getCustomAttributes() { 
+        return LazyCollections.map(customAttributes, () -> customAttributes,
+                () -> customAttributes = LazyCollections.writable(customAttributes));
+    }
+    public void putCustomAttribute(String key, Object value) {
+        this.customAttributes = LazyCollections.put(customAttributes, key, value);
+        this.updatedAt = TimeSources.now();
+    }
     public void setCustomAttributes(Map<String, Object> customAttributes) { 
-        this.customAttributes = customAttributes != null ? customAttributes : new HashMap<>(); 
-        this.updatedAt = LocalDateTime.now();
+        this.customAttributes = customAttributes != null ? customAttributes : Collections.emptyMap(); 
+        this.updatedAt = TimeSources.now();
     }
     
-    public List<String> getTags() { return tags; }
+    public List<String> getTags() { 
+        return LazyCollections.list(tags, () -> tags, () -> tags = LazyCollections.writable(tags));
+    }
+    public void addTag(String tag) {
+        this.tags = LazyCollections.add(tags, tag);
+        this.updatedAt = TimeSources.now();
+    }
     public void setTags(List<String> tags) { 
-        this.tags = tags != null ? tags : new ArrayList<>(); 
-        this.updatedAt = LocalDateTime.now();
+        this.tags = tags != null ? tags : Collections.emptyList(); 
+        this.updatedAt = TimeSources.now();
     }
     
     public Address getShippingAddress() { return shippingAddress; }
     public void setShippingAddress(Address shippingAddress) { 
         this.shippingAddress = shippingAddress; 
         updateInternationalStatus();
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public Address getBillingAddress() { return billingAddress; }
     public void setBillingAddress(Address billingAddress) { 
         this.billingAddress = billingAddress; 
         updateInternationalStatus();
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDateTime getCreatedAt() { return createdAt; }
@@ -506,13 +599,13 @@ public class Order {
     public String getCreatedBy() { return createdBy; }
     public void setCreatedBy(String createdBy) { 
         this.createdBy = createdBy; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getUpdatedBy() { return updatedBy; }
     public void setUpdatedBy(String updatedBy) { 
         this.updatedBy = updatedBy; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public Long getVersion() { return version; }
@@ -521,26 +614,94 @@ public class Order {
     // Helper methods with business logic scattered everywhere
     public void addOrderItem(OrderItem item) {
         if (item != null) {
-            this.orderItems.add(item);
-            this.subtotalAmount = calculateSubtotal();
-            this.totalAmount = calculateTotalAmount();
-            this.updatedAt = LocalDateTime.now();
+            List<OrderItem> items = new ArrayList<>(this.orderItems.size() + 1);
+            items.addAll(this.orderItems);
+            items.add(item);
+            item.attachTo(this);
+            this.subtotalMinor += itemTotalMinor(item.getTotalPriceMinorUnits(), item.getCurrencyScale());
+            this.totalMinor = calculateTotalMinor();
+            this.orderItems = readOnly(items);
+            this.updatedAt = TimeSources.now();
         }
     }
     
     public void removeOrderItem(String productId) {
-        this.orderItems.removeIf(item -> Objects.equals(item.getProductId(), productId));
-        this.subtotalAmount = calculateSubtotal();
-        this.totalAmount = calculateTotalAmount();
-        this.updatedAt = LocalDateTime.now();
+        long removedTotal = 0;
+        List<OrderItem> kept = new ArrayList<>(this.orderItems.size());
+        for (OrderItem item : this.orderItems) {
+            if (item != null && Objects.equals(item.getProductId(), productId)) {
+                item.detachFrom(this);
+                removedTotal += itemTotalMinor(item.getTotalPriceMinorUnits(), item.getCurrencyScale());
+            } else {
+                kept.add(item);
+            }
+        }
+        this.subtotalMinor -= removedTotal;
+        this.totalMinor = calculateTotalMinor();
+        this.orderItems = kept.isEmpty() ? Collections.emptyList() : readOnly(kept);
+        this.updatedAt = TimeSources.now();
+    }
+    
+    // Wraps once per write, so the getters hand out the field without allocating
+    private static <E> List<E> readOnly(List<E> list) {
+        return list == null || list == Collections.<E>emptyList()
+                ? Collections.emptyList() : Collections.unmodifiableList(list);
+    }
+    
+    // Checks every item before attaching any, so a list with another order's item changes nothing
+    private long attachAll(List<OrderItem> items) {
+        for (OrderItem item : items) {
+            if (item != null) {
+                item.checkAttachableTo(this);
+            }
+        }
+        // Single pass: attach each item and sum its total
+        long subtotal = 0;
+        for (OrderItem item : items) {
+            if (item != null) {
+                item.attachTo(this);
+                subtotal += itemTotalMinor(item.getTotalPriceMinorUnits(), item.getCurrencyScale());
+            }
+        }
+        return subtotal;
+    }
+    
+    // Called by an attached OrderItem when its total price changes
+    void onItemTotalChanged(long previousTotalMinor, int previousScale, long newTotalMinor, int newScale) {
+        this.subtotalMinor += itemTotalMinor(newTotalMinor, newScale)
+                - itemTotalMinor(previousTotalMinor, previousScale);
+        this.totalMinor = calculateTotalMinor();
+        this.updatedAt = TimeSources.now();
     }
     
     public void applyDiscountCode(String discountCode) {
         if (discountCode != null && !discountCode.trim().isEmpty() && 
             !this.appliedDiscountCodes.contains(discountCode)) {
-            this.appliedDiscountCodes.add(discountCode);
-            this.updatedAt = LocalDateTime.now();
+            List<String> codes = new ArrayList<>(this.appliedDiscountCodes.size() + 1);
+            codes.addAll(this.appliedDiscountCodes);
+            codes.add(discountCode);
+            this.appliedDiscountCodes = readOnly(codes);
+            this.updatedAt = TimeSources.now();
+        }
+    }
+    
+    /**
+     * Swap this order's addresses for the pool's shared instances with the
+     * same content. Not a change to the order, so updatedAt is kept.
+     */
+    public void shareAddresses(AddressPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Address pool is required");
         }
+        this.shippingAddress = pool.intern(this.shippingAddress);
+        this.billingAddress = pool.intern(this.billingAddress);
+    }
+    
+    /**
+     * Start staging several field changes to apply together; see Edit.
+     */
+    public Edit edit() {
+        return new Edit();
     }
     
     public boolean hasOrderItems() {
@@ -552,38 +713,60 @@ public class Order {
     }
     
     public boolean isHighValue() {
-        return this.totalAmount != null && this.totalAmount.compareTo(new BigDecimal("1000")) > 0;
+        return this.totalMinor > Money.rescale(HIGH_VALUE_THRESHOLD, 0, currencyScale, Money.DEFAULT_ROUNDING);
     }
     
     public boolean isExpedited() {
-        return "HIGH".equals(this.priority) || "URGENT".equals(this.priority) ||
-               "EXPRESS".equals(this.shippingMethod) || "OVERNIGHT".equals(this.shippingMethod);
+        int codes = this.statusCodes;
+        int priority = StatusField.PRIORITY.codeIn(codes);
+        int shippingMethod = StatusField.SHIPPING_METHOD.codeIn(codes);
+        return priority == PRIORITY_HIGH || priority == PRIORITY_URGENT ||
+               shippingMethod == SHIPPING_EXPRESS || shippingMethod == SHIPPING_OVERNIGHT;
     }
     
     public boolean isPaid() {
-        return "PAID".equals(this.paymentStatus);
+        return StatusField.PAYMENT_STATUS.codeIn(this.statusCodes) == PAYMENT_PAID;
+    }
+    
+    public boolean isVipPriority() {
+        return StatusField.PRIORITY.codeIn(this.statusCodes) == PRIORITY_VIP;
     }
     
     public boolean canBeCancelled() {
-        return "PENDING".equals(this.orderStatus) || "CONFIRMED".equals(this.orderStatus);
+        int orderStatus = StatusField.ORDER_STATUS.codeIn(this.statusCodes);
+        return orderStatus == STATUS_PENDING || orderStatus == STATUS_CONFIRMED;
+    }
+    
+    private String status(StatusField field) {
+        int code = field.codeIn(this.statusCodes);
+        return code == StatusField.UNLISTED ? this.unlistedStatus[field.ordinal()] : field.valueOf(code);
     }
     
-    private BigDecimal calculateSubtotal() {
-        if (this.orderItems == null || this.orderItems.isEmpty()) {
-            return BigDecimal.ZERO;
+    // The value is published in unlistedStatus before the code that points readers at it. Once a
+    // field has used its slot, every later value goes there too, listed or not: a reader that still
+    // sees the old UNLISTED code then reads a value the field really had, not one cleared for the new code.
+    private void setStatus(StatusField field, String value) {
+        int code = field.codeOf(value);
+        String[] unlisted = this.unlistedStatus;
+        if (code == StatusField.UNLISTED || (unlisted != null && unlisted[field.ordinal()] != null)) {
+            String[] copy = unlisted != null ? unlisted.clone() : new String[StatusField.values().length];
+            copy[field.ordinal()] = value;
+            this.unlistedStatus = copy;
         }
-        return this.orderItems.stream()
-                .map(item -> item.getTotalPrice())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        this.statusCodes = field.with(this.statusCodes, code);
     }
     
-    private BigDecimal calculateTotalAmount() {
-        BigDecimal subtotal = this.subtotalAmount != null ? this.subtotalAmount : BigDecimal.ZERO;
-        BigDecimal tax = this.taxAmount != null ? this.taxAmount : BigDecimal.ZERO;
-        BigDecimal shipping = this.shippingAmount != null ? this.shippingAmount : BigDecimal.ZERO;
-        BigDecimal discount = this.discountAmount != null ? this.discountAmount : BigDecimal.ZERO;
-        
-        return subtotal.add(tax).add(shipping).subtract(discount);
+    private long calculateTotalMinor() {
+        return subtotalMinor + taxMinor + shippingMinor - discountMinor;
+    }
+    
+    private long toMinor(BigDecimal amount) {
+        return Money.toMinor(amount, currencyScale, Money.DEFAULT_ROUNDING);
+    }
+    
+    // Item totals are kept in the item's currency scale; convert if it differs from the order's
+    private long itemTotalMinor(long itemTotalMinor, int itemScale) {
+        return Money.rescale(itemTotalMinor, itemScale, currencyScale, Money.DEFAULT_ROUNDING);
     }
     
     private void updateInternationalStatus() {
@@ -599,11 +782,11 @@ public class Order {
     }
     
     private String generateOrderId() {
-        return "ORD_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
+        return "ORD_" + IdGenerators.nextId();
     }
     
     private String generateOrderNumber() {
-        return "ON" + System.currentTimeMillis();
+        return "ON" + IdGenerators.nextId();
     }
     
     // MASSIVE equals method - impossible to maintain!
@@ -624,25 +807,25 @@ public class Order {
                Objects.equals(orderDate, order.orderDate) &&
                Objects.equals(estimatedDeliveryDate, order.estimatedDeliveryDate) &&
                Objects.equals(actualDeliveryDate, order.actualDeliveryDate) &&
-               Objects.equals(orderStatus, order.orderStatus) &&
-               Objects.equals(priority, order.priority) &&
-               Objects.equals(subtotalAmount, order.subtotalAmount) &&
-               Objects.equals(taxAmount, order.taxAmount) &&
-               Objects.equals(shippingAmount, order.shippingAmount) &&
-               Objects.equals(discountAmount, order.discountAmount) &&
-               Objects.equals(totalAmount, order.totalAmount) &&
+               Objects.equals(getOrderStatus(), order.getOrderStatus()) &&
+               Objects.equals(getPriority(), order.getPriority()) &&
+               subtotalMinor == order.subtotalMinor &&
+               taxMinor == order.taxMinor &&
+               shippingMinor == order.shippingMinor &&
+               discountMinor == order.discountMinor &&
+               totalMinor == order.totalMinor &&
                Objects.equals(currency, order.currency) &&
-               Objects.equals(paymentStatus, order.paymentStatus) &&
+               Objects.equals(getPaymentStatus(), order.getPaymentStatus()) &&
                Objects.equals(paymentMethod, order.paymentMethod) &&
                Objects.equals(paymentTransactionId, order.paymentTransactionId) &&
-               Objects.equals(shippingMethod, order.shippingMethod) &&
-               Objects.equals(shippingCarrier, order.shippingCarrier) &&
+               Objects.equals(getShippingMethod(), order.getShippingMethod()) &&
+               Objects.equals(getShippingCarrier(), order.getShippingCarrier()) &&
                Objects.equals(trackingNumber, order.trackingNumber) &&
                Objects.equals(shippingWeight, order.shippingWeight) &&
                Objects.equals(shippingDimensions, order.shippingDimensions) &&
                Objects.equals(giftMessage, order.giftMessage) &&
                Objects.equals(giftWrapType, order.giftWrapType) &&
-               Objects.equals(salesChannel, order.salesChannel) &&
+               Objects.equals(getSalesChannel(), order.getSalesChannel()) &&
                Objects.equals(promotionCode, order.promotionCode) &&
                Objects.equals(referralCode, order.referralCode) &&
                Objects.equals(sourceCountry, order.sourceCountry) &&
@@ -666,11 +849,12 @@ public class Order {
     @Override
     public int hashCode() {
         return Objects.hash(orderId, orderNumber, customerId, customerEmail, customerPhoneNumber,
-                           orderDate, estimatedDeliveryDate, actualDeliveryDate, orderStatus, priority,
-                           subtotalAmount, taxAmount, shippingAmount, discountAmount, totalAmount, currency,
-                           paymentStatus, paymentMethod, paymentTransactionId, shippingMethod, shippingCarrier,
-                           trackingNumber, shippingWeight, shippingDimensions, requiresSignature, isGift,
-                           giftMessage, giftWrapType, salesChannel, promotionCode, referralCode, isInternational,
+                           orderDate, estimatedDeliveryDate, actualDeliveryDate, getOrderStatus(), getPriority(),
+                           subtotalMinor, taxMinor, shippingMinor, discountMinor, totalMinor, currency,
+                           getPaymentStatus(), paymentMethod, paymentTransactionId, getShippingMethod(),
+                           getShippingCarrier(), trackingNumber, shippingWeight, shippingDimensions, requiresSignature,
+                           isGift,
+                           giftMessage, giftWrapType, getSalesChannel(), promotionCode, referralCode, isInternational,
                            sourceCountry, destinationCountry, requiresCustomsClearance, customsDeclarationNumber,
                            orderItems, appliedDiscountCodes, orderNotes, customAttributes, tags,
                            shippingAddress, billingAddress, createdAt, updatedAt, createdBy, updatedBy, version);
@@ -688,19 +872,19 @@ public class Order {
                 ", orderDate=" + orderDate +
                 ", estimatedDeliveryDate=" + estimatedDeliveryDate +
                 ", actualDeliveryDate=" + actualDeliveryDate +
-                ", orderStatus='" + orderStatus + '\'' +
-                ", priority='" + priority + '\'' +
-                ", subtotalAmount=" + subtotalAmount +
-                ", taxAmount=" + taxAmount +
-                ", shippingAmount=" + shippingAmount +
-                ", discountAmount=" + discountAmount +
-                ", totalAmount=" + totalAmount +
+                ", orderStatus='" + getOrderStatus() + '\'' +
+                ", priority='" + getPriority() + '\'' +
+                ", subtotalAmount=" + getSubtotalAmount() +
+                ", taxAmount=" + getTaxAmount() +
+                ", shippingAmount=" + getShippingAmount() +
+                ", discountAmount=" + getDiscountAmount() +
+                ", totalAmount=" + getTotalAmount() +
                 ", currency='" + currency + '\'' +
-                ", paymentStatus='" + paymentStatus + '\'' +
+                ", paymentStatus='" + getPaymentStatus() + '\'' +
                 ", paymentMethod='" + paymentMethod + '\'' +
                 ", paymentTransactionId='" + paymentTransactionId + '\'' +
-                ", shippingMethod='" + shippingMethod + '\'' +
-                ", shippingCarrier='" + shippingCarrier + '\'' +
+                ", shippingMethod='" + getShippingMethod() + '\'' +
+                ", shippingCarrier='" + getShippingCarrier() + '\'' +
                 ", trackingNumber='" + trackingNumber + '\'' +
                 ", shippingWeight=" + shippingWeight +
                 ", shippingDimensions='" + shippingDimensions + '\'' +
@@ -708,7 +892,7 @@ public class Order {
                 ", isGift=" + isGift +
                 ", giftMessage='" + giftMessage + '\'' +
                 ", giftWrapType='" + giftWrapType + '\'' +
-                ", salesChannel='" + salesChannel + '\'' +
+                ", salesChannel='" + getSalesChannel() + '\'' +
                 ", promotionCode='" + promotionCode + '\'' +
                 ", referralCode='" + referralCode + '\'' +
                 ", isInternational=" + isInternational +
@@ -730,4 +914,347 @@ public class Order {
                 ", version=" + version +
                 '}';
     }
-}
\ No newline at end of file
+    
+    /**
+     * Field changes staged on an order and applied together by commit().
+     *
+     * The setters only record the new value. commit() converts the staged
+     * amounts before touching the order, so a bad amount leaves it as it
+     * was, then assigns the fields in OrderField order and recomputes the
+     * total, the international status and updatedAt once each, where a
+     * chain of Order setters would redo them per call. A value equal to
+     * the current one is not a change, and an edit that changes nothing
+     * leaves updatedAt alone. A session is used by one thread and
+     * committed once; commits racing other writers must be serialized by
+     * the caller, as OrderService does under the order's lock.
+     */
+    public final class Edit {
+        
+        private final Object[] values = new Object[OrderField.values().length];
+        private final EnumSet<OrderField> staged = EnumSet.noneOf(OrderField.class);
+        private boolean committed;
+        
+        private Edit() {
+        }
+        
+        public void setOrderStatus(String orderStatus) {
+            stage(OrderField.ORDER_STATUS, orderStatus != null ? orderStatus : "PENDING");
+        }
+        
+        public void setPriority(String priority) {
+            stage(OrderField.PRIORITY, priority != null ? priority : "NORMAL");
+        }
+        
+        public void setPaymentStatus(String paymentStatus) {
+            stage(OrderField.PAYMENT_STATUS, paymentStatus != null ? paymentStatus : "PENDING");
+        }
+        
+        public void setPaymentMethod(String paymentMethod) {
+            stage(OrderField.PAYMENT_METHOD, paymentMethod);
+        }
+        
+        public void setPaymentTransactionId(String paymentTransactionId) {
+            stage(OrderField.PAYMENT_TRANSACTION_ID, paymentTransactionId);
+        }
+        
+        public void setShippingMethod(String shippingMethod) {
+            stage(OrderField.SHIPPING_METHOD, shippingMethod != null ? shippingMethod : "STANDARD");
+        }
+        
+        public void setShippingCarrier(String shippingCarrier) {
+            stage(OrderField.SHIPPING_CARRIER, shippingCarrier);
+        }
+        
+        public void setTrackingNumber(String trackingNumber) {
+            stage(OrderField.TRACKING_NUMBER, trackingNumber);
+        }
+        
+        public void setEstimatedDeliveryDate(LocalDateTime estimatedDeliveryDate) {
+            stage(OrderField.ESTIMATED_DELIVERY_DATE, estimatedDeliveryDate);
+        }
+        
+        public void setActualDeliveryDate(LocalDateTime actualDeliveryDate) {
+            stage(OrderField.ACTUAL_DELIVERY_DATE, actualDeliveryDate);
+        }
+        
+        public void setShippingAmount(BigDecimal shippingAmount) {
+            stage(OrderField.SHIPPING_AMOUNT, shippingAmount);
+        }
+        
+        public void setTaxAmount(BigDecimal taxAmount) {
+            stage(OrderField.TAX_AMOUNT, taxAmount);
+        }
+        
+        public void setDiscountAmount(BigDecimal discountAmount) {
+            stage(OrderField.DISCOUNT_AMOUNT, discountAmount);
+        }
+        
+        public void setPromotionCode(String promotionCode) {
+            stage(OrderField.PROMOTION_CODE, promotionCode);
+        }
+        
+        public void setRequiresSignature(boolean requiresSignature) {
+            stage(OrderField.REQUIRES_SIGNATURE, requiresSignature);
+        }
+        
+        public void setGift(boolean gift) {
+            stage(OrderField.GIFT, gift);
+        }
+        
+        public void setGiftMessage(String giftMessage) {
+            stage(OrderField.GIFT_MESSAGE, giftMessage);
+        }
+        
+        public void setGiftWrapType(String giftWrapType) {
+            stage(OrderField.GIFT_WRAP_TYPE, giftWrapType);
+        }
+        
+        public void setShippingAddress(Address shippingAddress) {
+            stage(OrderField.SHIPPING_ADDRESS, shippingAddress);
+        }
+        
+        public void setBillingAddress(Address billingAddress) {
+            stage(OrderField.BILLING_ADDRESS, billingAddress);
+        }
+        
+        public void setOrderNotes(Map<String, String> orderNotes) {
+            stage(OrderField.ORDER_NOTES, orderNotes != null ? orderNotes : Collections.emptyMap());
+        }
+        
+        public void setTags(List<String> tags) {
+            stage(OrderField.TAGS, tags != null ? tags : Collections.emptyList());
+        }
+        
+        public void setUpdatedBy(String updatedBy) {
+            stage(OrderField.UPDATED_BY, updatedBy);
+        }
+        
+        /**
+         * Whether the order will be a gift once this edit is committed.
+         */
+        public boolean isGift() {
+            return staged.contains(OrderField.GIFT) ? (Boolean) values[OrderField.GIFT.ordinal()] : isGift;
+        }
+        
+        public boolean isEmpty() {
+            return staged.isEmpty();
+        }
+        
+        /**
+         * Apply the staged changes.
+         *
+         * @return the fields whose value changed, derived ones included
+         * @throws IllegalStateException if this edit was already committed
+         */
+        public EnumSet<OrderField> commit() {
+            if (committed) {
+                throw new IllegalStateException("Order edit already committed");
+            }
+            committed = true;
+            long shipping = stagedMinor(OrderField.SHIPPING_AMOUNT, shippingMinor);
+            long tax = stagedMinor(OrderField.TAX_AMOUNT, taxMinor);
+            long discount = stagedMinor(OrderField.DISCOUNT_AMOUNT, discountMinor);
+            
+            EnumSet<OrderField> changed = EnumSet.noneOf(OrderField.class);
+            for (OrderField field : staged) {
+                switch (field) {
+                    case ORDER_STATUS:
+                        if (!Objects.equals(status(StatusField.ORDER_STATUS), value(field))) {
+                            setStatus(StatusField.ORDER_STATUS, (String) value(field));
+                            changed.add(field);
+                        }
+                        break;
+                    case PRIORITY:
+                        if (!Objects.equals(status(StatusField.PRIORITY), value(field))) {
+                            setStatus(StatusField.PRIORITY, (String) value(field));
+                            changed.add(field);
+                        }
+                        break;
+                    case PAYMENT_STATUS:
+                        if (!Objects.equals(status(StatusField.PAYMENT_STATUS), value(field))) {
+                            setStatus(StatusField.PAYMENT_STATUS, (String) value(field));
+                            changed.add(field);
+                        }
+                        break;
+                    case PAYMENT_METHOD:
+                        if (!Objects.equals(paymentMethod, value(field))) {
+                            paymentMethod = (String) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case PAYMENT_TRANSACTION_ID:
+                        if (!Objects.equals(paymentTransactionId, value(field))) {
+                            paymentTransactionId = (String) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case SHIPPING_METHOD:
+                        if (!Objects.equals(status(StatusField.SHIPPING_METHOD), value(field))) {
+                            setStatus(StatusField.SHIPPING_METHOD, (String) value(field));
+                            changed.add(field);
+                        }
+                        break;
+                    case SHIPPING_CARRIER:
+                        if (!Objects.equals(status(StatusField.SHIPPING_CARRIER), value(field))) {
+                            setStatus(StatusField.SHIPPING_CARRIER, (String) value(field));
+                            changed.add(field);
+                        }
+                        break;
+                    case TRACKING_NUMBER:
+                        if (!Objects.equals(trackingNumber, value(field))) {
+                            trackingNumber = (String) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case ESTIMATED_DELIVERY_DATE:
+                        if (!Objects.equals(estimatedDeliveryDate, value(field))) {
+                            estimatedDeliveryDate = (LocalDateTime) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case ACTUAL_DELIVERY_DATE:
+                        if (!Objects.equals(actualDeliveryDate, value(field))) {
+                            actualDeliveryDate = (LocalDateTime) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case SHIPPING_AMOUNT:
+                        if (shippingMinor != shipping) {
+                            shippingMinor = shipping;
+                            changed.add(field);
+                        }
+                        break;
+                    case TAX_AMOUNT:
+                        if (taxMinor != tax) {
+                            taxMinor = tax;
+                            changed.add(field);
+                        }
+                        break;
+                    case DISCOUNT_AMOUNT:
+                        if (discountMinor != discount) {
+                            discountMinor = discount;
+                            changed.add(field);
+                        }
+                        break;
+                    case PROMOTION_CODE:
+                        if (!Objects.equals(promotionCode, value(field))) {
+                            promotionCode = (String) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case REQUIRES_SIGNATURE:
+                        if (requiresSignature != (Boolean) value(field)) {
+                            requiresSignature = (Boolean) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case GIFT:
+                        if (isGift != (Boolean) value(field)) {
+                            isGift = (Boolean) value(field);
+                            changed.add(field);
+                        }
+                        // As setGift(false): a non-gift keeps no message or wrapping
+                        if (!isGift && giftMessage != null) {
+                            giftMessage = null;
+                            changed.add(OrderField.GIFT_MESSAGE);
+                        }
+                        if (!isGift && giftWrapType != null) {
+                            giftWrapType = null;
+                            changed.add(OrderField.GIFT_WRAP_TYPE);
+                        }
+                        break;
+                    case GIFT_MESSAGE:
+                        if (!Objects.equals(giftMessage, value(field))) {
+                            giftMessage = (String) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case GIFT_WRAP_TYPE:
+                        if (!Objects.equals(giftWrapType, value(field))) {
+                            giftWrapType = (String) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case SHIPPING_ADDRESS:
+                        if (shippingAddress != value(field)) {
+                            shippingAddress = (Address) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case BILLING_ADDRESS:
+                        if (billingAddress != value(field)) {
+                            billingAddress = (Address) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    case ORDER_NOTES:
+                        if (orderNotes != value(field)) {
+                            orderNotes = castNotes(value(field));
+                            changed.add(field);
+                        }
+                        break;
+                    case TAGS:
+                        if (tags != value(field)) {
+                            tags = castTags(value(field));
+                            changed.add(field);
+                        }
+                        break;
+                    case UPDATED_BY:
+                        if (!Objects.equals(updatedBy, value(field))) {
+                            updatedBy = (String) value(field);
+                            changed.add(field);
+                        }
+                        break;
+                    default:
+                        throw new IllegalStateException("Unhandled order field: " + field);
+                }
+            }
+            
+            if (changed.contains(OrderField.SHIPPING_AMOUNT) || changed.contains(OrderField.TAX_AMOUNT)
+                    || changed.contains(OrderField.DISCOUNT_AMOUNT)) {
+                long total = calculateTotalMinor();
+                if (total != totalMinor) {
+                    totalMinor = total;
+                    changed.add(OrderField.TOTAL_AMOUNT);
+                }
+            }
+            if (changed.contains(OrderField.SHIPPING_ADDRESS) || changed.contains(OrderField.BILLING_ADDRESS)) {
+                boolean wasInternational = isInternational;
+                updateInternationalStatus();
+                if (isInternational != wasInternational) {
+                    changed.add(OrderField.INTERNATIONAL);
+                }
+            }
+            if (!changed.isEmpty()) {
+                updatedAt = TimeSources.now();
+            }
+            return changed;
+        }
+        
+        private void stage(OrderField field, Object value) {
+            if (committed) {
+                throw new IllegalStateException("Order edit already committed");
+            }
+            values[field.ordinal()] = value;
+            staged.add(field);
+        }
+        
+        private Object value(OrderField field) {
+            return values[field.ordinal()];
+        }
+        
+        private long stagedMinor(OrderField field, long current) {
+            return staged.contains(field) ? toMinor((BigDecimal) value(field)) : current;
+        }
+        
+        @SuppressWarnings("unchecked")
+        private Map<String, String> castNotes(Object notes) {
+            return (Map<String, String>) notes;
+        }
+        
+        @SuppressWarnings("unchecked")
+        private List<String> castTags(Object tags) {
+            return (List<String>) tags;
+        }
+    }
+}
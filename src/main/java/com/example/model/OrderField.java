@@ -0,0 +1,36 @@
+package com.example.model;
+
+/**
+ * OrderField - the order fields an Order.Edit session can change
+ *
+ * Staged changes are applied in declaration order. TOTAL_AMOUNT and
+ * INTERNATIONAL are derived: an edit reports them when the amounts or
+ * addresses it changed moved the total or the international status.
+ */
+public enum OrderField {
+    ORDER_STATUS,
+    PRIORITY,
+    PAYMENT_STATUS,
+    PAYMENT_METHOD,
+    PAYMENT_TRANSACTION_ID,
+    SHIPPING_METHOD,
+    SHIPPING_CARRIER,
+    TRACKING_NUMBER,
+    ESTIMATED_DELIVERY_DATE,
+    ACTUAL_DELIVERY_DATE,
+    SHIPPING_AMOUNT,
+    TAX_AMOUNT,
+    DISCOUNT_AMOUNT,
+    PROMOTION_CODE,
+    REQUIRES_SIGNATURE,
+    GIFT,
+    GIFT_MESSAGE,
+    GIFT_WRAP_TYPE,
+    SHIPPING_ADDRESS,
+    BILLING_ADDRESS,
+    ORDER_NOTES,
+    TAGS,
+    UPDATED_BY,
+    TOTAL_AMOUNT,
+    INTERNATIONAL
+}
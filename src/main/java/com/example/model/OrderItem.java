@@ -1,10 +1,13 @@
 package com.example.model;
 
+import com.example.id.IdGenerators;
+import com.example.time.TimeSources;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.Objects;
 import java.util.Map;
-import java.util.HashMap;
 
 /**
  * OrderItem class - another nightmare of traditional Java
@@ -20,10 +23,12 @@ public class OrderItem {
     private String productBrand;
     private String productDescription;
     private String productImageUrl;
-    private BigDecimal unitPrice;
+    // Prices held in minor units of the item currency (see Money)
+    private long unitPriceMinor;
     private int quantity;
-    private BigDecimal totalPrice;
+    private long totalPriceMinor;
     private String currency;
+    private int currencyScale;
     private BigDecimal weight;
     private String dimensions;
     private boolean isDigital;
@@ -32,7 +37,7 @@ public class OrderItem {
     private String giftCardMessage;
     private String variantId;
     private String variantName;
-    private Map<String, String> productAttributes;
+    private Map<String, String> productAttributes; // shared empty instance until first written
     private String supplierCode;
     private String warehouseLocation;
     private boolean isPreOrder;
@@ -40,19 +45,21 @@ public class OrderItem {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
+    // Owning order, notified of total price changes - not part of equals/hashCode/toString
+    private Order owner;
+    
     // Default constructor with defaults hell
     public OrderItem() {
-        this.productAttributes = new HashMap<>();
-        this.unitPrice = BigDecimal.ZERO;
+        this.productAttributes = Collections.emptyMap();
         this.quantity = 1;
-        this.totalPrice = BigDecimal.ZERO;
         this.currency = "USD";
+        this.currencyScale = Money.scaleOf(this.currency);
         this.weight = BigDecimal.ZERO;
         this.isDigital = false;
         this.isGiftCard = false;
         this.isPreOrder = false;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = TimeSources.now();
+        this.updatedAt = TimeSources.now();
     }
     
     // Constructor with required fields
@@ -60,9 +67,9 @@ public class OrderItem {
         this();
         this.productId = productId;
         this.productName = productName;
-        this.unitPrice = unitPrice != null ? unitPrice : BigDecimal.ZERO;
+        this.unitPriceMinor = toMinor(unitPrice);
         this.quantity = quantity > 0 ? quantity : 1;
-        this.totalPrice = calculateTotalPrice();
+        this.totalPriceMinor = calculateTotalPriceMinor();
         this.orderItemId = generateOrderItemId();
     }
     
@@ -72,9 +79,12 @@ public class OrderItem {
         this(productId, productName, unitPrice, quantity);
         this.productSku = productSku;
         this.currency = currency != null ? currency : "USD";
+        this.currencyScale = Money.scaleOf(this.currency);
         this.productCategory = productCategory;
         this.productBrand = productBrand;
-        this.totalPrice = calculateTotalPrice();
+        // Re-convert from the caller's price now that the currency scale is known
+        this.unitPriceMinor = toMinor(unitPrice);
+        this.totalPriceMinor = calculateTotalPriceMinor();
     }
     
     // Full constructor nightmare
@@ -86,7 +96,7 @@ public class OrderItem {
                     String variantName, String supplierCode, String warehouseLocation,
                     boolean isPreOrder, LocalDateTime estimatedShipDate) {
         
-        this.productAttributes = new HashMap<>();
+        this.productAttributes = Collections.emptyMap();
         this.orderItemId = orderItemId != null ? orderItemId : generateOrderItemId();
         this.productId = productId;
         this.productName = productName;
@@ -95,9 +105,10 @@ public class OrderItem {
         this.productBrand = productBrand;
         this.productDescription = productDescription;
         this.productImageUrl = productImageUrl;
-        this.unitPrice = unitPrice != null ? unitPrice : BigDecimal.ZERO;
         this.quantity = quantity > 0 ? quantity : 1;
         this.currency = currency != null ? currency : "USD";
+        this.currencyScale = Money.scaleOf(this.currency);
+        this.unitPriceMinor = toMinor(unitPrice);
         this.weight = weight != null ? weight : BigDecimal.ZERO;
         this.dimensions = dimensions;
         this.isDigital = isDigital;
@@ -110,9 +121,9 @@ public class OrderItem {
         this.warehouseLocation = warehouseLocation;
         this.isPreOrder = isPreOrder;
         this.estimatedShipDate = estimatedShipDate;
-        this.totalPrice = calculateTotalPrice();
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.totalPriceMinor = calculateTotalPriceMinor();
+        this.createdAt = TimeSources.now();
+        this.updatedAt = TimeSources.now();
     }
     
     // All the getters and setters - massive boilerplate!
@@ -120,93 +131,110 @@ public class OrderItem {
     public String getOrderItemId() { return orderItemId; }
     public void setOrderItemId(String orderItemId) { 
         this.orderItemId = orderItemId; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getProductId() { return productId; }
     public void setProductId(String productId) { 
         this.productId = productId; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getProductName() { return productName; }
     public void setProductName(String productName) { 
         this.productName = productName; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getProductSku() { return productSku; }
     public void setProductSku(String productSku) { 
         this.productSku = productSku; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getProductCategory() { return productCategory; }
     public void setProductCategory(String productCategory) { 
         this.productCategory = productCategory; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getProductBrand() { return productBrand; }
     public void setProductBrand(String productBrand) { 
         this.productBrand = productBrand; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getProductDescription() { return productDescription; }
     public void setProductDescription(String productDescription) { 
         this.productDescription = productDescription; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getProductImageUrl() { return productImageUrl; }
     public void setProductImageUrl(String productImageUrl) { 
         this.productImageUrl = productImageUrl; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
-    public BigDecimal getUnitPrice() { return unitPrice; }
+    public BigDecimal getUnitPrice() { return Money.toBigDecimal(unitPriceMinor, currencyScale); }
     public void setUnitPrice(BigDecimal unitPrice) { 
-        this.unitPrice = unitPrice != null ? unitPrice : BigDecimal.ZERO; 
-        this.totalPrice = calculateTotalPrice();
-        this.updatedAt = LocalDateTime.now();
+        long previousTotal = this.totalPriceMinor;
+        this.unitPriceMinor = toMinor(unitPrice); 
+        this.totalPriceMinor = calculateTotalPriceMinor();
+        this.updatedAt = TimeSources.now();
+        notifyOwner(previousTotal, currencyScale);
     }
     
     public int getQuantity() { return quantity; }
     public void setQuantity(int quantity) { 
+        long previousTotal = this.totalPriceMinor;
         this.quantity = quantity > 0 ? quantity : 1; 
-        this.totalPrice = calculateTotalPrice();
-        this.updatedAt = LocalDateTime.now();
+        this.totalPriceMinor = calculateTotalPriceMinor();
+        this.updatedAt = TimeSources.now();
+        notifyOwner(previousTotal, currencyScale);
     }
     
-    public BigDecimal getTotalPrice() { return totalPrice; }
+    public BigDecimal getTotalPrice() { return Money.toBigDecimal(totalPriceMinor, currencyScale); }
     public void setTotalPrice(BigDecimal totalPrice) { 
-        this.totalPrice = totalPrice != null ? totalPrice : BigDecimal.ZERO; 
-        this.updatedAt = LocalDateTime.now();
+        long previousTotal = this.totalPriceMinor;
+        this.totalPriceMinor = toMinor(totalPrice); 
+        this.updatedAt = TimeSources.now();
+        notifyOwner(previousTotal, currencyScale);
     }
     
+    // Minor-unit accessors for the pricing hot paths
+    public long getUnitPriceMinorUnits() { return unitPriceMinor; }
+    public long getTotalPriceMinorUnits() { return totalPriceMinor; }
+    public int getCurrencyScale() { return currencyScale; }
+    
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { 
+        long previousTotal = this.totalPriceMinor;
+        int previousScale = this.currencyScale;
         this.currency = currency != null ? currency : "USD"; 
-        this.updatedAt = LocalDateTime.now();
+        this.currencyScale = Money.scaleOf(this.currency);
+        this.unitPriceMinor = Money.rescale(unitPriceMinor, previousScale, currencyScale, Money.DEFAULT_ROUNDING);
+        this.totalPriceMinor = Money.rescale(totalPriceMinor, previousScale, currencyScale, Money.DEFAULT_ROUNDING);
+        this.updatedAt = TimeSources.now();
+        notifyOwner(previousTotal, previousScale);
     }
     
     public BigDecimal getWeight() { return weight; }
     public void setWeight(BigDecimal weight) { 
         this.weight = weight != null ? weight : BigDecimal.ZERO; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getDimensions() { return dimensions; }
     public void setDimensions(String dimensions) { 
         this.dimensions = dimensions; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isDigital() { return isDigital; }
     public void setDigital(boolean digital) { 
         isDigital = digital; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isGiftCard() { return isGiftCard; }
@@ -216,61 +244,68 @@ public class OrderItem {
             this.giftCardRecipientEmail = null;
             this.giftCardMessage = null;
         }
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getGiftCardRecipientEmail() { return giftCardRecipientEmail; }
     public void setGiftCardRecipientEmail(String giftCardRecipientEmail) { 
         this.giftCardRecipientEmail = giftCardRecipientEmail; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getGiftCardMessage() { return giftCardMessage; }
     public void setGiftCardMessage(String giftCardMessage) { 
         this.giftCardMessage = giftCardMessage; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getVariantId() { return variantId; }
     public void setVariantId(String variantId) { 
         this.variantId = variantId; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getVariantName() { return variantName; }
     public void setVariantName(String variantName) { 
         this.variantName = variantName; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
-    public Map<String, String> getProductAttributes() { return productAttributes; }
+    public Map<String, String> getProductAttributes() { 
+        return LazyCollections.map(productAttributes, () -> productAttributes,
+                () -> productAttributes = LazyCollections.writable(productAttributes));
+    }
+    public void putProductAttribute(String key, String value) {
+        this.productAttributes = LazyCollections.put(productAttributes, key, value);
+        this.updatedAt = TimeSources.now();
+    }
     public void setProductAttributes(Map<String, String> productAttributes) { 
-        this.productAttributes = productAttributes != null ? productAttributes : new HashMap<>(); 
-        this.updatedAt = LocalDateTime.now();
+        this.productAttributes = productAttributes != null ? productAttributes : Collections.emptyMap(); 
+        this.updatedAt = TimeSources.now();
     }
     
     public String getSupplierCode() { return supplierCode; }
     public void setSupplierCode(String supplierCode) { 
         this.supplierCode = supplierCode; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getWarehouseLocation() { return warehouseLocation; }
     public void setWarehouseLocation(String warehouseLocation) { 
         this.warehouseLocation = warehouseLocation; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isPreOrder() { return isPreOrder; }
     public void setPreOrder(boolean preOrder) { 
         isPreOrder = preOrder; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDateTime getEstimatedShipDate() { return estimatedShipDate; }
     public void setEstimatedShipDate(LocalDateTime estimatedShipDate) { 
         this.estimatedShipDate = estimatedShipDate; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDateTime getCreatedAt() { return createdAt; }
@@ -288,13 +323,45 @@ public class OrderItem {
         return isPhysicalProduct();
     }
     
-    private BigDecimal calculateTotalPrice() {
-        if (unitPrice == null) return BigDecimal.ZERO;
-        return unitPrice.multiply(BigDecimal.valueOf(quantity));
+    // Owner tracking - managed by Order when the item is added or removed
+    Order getOwner() {
+        return owner;
+    }
+    
+    // An item counts towards one order's subtotal; it must be removed from one before joining another
+    void attachTo(Order order) {
+        checkAttachableTo(order);
+        this.owner = order;
+    }
+    
+    void checkAttachableTo(Order order) {
+        if (owner != null && owner != order) {
+            throw new IllegalStateException("Order item " + orderItemId + " already belongs to order " + owner.getOrderId());
+        }
+    }
+    
+    void detachFrom(Order order) {
+        if (this.owner == order) {
+            this.owner = null;
+        }
+    }
+    
+    private void notifyOwner(long previousTotalMinor, int previousScale) {
+        if (owner != null && (previousTotalMinor != totalPriceMinor || previousScale != currencyScale)) {
+            owner.onItemTotalChanged(previousTotalMinor, previousScale, totalPriceMinor, currencyScale);
+        }
+    }
+    
+    private long calculateTotalPriceMinor() {
+        return Math.multiplyExact(unitPriceMinor, (long) quantity);
+    }
+    
+    private long toMinor(BigDecimal amount) {
+        return Money.toMinor(amount, currencyScale, Money.DEFAULT_ROUNDING);
     }
     
     private String generateOrderItemId() {
-        return "ITEM_" + System.currentTimeMillis() + "_" + (int)(Math.random() * 1000);
+        return "ITEM_" + IdGenerators.nextId();
     }
     
     @Override
@@ -314,8 +381,8 @@ public class OrderItem {
                Objects.equals(productBrand, orderItem.productBrand) &&
                Objects.equals(productDescription, orderItem.productDescription) &&
                Objects.equals(productImageUrl, orderItem.productImageUrl) &&
-               Objects.equals(unitPrice, orderItem.unitPrice) &&
-               Objects.equals(totalPrice, orderItem.totalPrice) &&
+               unitPriceMinor == orderItem.unitPriceMinor &&
+               totalPriceMinor == orderItem.totalPriceMinor &&
                Objects.equals(currency, orderItem.currency) &&
                Objects.equals(weight, orderItem.weight) &&
                Objects.equals(dimensions, orderItem.dimensions) &&
@@ -334,8 +401,8 @@ public class OrderItem {
     @Override
     public int hashCode() {
         return Objects.hash(orderItemId, productId, productName, productSku, productCategory,
-                           productBrand, productDescription, productImageUrl, unitPrice, quantity,
-                           totalPrice, currency, weight, dimensions, isDigital, isGiftCard,
+                           productBrand, productDescription, productImageUrl, unitPriceMinor, quantity,
+                           totalPriceMinor, currency, weight, dimensions, isDigital, isGiftCard,
                            giftCardRecipientEmail, giftCardMessage, variantId, variantName,
                            productAttributes, supplierCode, warehouseLocation, isPreOrder,
                            estimatedShipDate, createdAt, updatedAt);
@@ -352,9 +419,9 @@ public class OrderItem {
                 ", productBrand='" + productBrand + '\'' +
                 ", productDescription='" + productDescription + '\'' +
                 ", productImageUrl='" + productImageUrl + '\'' +
-                ", unitPrice=" + unitPrice +
+                ", unitPrice=" + getUnitPrice() +
                 ", quantity=" + quantity +
-                ", totalPrice=" + totalPrice +
+                ", totalPrice=" + getTotalPrice() +
                 ", currency='" + currency + '\'' +
                 ", weight=" + weight +
                 ", dimensions='" + dimensions + '\'' +
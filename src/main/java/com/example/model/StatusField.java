@@ -0,0 +1,69 @@
+package com.example.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The status-like String fields of Order, stored as 4-bit codes
+ *
+ * Each field has a vocabulary of the values the system uses. Code 0 is
+ * null, codes 1..n are the vocabulary in order, and UNLISTED marks any
+ * other value, which Order keeps as a string so free-form values still
+ * round-trip. All six codes of an order pack into one int, one field per
+ * nibble in declaration order.
+ *
+ * Vocabularies may grow up to 14 values; existing codes must not move,
+ * since they are compared directly.
+ */
+enum StatusField {
+    ORDER_STATUS("PENDING", "CONFIRMED", "PROCESSING", "SHIPPED", "DELIVERED", "CANCELLED", "REFUNDED"),
+    PRIORITY("LOW", "NORMAL", "HIGH", "URGENT", "VIP"),
+    PAYMENT_STATUS("PENDING", "PAID", "FAILED", "REFUNDED", "PARTIALLY_REFUNDED"),
+    // The methods of shipping-rates.properties
+    SHIPPING_METHOD("STANDARD", "EXPRESS", "OVERNIGHT", "SAME_DAY"),
+    SHIPPING_CARRIER("UPS", "FEDEX", "DHL", "USPS"),
+    SALES_CHANNEL("ONLINE", "MOBILE_APP", "PHONE", "STORE", "MARKETPLACE");
+
+    static final int NULL = 0;
+    static final int UNLISTED = 15;
+    private static final int BITS = 4;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final String[] values;
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final int shift;
+
+    StatusField(String... values) {
+        if (values.length >= UNLISTED) {
+            throw new IllegalStateException("Too many values for status field: " + name());
+        }
+        this.values = values;
+        for (int i = 0; i < values.length; i++) {
+            codes.put(values[i], i + 1);
+        }
+        this.shift = ordinal() * BITS;
+    }
+
+    int codeOf(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : UNLISTED;
+    }
+
+    /**
+     * The vocabulary value of a listed code, null for NULL.
+     */
+    String valueOf(int code) {
+        return code == NULL ? null : values[code - 1];
+    }
+
+    int codeIn(int packed) {
+        return (packed >>> shift) & MASK;
+    }
+
+    int with(int packed, int code) {
+        return (packed & ~(MASK << shift)) | (code << shift);
+    }
+}
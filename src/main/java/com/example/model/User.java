@@ -1,12 +1,14 @@
 package com.example.model;
 
+import com.example.id.IdGenerators;
+import com.example.time.TimeSources;
+
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 
 /**
  * Complex User class showing traditional Java pain points
@@ -57,6 +59,7 @@ public class User {
     private boolean newsletterOptIn;
     private String currencyPreference;
     private String notificationPreference;
+    // Shared empty instances until first written (see LazyCollections)
     private Map<String, String> customAttributes;
     private List<String> interests;
     private List<String> tags;
@@ -72,9 +75,9 @@ public class User {
     
     // Default constructor - all fields null
     public User() {
-        this.customAttributes = new HashMap<>();
-        this.interests = new ArrayList<>();
-        this.tags = new ArrayList<>();
+        this.customAttributes = Collections.emptyMap();
+        this.interests = Collections.emptyList();
+        this.tags = Collections.emptyList();
         this.emailVerified = false;
         this.phoneVerified = false;
         this.twoFactorEnabled = false;
@@ -89,8 +92,8 @@ public class User {
         this.currencyPreference = "USD";
         this.notificationPreference = "EMAIL";
         this.version = 1L;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = TimeSources.now();
+        this.updatedAt = TimeSources.now();
     }
     
     // Constructor with required fields only
@@ -133,9 +136,9 @@ public class User {
                String currencyPreference, String status, String userType, String createdBy) {
         
         // Initialize collections first
-        this.customAttributes = new HashMap<>();
-        this.interests = new ArrayList<>();
-        this.tags = new ArrayList<>();
+        this.customAttributes = Collections.emptyMap();
+        this.interests = Collections.emptyList();
+        this.tags = Collections.emptyList();
         
         // Set all the parameters
         this.id = id != null ? id : generateUserId();
@@ -174,8 +177,8 @@ public class User {
         this.accountLocked = false;
         this.notificationPreference = "EMAIL";
         this.version = 1L;
-        this.createdAt = LocalDateTime.now();
-        this.updatedAt = LocalDateTime.now();
+        this.createdAt = TimeSources.now();
+        this.updatedAt = TimeSources.now();
     }
     
     // All the getters and setters - massive boilerplate!
@@ -183,243 +186,262 @@ public class User {
     public String getId() { return id; }
     public void setId(String id) { 
         this.id = id; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getUsername() { return username; }
     public void setUsername(String username) { 
         this.username = username; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getEmail() { return email; }
     public void setEmail(String email) { 
         this.email = email; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getFirstName() { return firstName; }
     public void setFirstName(String firstName) { 
         this.firstName = firstName; 
         updateDisplayName();
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getLastName() { return lastName; }
     public void setLastName(String lastName) { 
         this.lastName = lastName; 
         updateDisplayName();
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getMiddleName() { return middleName; }
     public void setMiddleName(String middleName) { 
         this.middleName = middleName; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getDisplayName() { return displayName; }
     public void setDisplayName(String displayName) { 
         this.displayName = displayName; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getPhoneNumber() { return phoneNumber; }
     public void setPhoneNumber(String phoneNumber) { 
         this.phoneNumber = phoneNumber; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getAlternatePhoneNumber() { return alternatePhoneNumber; }
     public void setAlternatePhoneNumber(String alternatePhoneNumber) { 
         this.alternatePhoneNumber = alternatePhoneNumber; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDate getDateOfBirth() { return dateOfBirth; }
     public void setDateOfBirth(LocalDate dateOfBirth) { 
         this.dateOfBirth = dateOfBirth; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getGender() { return gender; }
     public void setGender(String gender) { 
         this.gender = gender; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getNationality() { return nationality; }
     public void setNationality(String nationality) { 
         this.nationality = nationality; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getPreferredLanguage() { return preferredLanguage; }
     public void setPreferredLanguage(String preferredLanguage) { 
         this.preferredLanguage = preferredLanguage != null ? preferredLanguage : "en"; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getTimeZone() { return timeZone; }
     public void setTimeZone(String timeZone) { 
         this.timeZone = timeZone != null ? timeZone : "UTC"; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getPasswordHash() { return passwordHash; }
     public void setPasswordHash(String passwordHash) { 
         this.passwordHash = passwordHash; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getSecurityQuestion() { return securityQuestion; }
     public void setSecurityQuestion(String securityQuestion) { 
         this.securityQuestion = securityQuestion; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getSecurityAnswer() { return securityAnswer; }
     public void setSecurityAnswer(String securityAnswer) { 
         this.securityAnswer = securityAnswer; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isEmailVerified() { return emailVerified; }
     public void setEmailVerified(boolean emailVerified) { 
         this.emailVerified = emailVerified; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isPhoneVerified() { return phoneVerified; }
     public void setPhoneVerified(boolean phoneVerified) { 
         this.phoneVerified = phoneVerified; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isTwoFactorEnabled() { return twoFactorEnabled; }
     public void setTwoFactorEnabled(boolean twoFactorEnabled) { 
         this.twoFactorEnabled = twoFactorEnabled; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getTwoFactorSecret() { return twoFactorSecret; }
     public void setTwoFactorSecret(String twoFactorSecret) { 
         this.twoFactorSecret = twoFactorSecret; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDateTime getLastLoginAt() { return lastLoginAt; }
     public void setLastLoginAt(LocalDateTime lastLoginAt) { 
         this.lastLoginAt = lastLoginAt; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getLastLoginIp() { return lastLoginIp; }
     public void setLastLoginIp(String lastLoginIp) { 
         this.lastLoginIp = lastLoginIp; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public int getFailedLoginAttempts() { return failedLoginAttempts; }
     public void setFailedLoginAttempts(int failedLoginAttempts) { 
         this.failedLoginAttempts = failedLoginAttempts; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isAccountLocked() { return accountLocked; }
     public void setAccountLocked(boolean accountLocked) { 
         this.accountLocked = accountLocked; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDateTime getAccountLockedUntil() { return accountLockedUntil; }
     public void setAccountLockedUntil(LocalDateTime accountLockedUntil) { 
         this.accountLockedUntil = accountLockedUntil; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getProfilePictureUrl() { return profilePictureUrl; }
     public void setProfilePictureUrl(String profilePictureUrl) { 
         this.profilePictureUrl = profilePictureUrl; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getBio() { return bio; }
     public void setBio(String bio) { 
         this.bio = bio; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getWebsite() { return website; }
     public void setWebsite(String website) { 
         this.website = website; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCompany() { return company; }
     public void setCompany(String company) { 
         this.company = company; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getJobTitle() { return jobTitle; }
     public void setJobTitle(String jobTitle) { 
         this.jobTitle = jobTitle; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isMarketingOptIn() { return marketingOptIn; }
     public void setMarketingOptIn(boolean marketingOptIn) { 
         this.marketingOptIn = marketingOptIn; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public boolean isNewsletterOptIn() { return newsletterOptIn; }
     public void setNewsletterOptIn(boolean newsletterOptIn) { 
         this.newsletterOptIn = newsletterOptIn; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getCurrencyPreference() { return currencyPreference; }
     public void setCurrencyPreference(String currencyPreference) { 
         this.currencyPreference = currencyPreference != null ? currencyPreference : "USD"; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getNotificationPreference() { return notificationPreference; }
     public void setNotificationPreference(String notificationPreference) { 
         this.notificationPreference = notificationPreference != null ? notificationPreference : "EMAIL"; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
-    public Map<String, String> getCustomAttributes() { return customAttributes; }
+    public Map<String, String> getCustomAttributes() { 
+        return LazyCollections.map(customAttributes, () -> customAttributes,
+                () -> customAttributes = LazyCollections.writable(customAttributes));
+    }
+    public void putCustomAttribute(String key, String value) {
+        this.customAttributes = LazyCollections.put(customAttributes, key, value);
+        this.updatedAt = TimeSources.now();
+    }
     public void setCustomAttributes(Map<String, String> customAttributes) { 
-        this.customAttributes = customAttributes != null ? customAttributes : new HashMap<>(); 
-        this.updatedAt = LocalDateTime.now();
+        this.customAttributes = customAttributes != null ? customAttributes : Collections.emptyMap(); 
+        this.updatedAt = TimeSources.now();
     }
     
-    public List<String> getInterests() { return interests; }
+    public List<String> getInterests() { 
+        return LazyCollections.list(interests, () -> interests, () -> interests = LazyCollections.writable(interests));
+    }
+    public void addInterest(String interest) {
+        this.interests = LazyCollections.add(interests, interest);
+        this.updatedAt = TimeSources.now();
+    }
     public void setInterests(List<String> interests) { 
-        this.interests = interests != null ? interests : new ArrayList<>(); 
-        this.updatedAt = LocalDateTime.now();
+        this.interests = interests != null ? interests : Collections.emptyList(); 
+        this.updatedAt = TimeSources.now();
     }
     
-    public List<String> getTags() { return tags; }
+    public List<String> getTags() { 
+        return LazyCollections.list(tags, () -> tags, () -> tags = LazyCollections.writable(tags));
+    }
+    public void addTag(String tag) {
+        this.tags = LazyCollections.add(tags, tag);
+        this.updatedAt = TimeSources.now();
+    }
     public void setTags(List<String> tags) { 
-        this.tags = tags != null ? tags : new ArrayList<>(); 
-        this.updatedAt = LocalDateTime.now();
+        this.tags = tags != null ? tags : Collections.emptyList(); 
+        this.updatedAt = TimeSources.now();
     }
     
     public String getStatus() { return status; }
     public void setStatus(String status) { 
         this.status = status != null ? status : "ACTIVE"; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getUserType() { return userType; }
     public void setUserType(String userType) { 
         this.userType = userType != null ? userType : "CUSTOMER"; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public LocalDateTime getCreatedAt() { return createdAt; }
@@ -431,13 +453,13 @@ public class User {
     public String getCreatedBy() { return createdBy; }
     public void setCreatedBy(String createdBy) { 
         this.createdBy = createdBy; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public String getUpdatedBy() { return updatedBy; }
     public void setUpdatedBy(String updatedBy) { 
         this.updatedBy = updatedBy; 
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = TimeSources.now();
     }
     
     public Long getVersion() { return version; }
@@ -473,8 +495,7 @@ public class User {
     }
     
     private String generateUserId() {
-        return "USER_" + System.currentTimeMillis() + "_" + 
-               (int)(Math.random() * 1000);
+        return "USER_" + IdGenerators.nextId();
     }
     
     // Massive equals method
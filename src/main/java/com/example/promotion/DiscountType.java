@@ -0,0 +1,27 @@
+package com.example.promotion;
+
+/**
+ * DiscountType - how a promotion's discount value is applied to an order
+ */
+public enum DiscountType {
+    /** Discount value is a percentage of the subtotal, optionally capped */
+    PERCENTAGE,
+    /** Discount value is an amount off the subtotal, at most the subtotal */
+    FIXED_AMOUNT,
+    /** The order's shipping charge is waived; the discount value is ignored */
+    FREE_SHIPPING;
+
+    /**
+     * Parse a type name as used by OrderService.applyDiscount.
+     */
+    public static DiscountType parse(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Discount type is required");
+        }
+        try {
+            return valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid discount type: " + name);
+        }
+    }
+}
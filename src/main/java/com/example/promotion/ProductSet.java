@@ -0,0 +1,153 @@
+package com.example.promotion;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * ProductSet - immutable set of product IDs, categories or brands that a
+ * promotion matches against
+ *
+ * Built once when the promotion is defined, so a check is one hash lookup
+ * instead of a scan of the promotion's list. Sets with more than
+ * BLOOM_THRESHOLD entries are fronted by a Bloom filter: their hash table
+ * spans megabytes, while the filter (about ten bits per entry) stays in
+ * cache and answers most misses - the usual case for a cart item against a
+ * large exclusion list - without touching the table. A Bloom hit is always
+ * confirmed against the table, so contains() is exact either way.
+ *
+ * Matching is exact and case-sensitive.
+ */
+public final class ProductSet {
+
+    public static final int BLOOM_THRESHOLD = 10_000;
+
+    private static final ProductSet EMPTY = new ProductSet(Collections.emptySet(), null);
+
+    private final Set<String> values;
+    private final BloomFilter bloomFilter; // null = small set, looked up directly
+
+    private ProductSet(Set<String> values, BloomFilter bloomFilter) {
+        this.values = values;
+        this.bloomFilter = bloomFilter;
+    }
+
+    /**
+     * Set of the non-blank values; null or empty gives the empty set.
+     */
+    public static ProductSet of(Collection<String> values) {
+        if (values == null || values.isEmpty()) {
+            return EMPTY;
+        }
+        Set<String> set = new HashSet<>(Math.max(16, (int) (values.size() / 0.75f) + 1));
+        for (String value : values) {
+            if (value != null && !value.trim().isEmpty()) {
+                set.add(value);
+            }
+        }
+        if (set.isEmpty()) {
+            return EMPTY;
+        }
+        BloomFilter bloomFilter = null;
+        if (set.size() > BLOOM_THRESHOLD) {
+            bloomFilter = new BloomFilter(set.size());
+            for (String value : set) {
+                bloomFilter.add(value);
+            }
+        }
+        return new ProductSet(Collections.unmodifiableSet(set), bloomFilter);
+    }
+
+    public static ProductSet empty() {
+        return EMPTY;
+    }
+
+    public boolean contains(String value) {
+        if (value == null || values.isEmpty()) {
+            return false;
+        }
+        if (bloomFilter != null && !bloomFilter.mightContain(value)) {
+            return false;
+        }
+        return values.contains(value);
+    }
+
+    public boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public boolean isBloomFiltered() {
+        return bloomFilter != null;
+    }
+
+    /**
+     * The values, unmodifiable.
+     */
+    public Set<String> values() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "ProductSet{size=" + values.size() + (bloomFilter != null ? ", bloomFiltered" : "") + "}";
+    }
+
+    /**
+     * Bloom filter with about ten bits per entry and seven probes, roughly
+     * a 1% false-positive rate. Probes are derived from one 64-bit mix of
+     * the string's (cached) hash code by double hashing.
+     */
+    private static final class BloomFilter {
+        private static final int BITS_PER_ENTRY = 10;
+        private static final int PROBES = 7;
+
+        private final long[] bits;
+        private final int mask;
+
+        BloomFilter(int expectedEntries) {
+            long wanted = (long) expectedEntries * BITS_PER_ENTRY;
+            int words = Integer.highestOneBit((int) Math.min(1 << 24, Math.max(1, (wanted + 63) >>> 6)) - 1) << 1;
+            this.bits = new long[Math.max(1, words)];
+            this.mask = (bits.length << 6) - 1;
+        }
+
+        void add(String value) {
+            long hash = mix(value.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                bits[bit >>> 6] |= 1L << bit;
+            }
+        }
+
+        boolean mightContain(String value) {
+            long hash = mix(value.hashCode());
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < PROBES; i++) {
+                int bit = (h1 + i * h2) & mask;
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit finalizer from MurmurHash3; String.hashCode() alone clusters for similar SKUs
+        private static long mix(int hashCode) {
+            long h = hashCode;
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.promotion;
+
+import com.example.model.Money;
+import com.example.model.Order;
+import com.example.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Promotion - a discount code and the rules an order must meet to use it
+ *
+ * Product rules are kept as ProductSets, hashed when the rule is set, so
+ * checking an order is one pass over its items with a constant-time lookup
+ * per item and rule, however many SKUs the promotion lists. An item is
+ * eligible if its product ID, category or brand is listed as eligible; it
+ * is excluded if any of them is listed as excluded. With no eligibility
+ * rules every item is eligible.
+ */
+public class Promotion {
+
+    private final String code;
+    private final DiscountType discountType;
+    private final BigDecimal discountValue;
+    private BigDecimal minimumOrderAmount;  // null = no minimum
+    private BigDecimal maximumDiscount;     // null = no maximum
+    private ProductSet eligibleProducts = ProductSet.empty();
+    private ProductSet eligibleCategories = ProductSet.empty();
+    private ProductSet eligibleBrands = ProductSet.empty();
+    private ProductSet excludedProducts = ProductSet.empty();
+    private ProductSet excludedCategories = ProductSet.empty();
+    private ProductSet excludedBrands = ProductSet.empty();
+    private boolean firstTimeCustomersOnly;
+    private boolean vipCustomersOnly;
+    private boolean stackable;              // combinable with other stackable promotions
+    private LocalDateTime expirationDate;   // null = no expiration
+    private int usageLimit;                 // 0 = unlimited
+
+    public Promotion(String code, DiscountType discountType, BigDecimal discountValue) {
+        if (code == null || code.trim().isEmpty()) {
+            throw new IllegalArgumentException("Discount code is required");
+        }
+        if (discountType == null) {
+            throw new IllegalArgumentException("Discount type is required");
+        }
+        if (discountValue == null || discountValue.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new IllegalArgumentException("Discount value must be positive");
+        }
+        this.code = code;
+        this.discountType = discountType;
+        this.discountValue = discountValue;
+    }
+
+    public String getCode() { return code; }
+    public DiscountType getDiscountType() { return discountType; }
+    public BigDecimal getDiscountValue() { return discountValue; }
+
+    public BigDecimal getMinimumOrderAmount() { return minimumOrderAmount; }
+    public void setMinimumOrderAmount(BigDecimal minimumOrderAmount) { this.minimumOrderAmount = minimumOrderAmount; }
+
+    public BigDecimal getMaximumDiscount() { return maximumDiscount; }
+    public void setMaximumDiscount(BigDecimal maximumDiscount) { this.maximumDiscount = maximumDiscount; }
+
+    public ProductSet getEligibleProducts() { return eligibleProducts; }
+    public void setEligibleProducts(Collection<String> productIds) { this.eligibleProducts = ProductSet.of(productIds); }
+
+    public ProductSet getEligibleCategories() { return eligibleCategories; }
+    public void setEligibleCategories(Collection<String> categories) { this.eligibleCategories = ProductSet.of(categories); }
+
+    public ProductSet getEligibleBrands() { return eligibleBrands; }
+    public void setEligibleBrands(Collection<String> brands) { this.eligibleBrands = ProductSet.of(brands); }
+
+    public ProductSet getExcludedProducts() { return excludedProducts; }
+    public void setExcludedProducts(Collection<String> productIds) { this.excludedProducts = ProductSet.of(productIds); }
+
+    public ProductSet getExcludedCategories() { return excludedCategories; }
+    public void setExcludedCategories(Collection<String> categories) { this.excludedCategories = ProductSet.of(categories); }
+
+    public ProductSet getExcludedBrands() { return excludedBrands; }
+    public void setExcludedBrands(Collection<String> brands) { this.excludedBrands = ProductSet.of(brands); }
+
+    public boolean isFirstTimeCustomersOnly() { return firstTimeCustomersOnly; }
+    public void setFirstTimeCustomersOnly(boolean firstTimeCustomersOnly) { this.firstTimeCustomersOnly = firstTimeCustomersOnly; }
+
+    public boolean isVipCustomersOnly() { return vipCustomersOnly; }
+    public void setVipCustomersOnly(boolean vipCustomersOnly) { this.vipCustomersOnly = vipCustomersOnly; }
+
+    /**
+     * Whether this promotion can be combined with other stackable ones on
+     * the same order; a non-stackable promotion is only ever used alone.
+     */
+    public boolean isStackable() { return stackable; }
+    public void setStackable(boolean stackable) { this.stackable = stackable; }
+
+    public LocalDateTime getExpirationDate() { return expirationDate; }
+    public void setExpirationDate(LocalDateTime expirationDate) { this.expirationDate = expirationDate; }
+
+    public int getUsageLimit() { return usageLimit; }
+    public void setUsageLimit(int usageLimit) {
+        if (usageLimit < 0) {
+            throw new IllegalArgumentException("Usage limit must not be negative");
+        }
+        this.usageLimit = usageLimit;
+    }
+
+    public boolean hasProductRules() {
+        return hasEligibilityRules() || !excludedProducts.isEmpty()
+                || !excludedCategories.isEmpty() || !excludedBrands.isEmpty();
+    }
+
+    public boolean hasEligibilityRules() {
+        return !eligibleProducts.isEmpty() || !eligibleCategories.isEmpty() || !eligibleBrands.isEmpty();
+    }
+
+    public boolean isExpired(LocalDateTime now) {
+        return expirationDate != null && now.isAfter(expirationDate);
+    }
+
+    public boolean isEligible(OrderItem item) {
+        if (!hasEligibilityRules()) {
+            return true;
+        }
+        return eligibleProducts.contains(item.getProductId())
+                || eligibleCategories.contains(item.getProductCategory())
+                || eligibleBrands.contains(item.getProductBrand());
+    }
+
+    public boolean isExcluded(OrderItem item) {
+        return excludedProducts.contains(item.getProductId())
+                || excludedCategories.contains(item.getProductCategory())
+                || excludedBrands.contains(item.getProductBrand());
+    }
+
+    /**
+     * Why the order cannot use this promotion, or null if it can.
+     */
+    public String checkEligibility(Order order, boolean isFirstTimeCustomer, boolean isVipCustomer,
+                                   LocalDateTime now) {
+        if (isExpired(now)) {
+            return "Discount code has expired";
+        }
+        // The minimum rounds up at the order's scale so it is never undercut
+        if (minimumOrderAmount != null && order.getSubtotalMinorUnits()
+                < Money.toMinor(minimumOrderAmount, order.getCurrencyScale(), RoundingMode.CEILING)) {
+            return "Order does not meet minimum amount requirement";
+        }
+        if (firstTimeCustomersOnly && !isFirstTimeCustomer) {
+            return "Discount is only for first-time customers";
+        }
+        if (vipCustomersOnly && !isVipCustomer) {
+            return "Discount is only for VIP customers";
+        }
+        return checkItems(order.getOrderItems());
+    }
+
+    // One pass over the items: any excluded item disqualifies, and at least one must be eligible
+    private String checkItems(List<OrderItem> items) {
+        if (!hasProductRules()) {
+            return null;
+        }
+        boolean eligibility = hasEligibilityRules();
+        boolean hasEligibleItem = !eligibility;
+        boolean hasExcludedItem = false;
+        if (items != null) {
+            for (OrderItem item : items) {
+                if (!hasEligibleItem && isEligible(item)) {
+                    hasEligibleItem = true;
+                }
+                if (!hasExcludedItem && isExcluded(item)) {
+                    hasExcludedItem = true;
+                }
+                if (hasEligibleItem && hasExcludedItem) {
+                    break;
+                }
+            }
+        }
+        if (!hasEligibleItem) {
+            return "No eligible products in order";
+        }
+        return hasExcludedItem ? "Order contains excluded products" : null;
+    }
+
+    /**
+     * The discount this promotion gives the order, in minor units of its
+     * currency. Does not check eligibility.
+     */
+    public long calculateDiscountMinorUnits(Order order) {
+        int scale = order.getCurrencyScale();
+        long subtotal = order.getSubtotalMinorUnits();
+        switch (discountType) {
+            case PERCENTAGE:
+                long discount = Money.applyRate(subtotal, Money.percentToPpm(discountValue), Money.DEFAULT_ROUNDING);
+                if (maximumDiscount != null) {
+                    // The cap rounds down so the discount never exceeds it
+                    discount = Math.min(discount, Money.toMinor(maximumDiscount, scale, RoundingMode.FLOOR));
+                }
+                return discount;
+            case FIXED_AMOUNT:
+                return Math.min(Money.toMinor(discountValue, scale, Money.DEFAULT_ROUNDING), subtotal);
+            case FREE_SHIPPING:
+                return order.getShippingMinorUnits();
+            default:
+                throw new IllegalStateException("Unhandled discount type: " + discountType);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Promotion{code='" + code + "', type=" + discountType + ", value=" + discountValue + "}";
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.promotion;
+
+import com.example.model.Money;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * PromotionCombination - promotions to apply together to one order and the
+ * discount they give it
+ */
+public final class PromotionCombination {
+
+    private final List<Promotion> promotions;
+    private final long discountMinorUnits;
+    private final int currencyScale;
+
+    PromotionCombination(List<Promotion> promotions, long discountMinorUnits, int currencyScale) {
+        this.promotions = Collections.unmodifiableList(promotions);
+        this.discountMinorUnits = discountMinorUnits;
+        this.currencyScale = currencyScale;
+    }
+
+    public List<Promotion> getPromotions() { return promotions; }
+    public long getDiscountMinorUnits() { return discountMinorUnits; }
+    public int getCurrencyScale() { return currencyScale; }
+
+    public BigDecimal getDiscountAmount() {
+        return Money.toBigDecimal(discountMinorUnits, currencyScale);
+    }
+
+    public boolean isEmpty() {
+        return promotions.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder codes = new StringBuilder();
+        for (Promotion promotion : promotions) {
+            if (codes.length() > 0) {
+                codes.append(", ");
+            }
+            codes.append(promotion.getCode());
+        }
+        return "PromotionCombination{codes=[" + codes + "], discount=" + getDiscountAmount() + "}";
+    }
+}
@@ -0,0 +1,258 @@
+package com.example.promotion;
+
+import com.example.model.Order;
+import com.example.model.OrderItem;
+import com.example.time.TimeSources;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * PromotionEngine - finds every promotion an order qualifies for, and the
+ * best combination of them, without looking at the promotions that cannot
+ * apply
+ *
+ * An immutable reverse index over a set of promotions. Promotions with
+ * product rules are posted under each eligible product ID, category and
+ * brand, so an order only reaches them through its own items. Promotions
+ * open to every product are split by the customer flags they require
+ * (first-time, VIP) and sorted by minimum order amount within each group,
+ * so an order only reaches the groups its customer belongs to, and in each
+ * only the prefix whose minimum its subtotal meets. The candidates that
+ * come out of the index are then checked in full (expiry, exclusions,
+ * minimum at the order's scale), which is cheap because there are few.
+ *
+ * Build a new engine when the promotions change; PromotionRegistry keeps
+ * one up to date for its registered codes.
+ */
+public final class PromotionEngine {
+
+    private static final int FIRST_TIME = 1;
+    private static final int VIP = 1 << 1;
+    private static final Promotion[] NONE = new Promotion[0];
+
+    private final int promotionCount;
+    private final Map<String, Promotion[]> byProduct = new HashMap<>();
+    private final Map<String, Promotion[]> byCategory = new HashMap<>();
+    private final Map<String, Promotion[]> byBrand = new HashMap<>();
+    // Promotions without eligibility rules, by required customer flags, sorted by minimum amount
+    private final AmountBand[] openBands = new AmountBand[4];
+
+    public PromotionEngine(Collection<Promotion> promotions) {
+        if (promotions == null) {
+            throw new IllegalArgumentException("Promotions are required");
+        }
+        Map<String, List<Promotion>> products = new HashMap<>();
+        Map<String, List<Promotion>> categories = new HashMap<>();
+        Map<String, List<Promotion>> brands = new HashMap<>();
+        List<List<Promotion>> open = new ArrayList<>(4);
+        for (int flags = 0; flags < 4; flags++) {
+            open.add(new ArrayList<>());
+        }
+        int count = 0;
+        for (Promotion promotion : promotions) {
+            if (promotion == null) {
+                continue;
+            }
+            count++;
+            if (promotion.hasEligibilityRules()) {
+                post(products, promotion.getEligibleProducts(), promotion);
+                post(categories, promotion.getEligibleCategories(), promotion);
+                post(brands, promotion.getEligibleBrands(), promotion);
+            } else {
+                open.get(requiredFlags(promotion)).add(promotion);
+            }
+        }
+        this.promotionCount = count;
+        freeze(products, byProduct);
+        freeze(categories, byCategory);
+        freeze(brands, byBrand);
+        for (int flags = 0; flags < 4; flags++) {
+            openBands[flags] = new AmountBand(open.get(flags));
+        }
+    }
+
+    public int getPromotionCount() {
+        return promotionCount;
+    }
+
+    /**
+     * Every promotion the order qualifies for.
+     */
+    public List<Promotion> findApplicable(Order order, boolean isFirstTimeCustomer, boolean isVipCustomer,
+                                          LocalDateTime now) {
+        return findApplicable(order, isFirstTimeCustomer, isVipCustomer, now, null);
+    }
+
+    /**
+     * Every promotion the order qualifies for that is also available, e.g.
+     * has uses left (null = all are).
+     */
+    public List<Promotion> findApplicable(Order order, boolean isFirstTimeCustomer, boolean isVipCustomer,
+                                          LocalDateTime now, Predicate<Promotion> available) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order is required");
+        }
+        LocalDateTime at = now != null ? now : TimeSources.now();
+        int customerFlags = (isFirstTimeCustomer ? FIRST_TIME : 0) | (isVipCustomer ? VIP : 0);
+
+        Set<Promotion> candidates = new LinkedHashSet<>();
+        BigDecimal subtotal = order.getSubtotalAmount();
+        for (int flags = 0; flags < 4; flags++) {
+            if ((flags & ~customerFlags) == 0) {
+                openBands[flags].addReachable(subtotal, candidates);
+            }
+        }
+        List<OrderItem> items = order.getOrderItems();
+        if (items != null) {
+            for (OrderItem item : items) {
+                addAll(candidates, byProduct, item.getProductId());
+                addAll(candidates, byCategory, item.getProductCategory());
+                addAll(candidates, byBrand, item.getProductBrand());
+            }
+        }
+
+        List<Promotion> applicable = new ArrayList<>(candidates.size());
+        for (Promotion promotion : candidates) {
+            if ((available == null || available.test(promotion))
+                    && promotion.checkEligibility(order, isFirstTimeCustomer, isVipCustomer, at) == null) {
+                applicable.add(promotion);
+            }
+        }
+        return applicable;
+    }
+
+    /**
+     * The applicable promotions that give the order the largest discount
+     * together: either the best non-stackable promotion on its own, or all
+     * stackable ones together. A stack's subtotal discounts are capped at
+     * the subtotal and it waives shipping at most once. Ties go to the
+     * combination with fewer promotions. Empty if nothing applies.
+     */
+    public PromotionCombination findBestCombination(Order order, boolean isFirstTimeCustomer,
+                                                    boolean isVipCustomer, LocalDateTime now,
+                                                    Predicate<Promotion> available) {
+        List<Promotion> applicable = findApplicable(order, isFirstTimeCustomer, isVipCustomer, now, available);
+        int scale = order.getCurrencyScale();
+        long subtotal = order.getSubtotalMinorUnits();
+
+        Promotion bestSingle = null;
+        long bestSingleDiscount = 0;
+        List<Promotion> stack = new ArrayList<>();
+        long stackSubtotalDiscount = 0;
+        Promotion stackShipping = null;
+        long stackShippingDiscount = 0;
+        for (Promotion promotion : applicable) {
+            long discount = promotion.calculateDiscountMinorUnits(order);
+            if (discount <= 0) {
+                continue;
+            }
+            if (!promotion.isStackable()) {
+                if (discount > bestSingleDiscount) {
+                    bestSingle = promotion;
+                    bestSingleDiscount = discount;
+                }
+            } else if (promotion.getDiscountType() == DiscountType.FREE_SHIPPING) {
+                if (discount > stackShippingDiscount) {
+                    stackShipping = promotion;
+                    stackShippingDiscount = discount;
+                }
+            } else if (stackSubtotalDiscount < subtotal) {
+                stack.add(promotion);
+                stackSubtotalDiscount = Math.min(subtotal, stackSubtotalDiscount + discount);
+            }
+        }
+        if (stackShipping != null) {
+            stack.add(stackShipping);
+        }
+        long stackDiscount = stackSubtotalDiscount + stackShippingDiscount;
+
+        if (bestSingle != null && (bestSingleDiscount > stackDiscount
+                || (bestSingleDiscount == stackDiscount && stack.size() > 1))) {
+            List<Promotion> single = new ArrayList<>(1);
+            single.add(bestSingle);
+            return new PromotionCombination(single, bestSingleDiscount, scale);
+        }
+        return new PromotionCombination(stack, stackDiscount, scale);
+    }
+
+    private static int requiredFlags(Promotion promotion) {
+        return (promotion.isFirstTimeCustomersOnly() ? FIRST_TIME : 0) | (promotion.isVipCustomersOnly() ? VIP : 0);
+    }
+
+    private static void post(Map<String, List<Promotion>> postings, ProductSet keys, Promotion promotion) {
+        for (String key : keys.values()) {
+            postings.computeIfAbsent(key, k -> new ArrayList<>(2)).add(promotion);
+        }
+    }
+
+    private static void freeze(Map<String, List<Promotion>> postings, Map<String, Promotion[]> into) {
+        for (Map.Entry<String, List<Promotion>> entry : postings.entrySet()) {
+            into.put(entry.getKey(), entry.getValue().toArray(NONE));
+        }
+    }
+
+    private static void addAll(Set<Promotion> candidates, Map<String, Promotion[]> postings, String key) {
+        if (key == null) {
+            return;
+        }
+        Promotion[] posted = postings.get(key);
+        if (posted != null) {
+            candidates.addAll(Arrays.asList(posted));
+        }
+    }
+
+    /**
+     * Promotions sorted by minimum order amount; the ones an order's
+     * subtotal reaches are a prefix found by binary search.
+     */
+    private static final class AmountBand {
+        private final Promotion[] promotions;
+        private final BigDecimal[] minimums;
+
+        AmountBand(List<Promotion> unsorted) {
+            this.promotions = unsorted.toArray(NONE);
+            Arrays.sort(promotions, Comparator.comparing(AmountBand::minimumOf));
+            this.minimums = new BigDecimal[promotions.length];
+            for (int i = 0; i < promotions.length; i++) {
+                minimums[i] = minimumOf(promotions[i]);
+            }
+        }
+
+        void addReachable(BigDecimal subtotal, Set<Promotion> into) {
+            int reachable = upperBound(subtotal);
+            for (int i = 0; i < reachable; i++) {
+                into.add(promotions[i]);
+            }
+        }
+
+        // Number of minimums <= subtotal
+        private int upperBound(BigDecimal subtotal) {
+            int low = 0;
+            int high = minimums.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (minimums[middle].compareTo(subtotal) <= 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static BigDecimal minimumOf(Promotion promotion) {
+            return promotion.getMinimumOrderAmount() != null ? promotion.getMinimumOrderAmount() : BigDecimal.ZERO;
+        }
+    }
+}
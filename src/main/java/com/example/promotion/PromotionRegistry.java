@@ -0,0 +1,280 @@
+package com.example.promotion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * PromotionRegistry - registered promotion codes and how often each was used
+ *
+ * Applying a code to an order reserves one use; paying for the order
+ * commits it, a failed payment releases it. A code's usage limit counts
+ * committed and reserved uses together, so it can never be exceeded, and
+ * a use that never gets paid for goes back to the pool.
+ *
+ * Nothing is locked globally. A limited code keeps one AtomicInteger of
+ * claimed uses, reserved with a compare-and-set that fails once the limit
+ * is reached; contention is per code, never across codes. Unlimited codes
+ * (the common case for site-wide promotions hit by every checkout) only
+ * count in LongAdders, which stripe under contention. An order's
+ * reservations are kept under its order ID and changed atomically per
+ * order, so a code reserved twice by one order still counts once, and a
+ * commit racing a release settles each reservation exactly once.
+ *
+ * A code's usage limit is fixed when it is registered. getEngine() indexes
+ * the registered promotions for finding the ones an order qualifies for.
+ */
+public class PromotionRegistry {
+
+    private final ConcurrentHashMap<String, Redemptions> promotions = new ConcurrentHashMap<>();
+    // Only modified inside compute()/remove() on the order's key
+    private final ConcurrentHashMap<String, Set<String>> reservationsByOrder = new ConcurrentHashMap<>();
+    private final AtomicLong registrations = new AtomicLong();
+    private volatile IndexedPromotions indexed; // null = not built yet
+
+    /**
+     * Register a new code.
+     *
+     * @throws IllegalArgumentException if the code is already registered
+     */
+    public void register(Promotion promotion) {
+        if (promotion == null) {
+            throw new IllegalArgumentException("Promotion is required");
+        }
+        if (promotions.putIfAbsent(promotion.getCode(), new Redemptions(promotion)) != null) {
+            throw new IllegalArgumentException("Discount code already registered: " + promotion.getCode());
+        }
+        registrations.incrementAndGet();
+    }
+
+    /**
+     * The registered promotion with this code, registering the given one
+     * if there is none yet.
+     */
+    public Promotion registerIfAbsent(Promotion promotion) {
+        if (promotion == null) {
+            throw new IllegalArgumentException("Promotion is required");
+        }
+        boolean[] added = new boolean[1];
+        Redemptions redemptions = promotions.computeIfAbsent(promotion.getCode(), code -> {
+            added[0] = true;
+            return new Redemptions(promotion);
+        });
+        if (added[0]) {
+            registrations.incrementAndGet();
+        }
+        return redemptions.promotion;
+    }
+
+    /**
+     * Reverse index over the registered promotions, rebuilt on first use
+     * after a registration.
+     */
+    public PromotionEngine getEngine() {
+        IndexedPromotions current = indexed;
+        // Read before the promotions, so a registration racing the rebuild forces another one
+        long version = registrations.get();
+        if (current == null || current.version != version) {
+            current = new IndexedPromotions(version, new PromotionEngine(getPromotions()));
+            indexed = current;
+        }
+        return current.engine;
+    }
+
+    /**
+     * The registered promotion, or null.
+     */
+    public Promotion getPromotion(String code) {
+        Redemptions redemptions = code != null ? promotions.get(code) : null;
+        return redemptions != null ? redemptions.promotion : null;
+    }
+
+    public List<Promotion> getPromotions() {
+        List<Promotion> all = new ArrayList<>(promotions.size());
+        for (Redemptions redemptions : promotions.values()) {
+            all.add(redemptions.promotion);
+        }
+        return Collections.unmodifiableList(all);
+    }
+
+    /**
+     * Reserve one use of the code for the order; does nothing if the order
+     * already holds a reservation for it.
+     *
+     * @return true if a use was reserved, false if the order already held one
+     * @throws IllegalArgumentException if the code is unknown or its usage limit is reached
+     */
+    public boolean reserve(String code, String orderId) {
+        if (orderId == null || orderId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Order ID is required");
+        }
+        Redemptions redemptions = code != null ? promotions.get(code) : null;
+        if (redemptions == null) {
+            throw new IllegalArgumentException("Unknown discount code: " + code);
+        }
+        boolean[] reserved = new boolean[1];
+        reservationsByOrder.compute(orderId, (id, codes) -> {
+            if (codes != null && codes.contains(code)) {
+                return codes;
+            }
+            if (!redemptions.tryReserve()) {
+                throw new IllegalArgumentException("Discount code usage limit reached: " + code);
+            }
+            reserved[0] = true;
+            Set<String> held = codes != null ? codes : new HashSet<>(4);
+            held.add(code);
+            return held;
+        });
+        return reserved[0];
+    }
+
+    /**
+     * Give back the order's reserved use of one code, leaving its other
+     * reservations alone.
+     *
+     * @return true if the order held a reservation for the code
+     */
+    public boolean cancel(String code, String orderId) {
+        if (code == null || orderId == null) {
+            return false;
+        }
+        boolean[] cancelled = new boolean[1];
+        reservationsByOrder.computeIfPresent(orderId, (id, codes) -> {
+            if (codes.remove(code)) {
+                promotions.get(code).release();
+                cancelled[0] = true;
+            }
+            return codes.isEmpty() ? null : codes;
+        });
+        return cancelled[0];
+    }
+
+    /**
+     * Turn the order's reservations into redemptions, e.g. once it is paid.
+     *
+     * @return the number of codes committed
+     */
+    public int commit(String orderId) {
+        Set<String> codes = orderId != null ? reservationsByOrder.remove(orderId) : null;
+        if (codes == null) {
+            return 0;
+        }
+        for (String code : codes) {
+            promotions.get(code).commit();
+        }
+        return codes.size();
+    }
+
+    /**
+     * Give the order's reserved uses back, e.g. when its payment fails.
+     *
+     * @return the number of codes released
+     */
+    public int release(String orderId) {
+        Set<String> codes = orderId != null ? reservationsByOrder.remove(orderId) : null;
+        if (codes == null) {
+            return 0;
+        }
+        for (String code : codes) {
+            promotions.get(code).release();
+        }
+        return codes.size();
+    }
+
+    /**
+     * Codes the order currently holds reservations for.
+     */
+    public Set<String> getReservations(String orderId) {
+        Set<String> codes = orderId != null ? reservationsByOrder.get(orderId) : null;
+        if (codes == null) {
+            return Collections.emptySet();
+        }
+        // Copied under the order's bin lock so a concurrent reserve() is not seen half-done
+        Set<String> copy = new HashSet<>();
+        reservationsByOrder.computeIfPresent(orderId, (id, current) -> {
+            copy.addAll(current);
+            return current;
+        });
+        return Collections.unmodifiableSet(copy);
+    }
+
+    public long getRedeemedCount(String code) {
+        Redemptions redemptions = code != null ? promotions.get(code) : null;
+        return redemptions != null ? redemptions.redeemed.sum() : 0;
+    }
+
+    public long getReservedCount(String code) {
+        Redemptions redemptions = code != null ? promotions.get(code) : null;
+        return redemptions != null ? redemptions.reserved.sum() : 0;
+    }
+
+    /**
+     * Uses left before the limit is reached, counting reservations as used;
+     * Integer.MAX_VALUE for unlimited or unknown codes.
+     */
+    public int getRemainingUses(String code) {
+        Redemptions redemptions = code != null ? promotions.get(code) : null;
+        if (redemptions == null || redemptions.usageLimit == 0) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(0, redemptions.usageLimit - redemptions.claimed.get());
+    }
+
+    private static final class IndexedPromotions {
+        private final long version;
+        private final PromotionEngine engine;
+
+        IndexedPromotions(long version, PromotionEngine engine) {
+            this.version = version;
+            this.engine = engine;
+        }
+    }
+
+    /**
+     * Usage counters of one code.
+     */
+    private static final class Redemptions {
+        private final Promotion promotion;
+        private final int usageLimit;                              // 0 = unlimited
+        private final AtomicInteger claimed = new AtomicInteger(); // reserved + redeemed, limited codes only
+        private final LongAdder reserved = new LongAdder();
+        private final LongAdder redeemed = new LongAdder();
+
+        Redemptions(Promotion promotion) {
+            this.promotion = promotion;
+            this.usageLimit = promotion.getUsageLimit();
+        }
+
+        boolean tryReserve() {
+            if (usageLimit > 0) {
+                int current;
+                do {
+                    current = claimed.get();
+                    if (current >= usageLimit) {
+                        return false;
+                    }
+                } while (!claimed.compareAndSet(current, current + 1));
+            }
+            reserved.increment();
+            return true;
+        }
+
+        void commit() {
+            reserved.decrement();
+            redeemed.increment();
+        }
+
+        void release() {
+            reserved.decrement();
+            if (usageLimit > 0) {
+                claimed.decrementAndGet();
+            }
+        }
+    }
+}
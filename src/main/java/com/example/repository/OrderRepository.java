@@ -0,0 +1,242 @@
+package com.example.repository;
+
+import com.example.model.Order;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * OrderRepository - concurrent in-memory order store
+ *
+ * Orders are held in a primary index keyed by orderId, with secondary
+ * indexes on customerId, orderStatus and orderDate. Secondary indexes hold
+ * order IDs only, so lookups never scan the full order set.
+ *
+ * Orders are mutable, so callers must save() an order again after changing
+ * an indexed field; the repository remembers the keys each order was last
+ * indexed under and moves it between index buckets as needed.
+ */
+public class OrderRepository {
+
+    private final ConcurrentMap<String, Order> ordersById = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, IndexedKeys> indexedKeys = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> ordersByCustomer = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> ordersByStatus = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<LocalDateTime, Set<String>> ordersByDate = new ConcurrentSkipListMap<>();
+
+    /**
+     * Insert or re-index an order. Index maintenance for a given orderId is
+     * serialized through compute(), so concurrent saves of the same order
+     * cannot leave it in two buckets.
+     */
+    public Order save(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order is required");
+        }
+        String orderId = order.getOrderId();
+        if (orderId == null || orderId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Order ID is required");
+        }
+
+        indexedKeys.compute(orderId, (id, previous) -> {
+            IndexedKeys current = new IndexedKeys(order.getCustomerId(), order.getOrderStatus(), order.getOrderDate());
+            if (previous != null) {
+                if (previous.equals(current)) {
+                    ordersById.put(id, order);
+                    return previous;
+                }
+                unindex(id, previous);
+            }
+            ordersById.put(id, order);
+            index(id, current);
+            return current;
+        });
+        return order;
+    }
+
+    public Order findById(String orderId) {
+        if (orderId == null) {
+            return null;
+        }
+        return ordersById.get(orderId);
+    }
+
+    public boolean existsById(String orderId) {
+        return orderId != null && ordersById.containsKey(orderId);
+    }
+
+    public List<Order> findByCustomerId(String customerId) {
+        if (customerId == null) {
+            return new ArrayList<>();
+        }
+        return resolve(ordersByCustomer.get(customerId));
+    }
+
+    public List<Order> findByStatus(String orderStatus) {
+        if (orderStatus == null) {
+            return new ArrayList<>();
+        }
+        return resolve(ordersByStatus.get(orderStatus));
+    }
+
+    /**
+     * Orders placed within [from, to]; either bound may be null for an open range.
+     */
+    public List<Order> findByOrderDateBetween(LocalDateTime from, LocalDateTime to) {
+        NavigableMap<LocalDateTime, Set<String>> range;
+        if (from != null && to != null) {
+            if (from.isAfter(to)) {
+                return new ArrayList<>();
+            }
+            range = ordersByDate.subMap(from, true, to, true);
+        } else if (from != null) {
+            range = ordersByDate.tailMap(from, true);
+        } else if (to != null) {
+            range = ordersByDate.headMap(to, true);
+        } else {
+            range = ordersByDate;
+        }
+
+        List<Order> result = new ArrayList<>();
+        for (Set<String> ids : range.values()) {
+            addResolved(ids, result);
+        }
+        return result;
+    }
+
+    public int countByCustomerId(String customerId) {
+        Set<String> ids = customerId != null ? ordersByCustomer.get(customerId) : null;
+        return ids != null ? ids.size() : 0;
+    }
+
+    public int countByStatus(String orderStatus) {
+        Set<String> ids = orderStatus != null ? ordersByStatus.get(orderStatus) : null;
+        return ids != null ? ids.size() : 0;
+    }
+
+    public boolean delete(String orderId) {
+        if (orderId == null) {
+            return false;
+        }
+        boolean[] removed = new boolean[1];
+        indexedKeys.computeIfPresent(orderId, (id, previous) -> {
+            unindex(id, previous);
+            removed[0] = ordersById.remove(id) != null;
+            return null;
+        });
+        return removed[0];
+    }
+
+    public Collection<Order> findAll() {
+        return new ArrayList<>(ordersById.values());
+    }
+
+    public int count() {
+        return ordersById.size();
+    }
+
+    public void clear() {
+        for (String orderId : new ArrayList<>(indexedKeys.keySet())) {
+            delete(orderId);
+        }
+    }
+
+    private void index(String orderId, IndexedKeys keys) {
+        if (keys.customerId != null) {
+            addToBucket(ordersByCustomer, keys.customerId, orderId);
+        }
+        if (keys.orderStatus != null) {
+            addToBucket(ordersByStatus, keys.orderStatus, orderId);
+        }
+        if (keys.orderDate != null) {
+            addToBucket(ordersByDate, keys.orderDate, orderId);
+        }
+    }
+
+    private void unindex(String orderId, IndexedKeys keys) {
+        if (keys.customerId != null) {
+            removeFromBucket(ordersByCustomer, keys.customerId, orderId);
+        }
+        if (keys.orderStatus != null) {
+            removeFromBucket(ordersByStatus, keys.orderStatus, orderId);
+        }
+        if (keys.orderDate != null) {
+            removeFromBucket(ordersByDate, keys.orderDate, orderId);
+        }
+    }
+
+    // Buckets are created and dropped inside compute() so an add can never
+    // land in a bucket that is concurrently being removed as empty
+    private static <K> void addToBucket(ConcurrentMap<K, Set<String>> index, K key, String orderId) {
+        index.compute(key, (k, ids) -> {
+            if (ids == null) {
+                ids = ConcurrentHashMap.newKeySet();
+            }
+            ids.add(orderId);
+            return ids;
+        });
+    }
+
+    private static <K> void removeFromBucket(ConcurrentMap<K, Set<String>> index, K key, String orderId) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(orderId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private List<Order> resolve(Set<String> ids) {
+        List<Order> result = new ArrayList<>(ids != null ? ids.size() : 0);
+        addResolved(ids, result);
+        return result;
+    }
+
+    private void addResolved(Set<String> ids, List<Order> result) {
+        if (ids == null) {
+            return;
+        }
+        for (String id : ids) {
+            Order order = ordersById.get(id);
+            if (order != null) {
+                result.add(order);
+            }
+        }
+    }
+
+    /**
+     * Snapshot of the values an order was last indexed under.
+     */
+    private static final class IndexedKeys {
+        private final String customerId;
+        private final String orderStatus;
+        private final LocalDateTime orderDate;
+
+        private IndexedKeys(String customerId, String orderStatus, LocalDateTime orderDate) {
+            this.customerId = customerId;
+            this.orderStatus = orderStatus;
+            this.orderDate = orderDate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            IndexedKeys that = (IndexedKeys) o;
+            return Objects.equals(customerId, that.customerId) &&
+                   Objects.equals(orderStatus, that.orderStatus) &&
+                   Objects.equals(orderDate, that.orderDate);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(customerId, orderStatus, orderDate);
+        }
+    }
+}
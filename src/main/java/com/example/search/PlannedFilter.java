@@ -0,0 +1,115 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+/**
+ * One filter of a UserQuery as the planner sees it: how many documents it
+ * matches, what it costs to produce its bitmap and to test a single
+ * candidate, and the two ways of applying it.
+ */
+final class PlannedFilter {
+
+    final String description;
+    // Access path when the bitmap is used; SORT_RANGE_BOUND filters have neither bitmap nor predicate
+    final QueryPlan.Access indexAccess;
+    final long estimatedRows;
+    final double buildCostPerRow;
+    final double checkCostPerRow;
+    // Null if the filter has no index to intersect
+    final Supplier<RoaringBitmap> bitmap;
+    // Null if a later check implies this one (trigrams are implied by text verification)
+    final IntPredicate predicate;
+    // Filter this one narrows down further; its selectivity is taken relative to that one's
+    private PlannedFilter refines;
+
+    private PlannedFilter(String description, QueryPlan.Access indexAccess, long estimatedRows,
+                          double buildCostPerRow, double checkCostPerRow,
+                          Supplier<RoaringBitmap> bitmap, IntPredicate predicate) {
+        this.description = description;
+        this.indexAccess = indexAccess;
+        this.estimatedRows = estimatedRows;
+        this.buildCostPerRow = buildCostPerRow;
+        this.checkCostPerRow = checkCostPerRow;
+        this.bitmap = bitmap;
+        this.predicate = predicate;
+    }
+
+    /**
+     * A stored posting bitmap (keyword, tag or attribute); null if no document has the value.
+     */
+    static PlannedFilter posting(String description, RoaringBitmap posting) {
+        RoaringBitmap docs = posting != null ? posting : new RoaringBitmap();
+        return new PlannedFilter(description, QueryPlan.Access.BITMAP_INTERSECT, docs.cardinality(),
+                0, QueryPlanner.BITMAP_CHECK_COST, () -> docs, docs::contains);
+    }
+
+    /**
+     * A key range whose bitmap has to be read off a RangeIndex.
+     */
+    static PlannedFilter range(String description, long estimatedRows, Supplier<RoaringBitmap> bitmap,
+                               IntPredicate predicate) {
+        return new PlannedFilter(description, QueryPlan.Access.RANGE_INTERSECT, estimatedRows,
+                QueryPlanner.RANGE_BUILD_COST, QueryPlanner.KEY_CHECK_COST, bitmap, predicate);
+    }
+
+    /**
+     * The trigram postings of a text query; null postings mean some trigram occurs nowhere.
+     */
+    static PlannedFilter trigrams(String description, RoaringBitmap[] postings) {
+        if (postings == null) {
+            return new PlannedFilter(description, QueryPlan.Access.TRIGRAM_INTERSECT, 0,
+                    0, QueryPlanner.TEXT_CHECK_COST, RoaringBitmap::new, null);
+        }
+        long smallest = Long.MAX_VALUE;
+        for (RoaringBitmap docs : postings) {
+            smallest = Math.min(smallest, docs.cardinality());
+        }
+        // Skipping the trigrams means verifying the text of every candidate instead
+        return new PlannedFilter(description, QueryPlan.Access.TRIGRAM_INTERSECT, smallest,
+                QueryPlanner.AND_COST * postings.length, QueryPlanner.TEXT_CHECK_COST,
+                () -> intersectAll(postings), null);
+    }
+
+    /**
+     * A check with no index behind it, such as the free-text verification.
+     */
+    static PlannedFilter predicate(String description, long estimatedRows, double checkCostPerRow,
+                                   IntPredicate predicate) {
+        return new PlannedFilter(description, QueryPlan.Access.POST_FILTER, estimatedRows,
+                0, checkCostPerRow, null, predicate);
+    }
+
+    /**
+     * A range on the sort field, left to the ordered page walk.
+     */
+    static PlannedFilter sortBound(String description, long estimatedRows) {
+        return new PlannedFilter(description, QueryPlan.Access.SORT_RANGE_BOUND, estimatedRows,
+                0, 0, null, null);
+    }
+
+    PlannedFilter getRefines() {
+        return refines;
+    }
+
+    /**
+     * Mark this filter as a refinement of another, such as the text check
+     * of the trigrams it was estimated from, so the planner does not count
+     * the same selectivity twice.
+     */
+    PlannedFilter refining(PlannedFilter refines) {
+        this.refines = refines;
+        return this;
+    }
+
+    private static RoaringBitmap intersectAll(RoaringBitmap[] postings) {
+        RoaringBitmap[] ordered = postings.clone();
+        Arrays.sort(ordered, (a, b) -> Integer.compare(a.cardinality(), b.cardinality()));
+        RoaringBitmap result = ordered[0];
+        for (int i = 1; i < ordered.length && !result.isEmpty(); i++) {
+            result = RoaringBitmap.and(result, ordered[i]);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * QueryPlan - how UserIndex executed (or will execute) one search
+ *
+ * Steps are listed in execution order: the driving index first, then the
+ * other indexes intersected into it, then the predicates checked per
+ * candidate. Estimates come from the index statistics; actual row counts
+ * and timings are filled in when the plan is produced by
+ * UserIndex.explain(), which runs the query.
+ */
+public class QueryPlan {
+
+    /**
+     * How a filter is applied.
+     */
+    public enum Access {
+        /** Keyword, tag or custom attribute bitmap, intersected with the candidates */
+        BITMAP_INTERSECT,
+        /** Range read off an ordered index and intersected with the candidates */
+        RANGE_INTERSECT,
+        /** Trigram postings of the free-text query, intersected with the candidates */
+        TRIGRAM_INTERSECT,
+        /** Checked per candidate document after the intersections */
+        POST_FILTER,
+        /** Range on the sort field, applied by bounding the ordered page walk */
+        SORT_RANGE_BOUND,
+        /** Implied by a later step and skipped */
+        SKIPPED
+    }
+
+    /**
+     * One filter of the query and the access path chosen for it.
+     */
+    public static final class Step {
+        private final String filter;
+        private final Access access;
+        private final long estimatedRows;
+        private final double selectivity;
+        private final double estimatedCost;
+        private long actualRows = -1;
+        private long elapsedNanos = -1;
+
+        Step(String filter, Access access, long estimatedRows, double selectivity, double estimatedCost) {
+            this.filter = filter;
+            this.access = access;
+            this.estimatedRows = estimatedRows;
+            this.selectivity = selectivity;
+            this.estimatedCost = estimatedCost;
+        }
+
+        public String getFilter() { return filter; }
+        public Access getAccess() { return access; }
+        /** Rows matching this filter alone, per the statistics */
+        public long getEstimatedRows() { return estimatedRows; }
+        /** Estimated fraction of all users matching this filter */
+        public double getSelectivity() { return selectivity; }
+        public double getEstimatedCost() { return estimatedCost; }
+        /** Candidates remaining after this step, or -1 if not executed */
+        public long getActualRows() { return actualRows; }
+        public long getElapsedNanos() { return elapsedNanos; }
+
+        void recordActual(long rows, long nanos) {
+            this.actualRows = rows;
+            this.elapsedNanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder line = new StringBuilder();
+            line.append(String.format("%-17s %-40s est=%d (%.4f%%) cost=%.1f",
+                    access, filter, estimatedRows, selectivity * 100, estimatedCost));
+            if (actualRows >= 0) {
+                line.append(String.format(" -> rows=%d in %.3f ms", actualRows, elapsedNanos / 1_000_000.0));
+            }
+            return line.toString();
+        }
+    }
+
+    private final long totalRows;
+    private final List<Step> steps = new ArrayList<>();
+    private final long estimatedRows;
+    private String pageStrategy;
+    private long actualRows = -1;
+    private long elapsedNanos = -1;
+
+    QueryPlan(long totalRows, List<Step> steps, long estimatedRows) {
+        this.totalRows = totalRows;
+        this.steps.addAll(steps);
+        this.estimatedRows = estimatedRows;
+    }
+
+    public long getTotalRows() { return totalRows; }
+    public List<Step> getSteps() { return Collections.unmodifiableList(steps); }
+    /** Estimated number of matching users after all filters */
+    public long getEstimatedRows() { return estimatedRows; }
+    /** How the page was ordered: an index walk or an in-memory sort of the matches */
+    public String getPageStrategy() { return pageStrategy; }
+    /** Matching users after all filters, or -1 if not executed */
+    public long getActualRows() { return actualRows; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    void recordPageStrategy(String pageStrategy) {
+        this.pageStrategy = pageStrategy;
+    }
+
+    void recordActual(long rows, long nanos) {
+        this.actualRows = rows;
+        this.elapsedNanos = nanos;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append("QueryPlan over ").append(totalRows).append(" users, estimated ").append(estimatedRows).append(" matches");
+        if (actualRows >= 0) {
+            out.append(String.format(", actual %d in %.3f ms", actualRows, elapsedNanos / 1_000_000.0));
+        }
+        out.append('\n');
+        if (steps.isEmpty()) {
+            out.append("  (no filters - all users)\n");
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            out.append("  ").append(i + 1).append(". ").append(steps.get(i)).append('\n');
+        }
+        if (pageStrategy != null) {
+            out.append("  page: ").append(pageStrategy).append('\n');
+        }
+        return out.toString();
+    }
+}
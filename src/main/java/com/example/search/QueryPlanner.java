@@ -0,0 +1,235 @@
+package com.example.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.IntPredicate;
+
+/**
+ * QueryPlanner - picks the order and access path of a search's filters
+ *
+ * Filters are taken most selective first. The first one whose index is
+ * cheaper than scanning every document drives: its bitmap becomes the
+ * candidate set (without one, all documents are). Every later filter is
+ * either intersected in as a bitmap or checked per surviving candidate,
+ * whichever is estimated cheaper given how few candidates are left by then
+ * (filters are assumed independent). A range that has to be materialized
+ * from a RangeIndex is rarely worth it once a selective posting has cut
+ * the candidates down, and the trigram postings are skipped when the text
+ * check on the remaining candidates costs less than intersecting them.
+ *
+ * Costs are in rough units of "one stored bitmap row touched".
+ */
+final class QueryPlanner {
+
+    // ANDing a row of an existing bitmap into the candidates
+    static final double AND_COST = 0.05;
+    // Reading one row of a range off the ordered index and building a bitmap from it
+    static final double RANGE_BUILD_COST = 1.0;
+    // Probing one candidate against a posting bitmap
+    static final double BITMAP_CHECK_COST = 0.1;
+    // Comparing one candidate's stored sort key against a range
+    static final double KEY_CHECK_COST = 0.2;
+    // Substring search in one candidate's text
+    static final double TEXT_CHECK_COST = 2.0;
+
+    private QueryPlanner() {
+    }
+
+    /**
+     * A plan plus the filters in the order it applies them.
+     */
+    static final class Execution {
+        private QueryPlan plan;
+        private final List<PlannedFilter> intersections = new ArrayList<>();
+        private final List<QueryPlan.Step> intersectionSteps = new ArrayList<>();
+        private final List<PlannedFilter> postFilters = new ArrayList<>();
+        private final List<QueryPlan.Step> postFilterSteps = new ArrayList<>();
+        private double estimatedCost;
+
+        QueryPlan getPlan() {
+            return plan;
+        }
+
+        /**
+         * Estimated cost of execute(): every intersection and post-filter step.
+         */
+        double getEstimatedCost() {
+            return estimatedCost;
+        }
+
+        /**
+         * Estimated cost of testing one document with matcher().
+         */
+        double getCheckCostPerRow() {
+            double cost = 0;
+            for (PlannedFilter filter : checkedFilters()) {
+                cost += filter.checkCostPerRow;
+            }
+            return cost;
+        }
+
+        private List<PlannedFilter> checkedFilters() {
+            List<PlannedFilter> checked = new ArrayList<>();
+            for (PlannedFilter filter : intersections) {
+                if (filter.predicate != null) {
+                    checked.add(filter);
+                }
+            }
+            checked.addAll(postFilters);
+            checked.sort(Comparator.comparingDouble(filter -> filter.checkCostPerRow));
+            return checked;
+        }
+    }
+
+    static Execution plan(List<PlannedFilter> filters, long totalRows) {
+        List<PlannedFilter> ordered = new ArrayList<>(filters);
+        ordered.sort(Comparator.comparingLong(filter -> filter.estimatedRows));
+
+        Execution execution = new Execution();
+        List<QueryPlan.Step> unappliedSteps = new ArrayList<>();
+        Set<PlannedFilter> applied = Collections.newSetFromMap(new IdentityHashMap<>());
+        double rows = totalRows;
+        boolean driven = false;
+        for (PlannedFilter filter : ordered) {
+            double selectivity = totalRows > 0 ? Math.min(1.0, (double) filter.estimatedRows / totalRows) : 0;
+            double narrowing = selectivity;
+            if (filter.getRefines() != null && applied.contains(filter.getRefines())) {
+                PlannedFilter refines = filter.getRefines();
+                narrowing = refines.estimatedRows > 0 ? Math.min(1.0, (double) filter.estimatedRows / refines.estimatedRows) : 0;
+            }
+            // Until something drives, a post-filter has to scan every document
+            double checkCost = (driven ? rows : totalRows) * filter.checkCostPerRow;
+            double indexCost = driven ? intersectCost(filter, rows) : filter.estimatedRows * filter.buildCostPerRow;
+            if (filter.indexAccess == QueryPlan.Access.SORT_RANGE_BOUND) {
+                unappliedSteps.add(step(filter, QueryPlan.Access.SORT_RANGE_BOUND, selectivity, 0));
+            } else if (filter.bitmap != null && indexCost < checkCost) {
+                execution.intersections.add(filter);
+                execution.intersectionSteps.add(step(filter, filter.indexAccess, selectivity, indexCost));
+                driven = true;
+            } else if (filter.predicate != null) {
+                execution.postFilters.add(filter);
+                execution.postFilterSteps.add(step(filter, QueryPlan.Access.POST_FILTER, selectivity, checkCost));
+            } else {
+                unappliedSteps.add(step(filter, QueryPlan.Access.SKIPPED, selectivity, 0));
+                continue;
+            }
+            applied.add(filter);
+            rows *= narrowing;
+        }
+        // Cheap checks first so the text check sees as few candidates as possible (the sort is stable)
+        sortByCheckCost(execution.postFilters, execution.postFilterSteps);
+
+        List<QueryPlan.Step> steps = new ArrayList<>(execution.intersectionSteps);
+        steps.addAll(execution.postFilterSteps);
+        steps.addAll(unappliedSteps);
+        for (QueryPlan.Step step : steps) {
+            execution.estimatedCost += step.getEstimatedCost();
+        }
+        execution.plan = new QueryPlan(totalRows, steps, Math.round(rows));
+        return execution;
+    }
+
+    /**
+     * Run the plan's intersections and post-filters, recording actual rows
+     * and timings on its steps. allDocs is the candidate set when no filter
+     * drives; it is returned as is, never modified.
+     */
+    static RoaringBitmap execute(Execution execution, RoaringBitmap allDocs) {
+        RoaringBitmap result = null;
+        for (int i = 0; i < execution.intersections.size(); i++) {
+            long start = System.nanoTime();
+            RoaringBitmap docs = execution.intersections.get(i).bitmap.get();
+            result = result == null ? docs : RoaringBitmap.and(result, docs);
+            execution.intersectionSteps.get(i).recordActual(result.cardinality(), System.nanoTime() - start);
+            if (result.isEmpty()) {
+                return result;
+            }
+        }
+        if (result == null) {
+            result = allDocs;
+        }
+        if (execution.postFilters.isEmpty() || result.isEmpty()) {
+            return result;
+        }
+
+        // One pass over the candidates; each one stops at the first check it fails
+        long start = System.nanoTime();
+        int checks = execution.postFilters.size();
+        IntPredicate[] predicates = new IntPredicate[checks];
+        for (int i = 0; i < checks; i++) {
+            predicates[i] = execution.postFilters.get(i).predicate;
+        }
+        long[] survivors = new long[checks];
+        int[] kept = new int[result.cardinality()];
+        int[] count = new int[1];
+        result.forEach(docId -> {
+            for (int i = 0; i < checks; i++) {
+                if (!predicates[i].test(docId)) {
+                    return;
+                }
+                survivors[i]++;
+            }
+            kept[count[0]++] = docId;
+        });
+        long elapsed = System.nanoTime() - start;
+        for (int i = 0; i < checks; i++) {
+            execution.postFilterSteps.get(i).recordActual(survivors[i], elapsed);
+        }
+        return RoaringBitmap.fromSorted(kept, count[0]);
+    }
+
+    /**
+     * Every applied filter of the plan as one per-document check, cheapest
+     * first, for callers that visit documents in their own order instead of
+     * executing the plan. Trigram postings have no check of their own; the
+     * text verification after them implies them. Step actuals are not recorded.
+     */
+    static IntPredicate matcher(Execution execution) {
+        List<PlannedFilter> checked = execution.checkedFilters();
+        IntPredicate[] predicates = new IntPredicate[checked.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = checked.get(i).predicate;
+        }
+        return docId -> {
+            for (IntPredicate predicate : predicates) {
+                if (!predicate.test(docId)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    // Building the filter's bitmap plus ANDing it into the remaining candidates
+    private static double intersectCost(PlannedFilter filter, double rows) {
+        return filter.estimatedRows * (filter.buildCostPerRow + AND_COST) + rows * AND_COST;
+    }
+
+    private static QueryPlan.Step step(PlannedFilter filter, QueryPlan.Access access, double selectivity,
+                                       double cost) {
+        return new QueryPlan.Step(filter.description, access, filter.estimatedRows, selectivity, cost);
+    }
+
+    private static void sortByCheckCost(List<PlannedFilter> filters, List<QueryPlan.Step> steps) {
+        Integer[] order = new Integer[filters.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingDouble(i -> filters.get(i).checkCostPerRow));
+        List<PlannedFilter> sortedFilters = new ArrayList<>(order.length);
+        List<QueryPlan.Step> sortedSteps = new ArrayList<>(order.length);
+        for (int i : order) {
+            sortedFilters.add(filters.get(i));
+            sortedSteps.add(steps.get(i));
+        }
+        filters.clear();
+        filters.addAll(sortedFilters);
+        steps.clear();
+        steps.addAll(sortedSteps);
+    }
+}
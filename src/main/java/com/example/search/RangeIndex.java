@@ -0,0 +1,257 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * RangeIndex - ordered index from a sortable key to the documents holding it
+ *
+ * Backs the date-range filters and ordered pagination of UserIndex: a
+ * range is read straight off the skip list, and a sorted page is produced
+ * by walking keys in order instead of sorting the whole result set.
+ * Documents with no value are kept aside and always visited last.
+ *
+ * Within one key, documents are visited in ascending document ID in both
+ * directions, so (key, docId) is a total order usable as a cursor.
+ *
+ * For the query planner it also keeps an equi-depth histogram of the keys,
+ * rebuilt lazily once enough documents have changed since the last build.
+ */
+final class RangeIndex {
+
+    /**
+     * Receives documents in index order; return false to stop the walk.
+     */
+    interface DocVisitor {
+        boolean visit(Object key, int docId);
+    }
+
+    @SuppressWarnings("unchecked")
+    static final Comparator<Object> KEY_ORDER = (a, b) -> ((Comparable<Object>) a).compareTo(b);
+
+    private static final int HISTOGRAM_BUCKETS = 64;
+    // Below this many documents a range is simply counted
+    private static final int EXACT_COUNT_LIMIT = 4096;
+
+    private final ConcurrentSkipListMap<Object, RoaringBitmap> postings = new ConcurrentSkipListMap<>(KEY_ORDER);
+    private final RoaringBitmap nullDocs = new RoaringBitmap();
+    private int keyedDocs;
+    private long modifications;
+    // Rebuilt by whichever reader finds it stale; racing rebuilds produce equal histograms
+    private volatile Histogram histogram;
+
+    void add(Object key, int docId) {
+        if (key == null) {
+            nullDocs.add(docId);
+        } else {
+            postings.computeIfAbsent(key, k -> new RoaringBitmap()).add(docId);
+            keyedDocs++;
+            modifications++;
+        }
+    }
+
+    void remove(Object key, int docId) {
+        if (key == null) {
+            nullDocs.remove(docId);
+            return;
+        }
+        boolean[] removed = new boolean[1];
+        postings.computeIfPresent(key, (k, docs) -> {
+            removed[0] = docs.contains(docId);
+            docs.remove(docId);
+            return docs.isEmpty() ? null : docs;
+        });
+        if (removed[0]) {
+            keyedDocs--;
+            modifications++;
+        }
+    }
+
+    int distinctKeys() {
+        return postings.size();
+    }
+
+    /**
+     * Documents with a non-null key.
+     */
+    int keyedDocs() {
+        return keyedDocs;
+    }
+
+    /**
+     * Estimated number of documents whose key lies in [from, to], without
+     * materializing the range. Exact for small indexes; otherwise read off
+     * the histogram, accurate to roughly one bucket (1/64 of the documents).
+     */
+    long estimateCount(Object from, Object to) {
+        if (from != null && to != null && KEY_ORDER.compare(from, to) > 0) {
+            return 0;
+        }
+        if (keyedDocs <= EXACT_COUNT_LIMIT) {
+            long count = 0;
+            for (RoaringBitmap docs : slice(from, to).values()) {
+                count += docs.cardinality();
+            }
+            return count;
+        }
+        return histogram().estimate(from, to, keyedDocs);
+    }
+
+    private Histogram histogram() {
+        Histogram current = histogram;
+        long staleAfter = Math.max(HISTOGRAM_BUCKETS, keyedDocs / 10);
+        if (current == null || modifications - current.builtAt > staleAfter) {
+            current = Histogram.build(postings, keyedDocs, modifications);
+            histogram = current;
+        }
+        return current;
+    }
+
+    /**
+     * Documents whose key lies in [from, to]; either bound may be null for open-ended.
+     */
+    RoaringBitmap range(Object from, Object to) {
+        NavigableMap<Object, RoaringBitmap> range = slice(from, to);
+
+        // Mark in a flat bit set, then read it back in docId order to build the bitmap in one pass
+        BitSet marked = new BitSet();
+        for (RoaringBitmap docs : range.values()) {
+            docs.forEach(marked::set);
+        }
+        int[] docIds = new int[marked.cardinality()];
+        int count = 0;
+        for (int docId = marked.nextSetBit(0); docId >= 0; docId = marked.nextSetBit(docId + 1)) {
+            docIds[count++] = docId;
+        }
+        return RoaringBitmap.fromSorted(docIds, count);
+    }
+
+    /**
+     * Visit documents in key order. Null keys come last in both directions.
+     */
+    void walk(boolean ascending, DocVisitor visitor) {
+        walk(ascending, null, null, true, null, visitor);
+    }
+
+    /**
+     * Visit only documents whose key lies in [from, to], in key order,
+     * starting strictly after the cursor position if one is given. Bounds
+     * may be null for open-ended; null keys are visited last only if
+     * includeNulls is set.
+     */
+    void walk(boolean ascending, Object from, Object to, boolean includeNulls, SearchCursor after,
+              DocVisitor visitor) {
+        if (after != null && after.getKey() == null) {
+            // The cursor is already inside the trailing null-key section
+            if (includeNulls) {
+                visitFrom(null, nullDocs, after.getDocId() + 1, visitor);
+            }
+            return;
+        }
+        if (after != null) {
+            // Resume at the cursor key: it narrows the lower bound ascending, the upper one descending
+            if (ascending && (from == null || KEY_ORDER.compare(after.getKey(), from) > 0)) {
+                from = after.getKey();
+            } else if (!ascending && (to == null || KEY_ORDER.compare(after.getKey(), to) < 0)) {
+                to = after.getKey();
+            }
+        }
+        NavigableMap<Object, RoaringBitmap> range = slice(from, to);
+        NavigableMap<Object, RoaringBitmap> ordered = ascending ? range : range.descendingMap();
+        for (Map.Entry<Object, RoaringBitmap> entry : ordered.entrySet()) {
+            boolean atCursor = after != null && KEY_ORDER.compare(entry.getKey(), after.getKey()) == 0;
+            int firstDocId = atCursor ? after.getDocId() + 1 : 0;
+            if (!visitFrom(entry.getKey(), entry.getValue(), firstDocId, visitor)) {
+                return;
+            }
+        }
+        if (includeNulls) {
+            visitFrom(null, nullDocs, 0, visitor);
+        }
+    }
+
+    /**
+     * Visit documents whose String key starts with the prefix, in key order.
+     */
+    void walkPrefix(String prefix, DocVisitor visitor) {
+        NavigableMap<Object, RoaringBitmap> matches =
+                postings.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+        for (Map.Entry<Object, RoaringBitmap> entry : matches.entrySet()) {
+            if (!visitFrom(entry.getKey(), entry.getValue(), 0, visitor)) {
+                return;
+            }
+        }
+    }
+
+    private NavigableMap<Object, RoaringBitmap> slice(Object from, Object to) {
+        if (from != null && to != null) {
+            if (KEY_ORDER.compare(from, to) > 0) {
+                return new ConcurrentSkipListMap<>(KEY_ORDER);
+            }
+            return postings.subMap(from, true, to, true);
+        } else if (from != null) {
+            return postings.tailMap(from, true);
+        } else if (to != null) {
+            return postings.headMap(to, true);
+        }
+        return postings;
+    }
+
+    /**
+     * Equi-depth histogram: bounds[i] is the key at rank i / BUCKETS of the
+     * keyed documents, so every bucket holds about the same number of
+     * documents however skewed the keys are.
+     */
+    private static final class Histogram {
+        private final Object[] bounds;
+        private final long builtAt;
+
+        private Histogram(Object[] bounds, long builtAt) {
+            this.bounds = bounds;
+            this.builtAt = builtAt;
+        }
+
+        static Histogram build(NavigableMap<Object, RoaringBitmap> postings, int docs, long modifications) {
+            Object[] bounds = new Object[HISTOGRAM_BUCKETS + 1];
+            int next = 0;
+            long seen = 0;
+            for (Map.Entry<Object, RoaringBitmap> entry : postings.entrySet()) {
+                seen += entry.getValue().cardinality();
+                // Every bound whose rank falls inside this key's documents gets this key
+                while (next < bounds.length && (long) next * (docs - 1) / HISTOGRAM_BUCKETS < seen) {
+                    bounds[next++] = entry.getKey();
+                }
+            }
+            return new Histogram(Arrays.copyOf(bounds, next), modifications);
+        }
+
+        long estimate(Object from, Object to, int docs) {
+            if (bounds.length == 0) {
+                return 0;
+            }
+            int inside = 0;
+            for (Object bound : bounds) {
+                if ((from == null || KEY_ORDER.compare(bound, from) >= 0)
+                        && (to == null || KEY_ORDER.compare(bound, to) <= 0)) {
+                    inside++;
+                }
+            }
+            // A range between two adjacent bounds still holds up to one bucket; assume half
+            double fraction = inside > 0 ? (double) inside / bounds.length : 0.5 / HISTOGRAM_BUCKETS;
+            return Math.round(Math.min(1.0, fraction) * docs);
+        }
+    }
+
+    private static boolean visitFrom(Object key, RoaringBitmap docs, int firstDocId, DocVisitor visitor) {
+        for (int docId = docs.nextValue(firstDocId); docId >= 0; docId = docs.nextValue(docId + 1)) {
+            if (!visitor.visit(key, docId)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.search;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position after the last user of a page: the (sort key, document ID) pair
+ * in the order UserIndex pages in, plus the sort it belongs to.
+ *
+ * Encoded as an opaque URL-safe token. Keys are sort-field values, never
+ * row offsets, so resuming costs the same on page 1 and on page 10,000.
+ */
+final class SearchCursor {
+
+    private static final String VERSION = "1";
+    private static final char SEPARATOR = '|';
+
+    private final UserSortField sortField;
+    private final boolean ascending;
+    private final Object key;
+    private final int docId;
+
+    SearchCursor(UserSortField sortField, boolean ascending, Object key, int docId) {
+        this.sortField = sortField;
+        this.ascending = ascending;
+        this.key = key;
+        this.docId = docId;
+    }
+
+    UserSortField getSortField() { return sortField; }
+    boolean isAscending() { return ascending; }
+    Object getKey() { return key; }
+    int getDocId() { return docId; }
+
+    String encode() {
+        // Key goes last so a string key may itself contain the separator
+        String raw = VERSION + SEPARATOR + sortField.name() + SEPARATOR + (ascending ? "A" : "D")
+                + SEPARATOR + docId + SEPARATOR + encodeKey(key);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SearchCursor decode(String token) {
+        if (token == null || token.trim().isEmpty()) {
+            throw new IllegalArgumentException("Continuation token is required");
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !VERSION.equals(parts[0])) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+            UserSortField sortField = UserSortField.valueOf(parts[1]);
+            boolean ascending = "A".equals(parts[2]);
+            int docId = Integer.parseInt(parts[3]);
+            return new SearchCursor(sortField, ascending, decodeKey(parts[4]), docId);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid continuation token", e);
+        }
+    }
+
+    private static String encodeKey(Object key) {
+        if (key == null) {
+            return "N";
+        }
+        if (key instanceof LocalDateTime) {
+            return "T" + key;
+        }
+        if (key instanceof LocalDate) {
+            return "D" + key;
+        }
+        return "S" + key;
+    }
+
+    private static Object decodeKey(String encoded) {
+        if (encoded.isEmpty()) {
+            throw new IllegalArgumentException("Invalid continuation token");
+        }
+        String value = encoded.substring(1);
+        switch (encoded.charAt(0)) {
+            case 'N':
+                return null;
+            case 'T':
+                return LocalDateTime.parse(value);
+            case 'D':
+                return LocalDate.parse(value);
+            case 'S':
+                return value;
+            default:
+                throw new IllegalArgumentException("Invalid continuation token");
+        }
+    }
+}
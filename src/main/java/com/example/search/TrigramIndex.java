@@ -0,0 +1,95 @@
+package com.example.search;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TrigramIndex - n-gram postings for free-text substring search
+ *
+ * Every three-character window of a document's text maps to the bitmap of
+ * documents containing it. A substring query of length >= 3 can only match
+ * documents that contain all of its trigrams, so the intersection of those
+ * postings is a small candidate set; candidates are then verified against
+ * the real text because trigrams do not record adjacency.
+ *
+ * Text is expected pre-normalized (lower-cased) with '\n' between fields;
+ * windows spanning a field boundary are not indexed.
+ */
+final class TrigramIndex {
+
+    static final int GRAM_LENGTH = 3;
+    private static final char FIELD_SEPARATOR = '\n';
+
+    private final Map<Long, RoaringBitmap> postings = new HashMap<>();
+
+    void add(long[] trigrams, int docId) {
+        for (long trigram : trigrams) {
+            postings.computeIfAbsent(trigram, key -> new RoaringBitmap()).add(docId);
+        }
+    }
+
+    void remove(long[] trigrams, int docId) {
+        for (long trigram : trigrams) {
+            RoaringBitmap docs = postings.get(trigram);
+            if (docs != null) {
+                docs.remove(docId);
+                if (docs.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    int distinctTrigrams() {
+        return postings.size();
+    }
+
+    /**
+     * Postings for each trigram of the query, or null if some trigram has
+     * no documents at all (the query cannot match anything).
+     */
+    RoaringBitmap[] postingsFor(String normalizedQuery) {
+        long[] trigrams = trigramsOf(normalizedQuery);
+        RoaringBitmap[] result = new RoaringBitmap[trigrams.length];
+        for (int i = 0; i < trigrams.length; i++) {
+            result[i] = postings.get(trigrams[i]);
+            if (result[i] == null) {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    static boolean isIndexable(String normalizedQuery) {
+        return normalizedQuery != null && normalizedQuery.length() >= GRAM_LENGTH;
+    }
+
+    /**
+     * Distinct trigrams of the text, sorted, each packed as three 16-bit chars in a long.
+     */
+    static long[] trigramsOf(String text) {
+        if (text == null || text.length() < GRAM_LENGTH) {
+            return new long[0];
+        }
+        long[] trigrams = new long[text.length() - GRAM_LENGTH + 1];
+        int count = 0;
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a == FIELD_SEPARATOR || b == FIELD_SEPARATOR || c == FIELD_SEPARATOR) {
+                continue;
+            }
+            trigrams[count++] = ((long) a << 32) | ((long) b << 16) | c;
+        }
+        Arrays.sort(trigrams, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.search;
+
+import com.example.model.User;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Single-valued User fields that UserIndex keeps a bitmap per distinct value for.
+ *
+ * Values are normalized before indexing and before lookup, so filters are
+ * case-insensitive and booleans are matched as "true"/"false".
+ */
+public enum UserField {
+
+    STATUS(User::getStatus),
+    USER_TYPE(User::getUserType),
+    EMAIL_VERIFIED(user -> String.valueOf(user.isEmailVerified())),
+    PHONE_VERIFIED(user -> String.valueOf(user.isPhoneVerified())),
+    TWO_FACTOR_ENABLED(user -> String.valueOf(user.isTwoFactorEnabled())),
+    MARKETING_OPT_IN(user -> String.valueOf(user.isMarketingOptIn())),
+    PREFERRED_LANGUAGE(User::getPreferredLanguage),
+    TIME_ZONE(User::getTimeZone),
+    NATIONALITY(User::getNationality),
+    EMAIL(User::getEmail),
+    FIRST_NAME(User::getFirstName),
+    LAST_NAME(User::getLastName);
+
+    private final Function<User, String> extractor;
+
+    UserField(Function<User, String> extractor) {
+        this.extractor = extractor;
+    }
+
+    /**
+     * Normalized value of this field for the user, or null if unset.
+     */
+    public String valueOf(User user) {
+        return normalize(extractor.apply(user));
+    }
+
+    public static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+}
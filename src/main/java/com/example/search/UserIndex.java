@@ -0,0 +1,657 @@
+package com.example.search;
+
+import com.example.model.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * UserIndex - in-memory search index behind UserService.searchUsers
+ *
+ * Each indexed user gets a dense int document ID. Keyword fields
+ * (UserField) keep one RoaringBitmap per distinct value, and tags and
+ * custom attributes keep a bitmap posting per tag / per key=value pair.
+ * Every sortable field (UserSortField) also has an ordered RangeIndex,
+ * which serves the dateOfBirth / createdAt range filters, ordered
+ * pagination and username/email prefix autocomplete. The free-text fields
+ * feed a TrigramIndex, so a text query of three or more characters only
+ * verifies documents that contain every trigram of the query.
+ *
+ * A search is planned by QueryPlanner from the index statistics (posting
+ * sizes, the range histograms, trigram posting sizes): the most selective
+ * index drives, later filters are intersected or checked per candidate,
+ * whichever is cheaper, and the free text is verified last. explain()
+ * returns that plan with actual row counts. The page is then either read
+ * by walking the sort field's index in order, or - when few documents
+ * match - by sorting just the matches, whichever is estimated to touch
+ * fewer entries. A continuation page usually skips the plan altogether:
+ * it resumes the sort index walk at the cursor and checks every filter per
+ * document, so no range bitmap, trigram intersection or text scan is
+ * rebuilt over the whole match set for each page.
+ *
+ * Users are mutable, so callers must index() a user again after changing
+ * an indexed field. The index remembers the keys each user was last
+ * indexed under and moves it between postings as needed.
+ */
+public class UserIndex {
+
+    private static final UserSortField[] RANGE_FIELDS = {UserSortField.DATE_OF_BIRTH, UserSortField.CREATED_AT};
+    private static final UserSortField[] AUTOCOMPLETE_FIELDS = {UserSortField.USERNAME, UserSortField.EMAIL};
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> docIdsByUserId = new HashMap<>();
+    private final List<User> usersByDocId = new ArrayList<>();
+    private final List<IndexedKeys> keysByDocId = new ArrayList<>();
+    private final RoaringBitmap liveDocs = new RoaringBitmap();
+    private final Map<UserField, Map<String, RoaringBitmap>> keywordIndex = new EnumMap<>(UserField.class);
+    private final Map<String, RoaringBitmap> tagPostings = new HashMap<>();
+    private final Map<String, RoaringBitmap> attributePostings = new HashMap<>();
+    private final Map<UserSortField, RangeIndex> rangeIndexes = new EnumMap<>(UserSortField.class);
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+
+    public UserIndex() {
+        for (UserField field : UserField.values()) {
+            keywordIndex.put(field, new HashMap<>());
+        }
+        for (UserSortField field : UserSortField.values()) {
+            rangeIndexes.put(field, new RangeIndex());
+        }
+    }
+
+    /**
+     * Insert or re-index a user.
+     */
+    public void index(User user) {
+        if (user == null) {
+            throw new IllegalArgumentException("User is required");
+        }
+        if (user.getId() == null || user.getId().trim().isEmpty()) {
+            throw new IllegalArgumentException("User ID is required");
+        }
+        IndexedKeys current = IndexedKeys.of(user);
+
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByUserId.get(user.getId());
+            if (docId == null) {
+                docId = usersByDocId.size();
+                docIdsByUserId.put(user.getId(), docId);
+                usersByDocId.add(user);
+                keysByDocId.add(null);
+                liveDocs.add(docId);
+            }
+            IndexedKeys previous = keysByDocId.get(docId);
+            usersByDocId.set(docId, user);
+            if (current.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                unindex(docId, previous);
+            }
+            index(docId, current);
+            keysByDocId.set(docId, current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Re-index a user only if it is already in the index.
+     *
+     * @return true if the user was indexed
+     */
+    public boolean update(User user) {
+        if (user == null || user.getId() == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!docIdsByUserId.containsKey(user.getId())) {
+                return false;
+            }
+            // Reentrant, so index() can take the write lock again
+            index(user);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean remove(String userId) {
+        if (userId == null) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            Integer docId = docIdsByUserId.remove(userId);
+            if (docId == null) {
+                return false;
+            }
+            // Document IDs are not reused, so open result bitmaps stay valid
+            unindex(docId, keysByDocId.get(docId));
+            keysByDocId.set(docId, null);
+            usersByDocId.set(docId, null);
+            liveDocs.remove(docId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public User findById(String userId) {
+        if (userId == null) {
+            return null;
+        }
+        lock.readLock().lock();
+        try {
+            Integer docId = docIdsByUserId.get(userId);
+            return docId != null ? usersByDocId.get(docId) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(String userId) {
+        return findById(userId) != null;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docIdsByUserId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Run the query and return the requested page of matching users.
+     */
+    public List<User> search(UserQuery query) {
+        return searchPage(query).getUsers();
+    }
+
+    /**
+     * Run the query and return one page plus a token for the next one.
+     *
+     * With a continuation token the page starts right after the last user
+     * of the previous page and pageNumber is ignored. Unless the query is
+     * so selective that the walk would have to pass most of the index, the
+     * page is read by resuming the sort index walk at the cursor, so its
+     * cost depends on the page size rather than on the number of matches
+     * and walking every page of a large result set stays linear overall. Without one, pageNumber is used as an offset.
+     */
+    public UserSearchPage searchPage(UserQuery query) {
+        return searchPage(query, null);
+    }
+
+    /**
+     * Run the query like searchPage() and return the plan it was executed
+     * with: the order and access path of every filter, estimated against
+     * actual rows, per-step timings and how the page was ordered.
+     */
+    public QueryPlan explain(UserQuery query) {
+        QueryPlan[] plan = new QueryPlan[1];
+        searchPage(query, plan);
+        return plan[0];
+    }
+
+    // Fills explained[0] with the executed plan if explained is given
+    private UserSearchPage searchPage(UserQuery query, QueryPlan[] explained) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query is required");
+        }
+        long start = System.nanoTime();
+        UserSortField sortField = UserSortField.fromFieldName(query.getSortField());
+        SearchCursor cursor = null;
+        if (query.getContinuationToken() != null) {
+            cursor = SearchCursor.decode(query.getContinuationToken());
+            if (cursor.getSortField() != sortField || cursor.isAscending() != query.isAscending()) {
+                throw new IllegalArgumentException("Continuation token belongs to a different sort order");
+            }
+            if (!sortField.acceptsKey(cursor.getKey())) {
+                throw new IllegalArgumentException("Invalid continuation token");
+            }
+        }
+
+        // A range on the sort field itself is served by the ordered walk instead of a bitmap
+        Object[] sortRange = rangeOn(query, sortField);
+
+        lock.readLock().lock();
+        try {
+            QueryPlanner.Execution execution = plan(query, sortRange != null ? sortField : null);
+            QueryPlan plan = explained != null ? execution.getPlan() : null;
+            int limit = query.getPageSize();
+
+            // One extra row tells us whether another page exists
+            int[] page;
+            long matches = -1;
+            if (cursor != null && resumesCheaper(execution, limit + 1, sortField, query.isAscending(), plan)) {
+                page = walkPage(QueryPlanner.matcher(execution), sortField, sortRange, query.isAscending(),
+                        cursor, 0, limit + 1);
+            } else {
+                RoaringBitmap candidates = QueryPlanner.execute(execution, liveDocs);
+                long offset = cursor != null ? 0 : (long) (query.getPageNumber() - 1) * query.getPageSize();
+                page = page(candidates, sortField, sortRange, query.isAscending(), cursor, offset, limit + 1, plan);
+                if (plan != null) {
+                    matches = sortRange != null ? countInRange(candidates, sortField, sortRange) : candidates.cardinality();
+                }
+            }
+            int returned = Math.min(page.length, limit);
+            List<User> users = new ArrayList<>(returned);
+            for (int i = 0; i < returned; i++) {
+                users.add(usersByDocId.get(page[i]));
+            }
+
+            String nextPageToken = null;
+            if (page.length > limit) {
+                int lastDocId = page[limit - 1];
+                Object lastKey = keysByDocId.get(lastDocId).sortKeys[sortField.ordinal()];
+                nextPageToken = new SearchCursor(sortField, query.isAscending(), lastKey, lastDocId).encode();
+            }
+            if (plan != null) {
+                plan.recordActual(matches, System.nanoTime() - start);
+                explained[0] = plan;
+            }
+            return new UserSearchPage(users, nextPageToken);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Users whose username or email starts with the prefix (case-insensitive),
+     * username matches first, each group in key order.
+     */
+    public List<User> autocomplete(String prefix, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        String normalized = UserField.normalize(prefix);
+        if (normalized == null) {
+            return new ArrayList<>();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Integer> docIds = new LinkedHashSet<>();
+            for (UserSortField field : AUTOCOMPLETE_FIELDS) {
+                rangeIndexes.get(field).walkPrefix(normalized, (key, docId) -> {
+                    docIds.add(docId);
+                    return docIds.size() < limit;
+                });
+                if (docIds.size() >= limit) {
+                    break;
+                }
+            }
+            List<User> users = new ArrayList<>(docIds.size());
+            for (int docId : docIds) {
+                users.add(usersByDocId.get(docId));
+            }
+            return users;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of users matching the query's filters, ignoring pagination.
+     */
+    public int count(UserQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query is required");
+        }
+        lock.readLock().lock();
+        try {
+            return QueryPlanner.execute(plan(query, null), liveDocs).cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Caller holds the read lock; a range on rangeServedBySort is left for page() to apply
+    private QueryPlanner.Execution plan(UserQuery query, UserSortField rangeServedBySort) {
+        List<PlannedFilter> filters = new ArrayList<>();
+        for (Map.Entry<UserField, String> filter : query.getFilters().entrySet()) {
+            filters.add(PlannedFilter.posting(filter.getKey() + "=" + filter.getValue(),
+                    keywordIndex.get(filter.getKey()).get(filter.getValue())));
+        }
+        for (String tag : query.getTags()) {
+            filters.add(PlannedFilter.posting("tag=" + tag, tagPostings.get(tag)));
+        }
+        for (Map.Entry<String, String> attribute : query.getCustomAttributes().entrySet()) {
+            filters.add(PlannedFilter.posting("attribute " + attribute.getKey() + "=" + attribute.getValue(),
+                    attributePostings.get(attributeKey(attribute.getKey(), attribute.getValue()))));
+        }
+        for (UserSortField field : RANGE_FIELDS) {
+            Object[] range = rangeOn(query, field);
+            if (range == null) {
+                continue;
+            }
+            RangeIndex rangeIndex = rangeIndexes.get(field);
+            String description = field.getFieldName() + " in [" + range[0] + ", " + range[1] + "]";
+            long rows = rangeIndex.estimateCount(range[0], range[1]);
+            if (field == rangeServedBySort) {
+                filters.add(PlannedFilter.sortBound(description, rows));
+            } else {
+                int ordinal = field.ordinal();
+                filters.add(PlannedFilter.range(description, rows, () -> rangeIndex.range(range[0], range[1]),
+                        docId -> inRange(keysByDocId.get(docId).sortKeys[ordinal], range)));
+            }
+        }
+        String text = UserField.normalize(query.getText());
+        if (text != null) {
+            // Without trigrams there is no estimate; assume everything matches
+            long textRows = liveDocs.cardinality();
+            PlannedFilter trigrams = null;
+            if (TrigramIndex.isIndexable(text)) {
+                RoaringBitmap[] trigramPostings = trigramIndex.postingsFor(text);
+                if (trigramPostings == null || trigramPostings.length > 0) {
+                    trigrams = PlannedFilter.trigrams("trigrams of '" + text + "'", trigramPostings);
+                    filters.add(trigrams);
+                    textRows = trigrams.estimatedRows;
+                }
+            }
+            // Trigrams do not record adjacency, so the text itself is always verified
+            filters.add(PlannedFilter.predicate("text contains '" + text + "'", textRows,
+                    QueryPlanner.TEXT_CHECK_COST, docId -> keysByDocId.get(docId).searchText.contains(text))
+                    .refining(trigrams));
+        }
+        return QueryPlanner.plan(filters, liveDocs.cardinality());
+    }
+
+    /**
+     * The query's [from, to] bounds on a range-filterable field, or null if it has none.
+     */
+    private static Object[] rangeOn(UserQuery query, UserSortField field) {
+        Object from = null;
+        Object to = null;
+        if (field == UserSortField.DATE_OF_BIRTH) {
+            from = query.getDateOfBirthFrom();
+            to = query.getDateOfBirthTo();
+        } else if (field == UserSortField.CREATED_AT) {
+            from = query.getCreatedFrom();
+            to = query.getCreatedTo();
+        }
+        return from != null || to != null ? new Object[] {from, to} : null;
+    }
+
+    /**
+     * Document IDs of one page of candidates in sort order, after the cursor if given.
+     *
+     * Walking the sort index visits about (offset + limit) * total / matches
+     * entries before the page is full; sorting the matches costs about
+     * matches * log2(matches). Take the cheaper of the two. If sortRange is
+     * set, only documents with a sort key inside it are returned. The choice
+     * is recorded on the plan if one is given.
+     */
+    private int[] page(RoaringBitmap candidates, UserSortField sortField, Object[] sortRange,
+                       boolean ascending, SearchCursor cursor, long offset, int limit, QueryPlan plan) {
+        int matches = candidates.cardinality();
+        if (matches == 0 || offset >= matches) {
+            if (plan != null) {
+                plan.recordPageStrategy("none (no matches at this offset)");
+            }
+            return new int[0];
+        }
+        double walkCost = (double) (offset + limit) * liveDocs.cardinality() / matches;
+        double sortCost = matches * (Math.log(matches) / Math.log(2) + 1);
+        boolean walk = walkCost <= sortCost;
+        if (plan != null) {
+            plan.recordPageStrategy(String.format("%s by %s %s (walk cost %.0f, sort cost %.0f)",
+                    walk ? "index walk" : "in-memory sort", sortField.getFieldName(),
+                    ascending ? "ASC" : "DESC", walkCost, sortCost));
+        }
+        if (walk) {
+            return walkPage(candidates::contains, sortField, sortRange, ascending, cursor, offset, limit);
+        }
+        return sortPage(candidates, sortField, sortRange, ascending, cursor, offset, limit);
+    }
+
+    /**
+     * Whether a continuation page is cheaper to read by resuming the sort
+     * index walk at the cursor and checking every filter per document than
+     * by executing the plan over the whole match set first.
+     *
+     * Resuming visits about limit * total / matches entries, each tested
+     * against all filters; executing costs the plan's estimate (range
+     * bitmaps, trigram intersections, text checks) however few rows the
+     * page needs. The choice is recorded on the plan if one is given; a
+     * resumed page never counts the matches, so the plan's actual rows
+     * stay unknown.
+     */
+    private boolean resumesCheaper(QueryPlanner.Execution execution, int limit, UserSortField sortField,
+                                   boolean ascending, QueryPlan plan) {
+        long total = liveDocs.cardinality();
+        double visits = Math.min(total, (double) limit * total / Math.max(1, execution.getPlan().getEstimatedRows()));
+        double resumeCost = visits * execution.getCheckCostPerRow();
+        boolean resume = resumeCost <= execution.getEstimatedCost();
+        if (plan != null && resume) {
+            plan.recordPageStrategy(String.format("resumed index walk by %s %s from cursor (resume cost %.0f, execute cost %.0f)",
+                    sortField.getFieldName(), ascending ? "ASC" : "DESC", resumeCost, execution.getEstimatedCost()));
+        }
+        return resume;
+    }
+
+    private int countInRange(RoaringBitmap candidates, UserSortField field, Object[] range) {
+        int ordinal = field.ordinal();
+        int[] count = new int[1];
+        candidates.forEach(docId -> {
+            if (inRange(keysByDocId.get(docId).sortKeys[ordinal], range)) {
+                count[0]++;
+            }
+        });
+        return count[0];
+    }
+
+    private int[] walkPage(IntPredicate matches, UserSortField sortField, Object[] sortRange,
+                           boolean ascending, SearchCursor cursor, long offset, int limit) {
+        int[] page = new int[limit];
+        int[] filled = new int[1];
+        long[] skipped = new long[1];
+        Object from = sortRange != null ? sortRange[0] : null;
+        Object to = sortRange != null ? sortRange[1] : null;
+        rangeIndexes.get(sortField).walk(ascending, from, to, sortRange == null, cursor, (key, docId) -> {
+            if (!matches.test(docId)) {
+                return true;
+            }
+            if (skipped[0] < offset) {
+                skipped[0]++;
+                return true;
+            }
+            page[filled[0]++] = docId;
+            return filled[0] < limit;
+        });
+        return Arrays.copyOf(page, filled[0]);
+    }
+
+    private int[] sortPage(RoaringBitmap candidates, UserSortField sortField, Object[] sortRange,
+                           boolean ascending, SearchCursor cursor, long offset, int limit) {
+        int ordinal = sortField.ordinal();
+        Integer[] selected = new Integer[candidates.cardinality()];
+        int[] count = new int[1];
+        candidates.forEach(docId -> {
+            Object key = keysByDocId.get(docId).sortKeys[ordinal];
+            if ((sortRange == null || inRange(key, sortRange))
+                    && (cursor == null || compareOrder(key, docId, cursor.getKey(), cursor.getDocId(), ascending) > 0)) {
+                selected[count[0]++] = docId;
+            }
+        });
+        Integer[] docIds = Arrays.copyOf(selected, count[0]);
+        Arrays.sort(docIds, (a, b) -> compareOrder(
+                keysByDocId.get(a).sortKeys[ordinal], a, keysByDocId.get(b).sortKeys[ordinal], b, ascending));
+
+        if (offset >= docIds.length) {
+            return new int[0];
+        }
+        int from = (int) offset;
+        int to = (int) Math.min(docIds.length, offset + limit);
+        int[] page = new int[to - from];
+        for (int i = from; i < to; i++) {
+            page[i - from] = docIds[i];
+        }
+        return page;
+    }
+
+    // Page order: key in the requested direction with nulls last, then ascending document ID
+    private static int compareOrder(Object keyA, int docIdA, Object keyB, int docIdB, boolean ascending) {
+        int byKey;
+        if (keyA == null || keyB == null) {
+            byKey = keyA == null ? (keyB == null ? 0 : 1) : -1;
+        } else {
+            byKey = ascending ? RangeIndex.KEY_ORDER.compare(keyA, keyB) : RangeIndex.KEY_ORDER.compare(keyB, keyA);
+        }
+        return byKey != 0 ? byKey : Integer.compare(docIdA, docIdB);
+    }
+
+    private static boolean inRange(Object key, Object[] range) {
+        return key != null
+                && (range[0] == null || RangeIndex.KEY_ORDER.compare(key, range[0]) >= 0)
+                && (range[1] == null || RangeIndex.KEY_ORDER.compare(key, range[1]) <= 0);
+    }
+
+    private void index(int docId, IndexedKeys keys) {
+        UserField[] fields = UserField.values();
+        for (int i = 0; i < fields.length; i++) {
+            if (keys.keywords[i] != null) {
+                keywordIndex.get(fields[i]).computeIfAbsent(keys.keywords[i], value -> new RoaringBitmap()).add(docId);
+            }
+        }
+        for (String tag : keys.tags) {
+            tagPostings.computeIfAbsent(tag, value -> new RoaringBitmap()).add(docId);
+        }
+        for (String attribute : keys.attributes) {
+            attributePostings.computeIfAbsent(attribute, value -> new RoaringBitmap()).add(docId);
+        }
+        for (UserSortField field : UserSortField.values()) {
+            rangeIndexes.get(field).add(keys.sortKeys[field.ordinal()], docId);
+        }
+        trigramIndex.add(keys.trigrams, docId);
+    }
+
+    private void unindex(int docId, IndexedKeys keys) {
+        UserField[] fields = UserField.values();
+        for (int i = 0; i < fields.length; i++) {
+            if (keys.keywords[i] != null) {
+                removePosting(keywordIndex.get(fields[i]), keys.keywords[i], docId);
+            }
+        }
+        for (String tag : keys.tags) {
+            removePosting(tagPostings, tag, docId);
+        }
+        for (String attribute : keys.attributes) {
+            removePosting(attributePostings, attribute, docId);
+        }
+        for (UserSortField field : UserSortField.values()) {
+            rangeIndexes.get(field).remove(keys.sortKeys[field.ordinal()], docId);
+        }
+        trigramIndex.remove(keys.trigrams, docId);
+    }
+
+    private static void removePosting(Map<String, RoaringBitmap> postings, String key, int docId) {
+        RoaringBitmap bitmap = postings.get(key);
+        if (bitmap != null) {
+            bitmap.remove(docId);
+            if (bitmap.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    // '\u0000' cannot appear in a sensible attribute key, so "a=b"="c" and "a"="b=c" stay distinct
+    private static String attributeKey(String key, String normalizedValue) {
+        return key + '\u0000' + normalizedValue;
+    }
+
+    /**
+     * Snapshot of the keys a user was indexed under
+     */
+    private static final class IndexedKeys {
+        private final String[] keywords;
+        private final Set<String> tags;
+        private final Set<String> attributes;
+        private final Object[] sortKeys;
+        private final String searchText;
+        private final long[] trigrams;
+
+        private IndexedKeys(String[] keywords, Set<String> tags, Set<String> attributes,
+                            Object[] sortKeys, String searchText) {
+            this.keywords = keywords;
+            this.tags = tags;
+            this.attributes = attributes;
+            this.sortKeys = sortKeys;
+            this.searchText = searchText;
+            this.trigrams = TrigramIndex.trigramsOf(searchText);
+        }
+
+        static IndexedKeys of(User user) {
+            UserField[] fields = UserField.values();
+            String[] keywords = new String[fields.length];
+            for (int i = 0; i < fields.length; i++) {
+                keywords[i] = fields[i].valueOf(user);
+            }
+
+            Set<String> tags = new LinkedHashSet<>();
+            if (user.getTags() != null) {
+                for (String tag : user.getTags()) {
+                    String normalized = UserField.normalize(tag);
+                    if (normalized != null) {
+                        tags.add(normalized);
+                    }
+                }
+            }
+
+            Set<String> attributes = new LinkedHashSet<>();
+            if (user.getCustomAttributes() != null) {
+                for (Map.Entry<String, String> entry : user.getCustomAttributes().entrySet()) {
+                    if (entry.getKey() != null) {
+                        attributes.add(attributeKey(entry.getKey(), UserField.normalize(entry.getValue())));
+                    }
+                }
+            }
+
+            // Free-text fields, lower-cased and separated so a match cannot span two fields
+            StringBuilder searchText = new StringBuilder();
+            for (String value : Arrays.asList(user.getUsername(), user.getEmail(), user.getFirstName(),
+                    user.getMiddleName(), user.getLastName(), user.getDisplayName(), user.getCompany())) {
+                if (value != null) {
+                    searchText.append(value.toLowerCase(Locale.ROOT)).append('\n');
+                }
+            }
+
+            UserSortField[] sortFields = UserSortField.values();
+            Object[] sortKeys = new Object[sortFields.length];
+            for (int i = 0; i < sortFields.length; i++) {
+                sortKeys[i] = sortFields[i].keyOf(user);
+            }
+
+            return new IndexedKeys(keywords, tags, attributes, sortKeys, searchText.toString());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            IndexedKeys that = (IndexedKeys) o;
+            return Arrays.equals(keywords, that.keywords) &&
+                   tags.equals(that.tags) &&
+                   attributes.equals(that.attributes) &&
+                   Arrays.equals(sortKeys, that.sortKeys) &&
+                   searchText.equals(that.searchText);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(Arrays.hashCode(keywords), tags, attributes, Arrays.hashCode(sortKeys), searchText);
+        }
+    }
+}
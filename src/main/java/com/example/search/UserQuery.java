@@ -0,0 +1,165 @@
+package com.example.search;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * UserQuery - the filters, sort and page of one UserIndex search
+ *
+ * Every filter is optional; a query with no filters matches all users.
+ * Keyword filters, tags and custom attributes are ANDed together.
+ */
+public class UserQuery {
+
+    public static final String DEFAULT_SORT_FIELD = "createdAt";
+    public static final String DEFAULT_SORT_DIRECTION = "DESC";
+    public static final int DEFAULT_PAGE_SIZE = 50;
+
+    private String text;
+    private final Map<UserField, String> filters = new EnumMap<>(UserField.class);
+    private LocalDate dateOfBirthFrom;
+    private LocalDate dateOfBirthTo;
+    private LocalDateTime createdFrom;
+    private LocalDateTime createdTo;
+    private final List<String> tags = new ArrayList<>();
+    private final Map<String, String> customAttributes = new LinkedHashMap<>();
+    private String sortField = DEFAULT_SORT_FIELD;
+    private String sortDirection = DEFAULT_SORT_DIRECTION;
+    private int pageSize = DEFAULT_PAGE_SIZE;
+    private int pageNumber = 1;
+    private String continuationToken;
+
+    public String getText() { return text; }
+    public void setText(String text) { this.text = text; }
+
+    /**
+     * Require the field to equal the value (case-insensitive). A null or
+     * blank value removes the filter.
+     */
+    public void setFilter(UserField field, String value) {
+        if (field == null) {
+            throw new IllegalArgumentException("Field is required");
+        }
+        String normalized = UserField.normalize(value);
+        if (normalized == null) {
+            filters.remove(field);
+        } else {
+            filters.put(field, normalized);
+        }
+    }
+
+    public void setFilter(UserField field, Boolean value) {
+        setFilter(field, value != null ? value.toString() : null);
+    }
+
+    public Map<UserField, String> getFilters() {
+        return Collections.unmodifiableMap(filters);
+    }
+
+    public LocalDate getDateOfBirthFrom() { return dateOfBirthFrom; }
+    public void setDateOfBirthFrom(LocalDate dateOfBirthFrom) { this.dateOfBirthFrom = dateOfBirthFrom; }
+
+    public LocalDate getDateOfBirthTo() { return dateOfBirthTo; }
+    public void setDateOfBirthTo(LocalDate dateOfBirthTo) { this.dateOfBirthTo = dateOfBirthTo; }
+
+    public LocalDateTime getCreatedFrom() { return createdFrom; }
+    public void setCreatedFrom(LocalDateTime createdFrom) { this.createdFrom = createdFrom; }
+
+    public LocalDateTime getCreatedTo() { return createdTo; }
+    public void setCreatedTo(LocalDateTime createdTo) { this.createdTo = createdTo; }
+
+    public List<String> getTags() { return Collections.unmodifiableList(tags); }
+    public void setTags(List<String> tags) {
+        this.tags.clear();
+        if (tags != null) {
+            for (String tag : tags) {
+                String normalized = UserField.normalize(tag);
+                if (normalized != null) {
+                    this.tags.add(normalized);
+                }
+            }
+        }
+    }
+
+    public Map<String, String> getCustomAttributes() { return Collections.unmodifiableMap(customAttributes); }
+    public void setCustomAttributes(Map<String, String> customAttributes) {
+        this.customAttributes.clear();
+        if (customAttributes != null) {
+            for (Map.Entry<String, String> entry : customAttributes.entrySet()) {
+                if (entry.getKey() != null) {
+                    this.customAttributes.put(entry.getKey(), UserField.normalize(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    public String getSortField() { return sortField; }
+    public void setSortField(String sortField) {
+        this.sortField = sortField != null && !sortField.trim().isEmpty() ? sortField : DEFAULT_SORT_FIELD;
+    }
+
+    public String getSortDirection() { return sortDirection; }
+    public void setSortDirection(String sortDirection) {
+        if (sortDirection == null || sortDirection.trim().isEmpty()) {
+            this.sortDirection = DEFAULT_SORT_DIRECTION;
+        } else if ("ASC".equals(sortDirection) || "DESC".equals(sortDirection)) {
+            this.sortDirection = sortDirection;
+        } else {
+            throw new IllegalArgumentException("Sort direction must be ASC or DESC");
+        }
+    }
+
+    public boolean isAscending() {
+        return "ASC".equals(sortDirection);
+    }
+
+    public int getPageSize() { return pageSize; }
+    public void setPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive");
+        }
+        this.pageSize = pageSize;
+    }
+
+    public int getPageNumber() { return pageNumber; }
+    public void setPageNumber(int pageNumber) {
+        if (pageNumber <= 0) {
+            throw new IllegalArgumentException("Page number must be positive");
+        }
+        this.pageNumber = pageNumber;
+    }
+
+    /**
+     * Token from a previous UserSearchPage; when set, pageNumber is ignored.
+     */
+    public String getContinuationToken() { return continuationToken; }
+    public void setContinuationToken(String continuationToken) {
+        this.continuationToken = continuationToken != null && !continuationToken.trim().isEmpty()
+                ? continuationToken : null;
+    }
+
+    @Override
+    public String toString() {
+        return "UserQuery{" +
+                "text='" + text + '\'' +
+                ", filters=" + filters +
+                ", dateOfBirthFrom=" + dateOfBirthFrom +
+                ", dateOfBirthTo=" + dateOfBirthTo +
+                ", createdFrom=" + createdFrom +
+                ", createdTo=" + createdTo +
+                ", tags=" + tags +
+                ", customAttributes=" + customAttributes +
+                ", sortField='" + sortField + '\'' +
+                ", sortDirection='" + sortDirection + '\'' +
+                ", pageSize=" + pageSize +
+                ", pageNumber=" + pageNumber +
+                ", continuationToken=" + (continuationToken != null) +
+                '}';
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.search;
+
+import com.example.model.User;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of UserIndex search results
+ *
+ * Pass getNextPageToken() back as the query's continuation token to fetch
+ * the following page; it is null once the last page has been returned.
+ */
+public class UserSearchPage {
+
+    private final List<User> users;
+    private final String nextPageToken;
+
+    public UserSearchPage(List<User> users, String nextPageToken) {
+        this.users = users != null ? Collections.unmodifiableList(users) : Collections.emptyList();
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<User> getUsers() {
+        return users;
+    }
+
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNextPage() {
+        return nextPageToken != null;
+    }
+
+    @Override
+    public String toString() {
+        return "UserSearchPage{" +
+                "users=" + users.size() +
+                ", hasNextPage=" + hasNextPage() +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.search;
+
+import com.example.model.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.function.Function;
+
+/**
+ * Fields searchUsers can sort on, by their request name ("createdAt", "lastName", ...).
+ *
+ * Users with no value for the field sort last in either direction, and ties
+ * are broken by index document ID (registration order).
+ */
+public enum UserSortField {
+
+    CREATED_AT("createdAt", LocalDateTime.class, User::getCreatedAt),
+    UPDATED_AT("updatedAt", LocalDateTime.class, User::getUpdatedAt),
+    DATE_OF_BIRTH("dateOfBirth", LocalDate.class, User::getDateOfBirth),
+    USERNAME("username", String.class, user -> UserField.normalize(user.getUsername())),
+    EMAIL("email", String.class, user -> UserField.normalize(user.getEmail())),
+    FIRST_NAME("firstName", String.class, user -> UserField.normalize(user.getFirstName())),
+    LAST_NAME("lastName", String.class, user -> UserField.normalize(user.getLastName())),
+    DISPLAY_NAME("displayName", String.class, user -> UserField.normalize(user.getDisplayName()));
+
+    private final String fieldName;
+    private final Class<?> keyType;
+    private final Function<User, ? extends Comparable<?>> extractor;
+
+    UserSortField(String fieldName, Class<?> keyType, Function<User, ? extends Comparable<?>> extractor) {
+        this.fieldName = fieldName;
+        this.keyType = keyType;
+        this.extractor = extractor;
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Sort key of the user for this field, or null if unset.
+     */
+    public Comparable<?> keyOf(User user) {
+        return extractor.apply(user);
+    }
+
+    /**
+     * Whether the value could be a key of this field (null always can).
+     */
+    public boolean acceptsKey(Object key) {
+        return key == null || keyType.isInstance(key);
+    }
+
+    public static UserSortField fromFieldName(String fieldName) {
+        for (UserSortField field : values()) {
+            if (field.fieldName.equals(fieldName)) {
+                return field;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported sort field: " + fieldName);
+    }
+}
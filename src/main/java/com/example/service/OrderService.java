@@ -4,13 +4,40 @@ import com.example.model.User;
 import com.example.model.Order;
 import com.example.model.OrderItem;
 import com.example.model.Address;
+import com.example.model.AddressPool;
+import com.example.model.Money;
+import com.example.inventory.InventoryLedger;
+import com.example.journal.JournalRecordType;
+import com.example.journal.OrderJournal;
+import com.example.promotion.DiscountType;
+import com.example.promotion.Promotion;
+import com.example.promotion.PromotionCombination;
+import com.example.promotion.PromotionRegistry;
+import com.example.repository.OrderRepository;
+import com.example.shipping.ShipmentBatch;
+import com.example.shipping.ShippingRateEngine;
+import com.example.shipping.ShippingRateTable;
+import com.example.validation.BatchValidationResult;
+import com.example.validation.ValidationCheck;
+import com.example.validation.ValidationPipeline;
+import com.example.validation.ValidationResult;
+import com.example.validation.ValidationSummary;
+import com.example.time.TimeSources;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Map;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
 
 /**
  * OrderService - demonstrating PARAMETER HELL in traditional Java
@@ -21,6 +48,105 @@ import java.util.HashMap;
  */
 public class OrderService {
     
+    private final OrderRepository orderRepository;
+    private final OrderJournal orderJournal; // null = no journaling
+    private final ShippingRateEngine shippingRateEngine; // null = ShippingRateEngine.getDefault()
+    private final PromotionRegistry promotionRegistry;
+    private final InventoryLedger inventoryLedger; // null = no stock tracking
+    // Every change to an existing order happens under its stripe; lookups take no lock
+    private final OrderLocks orderLocks = new OrderLocks();
+    // Orders reference shared addresses; changing one means setting a changed copy
+    private final AddressPool addressPool = new AddressPool();
+    
+    public OrderService() {
+        this(new OrderRepository());
+    }
+    
+    public OrderService(OrderRepository orderRepository) {
+        this(orderRepository, null);
+    }
+    
+    /**
+     * Journaled service - replays the journal into the repository before
+     * returning, so the service starts with the state it had before a restart.
+     */
+    public OrderService(OrderRepository orderRepository, OrderJournal orderJournal) {
+        this(orderRepository, orderJournal, null);
+    }
+    
+    /**
+     * Service quoting shipping from the given rate engine instead of the bundled rules.
+     */
+    public OrderService(OrderRepository orderRepository, OrderJournal orderJournal,
+                        ShippingRateEngine shippingRateEngine) {
+        this(orderRepository, orderJournal, shippingRateEngine, new PromotionRegistry());
+    }
+    
+    /**
+     * Service counting promotion code usage in the given registry, e.g. one
+     * shared by several services.
+     */
+    public OrderService(OrderRepository orderRepository, OrderJournal orderJournal,
+                        ShippingRateEngine shippingRateEngine, PromotionRegistry promotionRegistry) {
+        this(orderRepository, orderJournal, shippingRateEngine, promotionRegistry, null);
+    }
+    
+    /**
+     * Service reserving stock in the given ledger: reserveInventory() holds
+     * an order's items, payment commits them, a failed payment releases them,
+     * and inventory validation checks the ledger's available stock.
+     */
+    public OrderService(OrderRepository orderRepository, OrderJournal orderJournal,
+                        ShippingRateEngine shippingRateEngine, PromotionRegistry promotionRegistry,
+                        InventoryLedger inventoryLedger) {
+        if (orderRepository == null) {
+            throw new IllegalArgumentException("Order repository is required");
+        }
+        if (promotionRegistry == null) {
+            throw new IllegalArgumentException("Promotion registry is required");
+        }
+        this.orderRepository = orderRepository;
+        this.orderJournal = orderJournal;
+        this.shippingRateEngine = shippingRateEngine;
+        this.promotionRegistry = promotionRegistry;
+        this.inventoryLedger = inventoryLedger;
+        
+        if (orderJournal != null) {
+            try {
+                orderJournal.replay((type, order) -> {
+                    order.shareAddresses(addressPool);
+                    orderRepository.save(order);
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to replay order journal: " + orderJournal.getFile(), e);
+            }
+        }
+    }
+    
+    public OrderRepository getOrderRepository() {
+        return orderRepository;
+    }
+    
+    public AddressPool getAddressPool() {
+        return addressPool;
+    }
+    
+    public OrderJournal getOrderJournal() {
+        return orderJournal;
+    }
+    
+    public PromotionRegistry getPromotionRegistry() {
+        return promotionRegistry;
+    }
+    
+    public InventoryLedger getInventoryLedger() {
+        return inventoryLedger;
+    }
+    
+    public ShippingRateEngine getShippingRateEngine() {
+        return shippingRateEngine != null ? shippingRateEngine : ShippingRateEngine.getDefault();
+    }
+    
     /**
      * Create order method with 18 parameters - NIGHTMARE TO USE!
      * Many parameters are optional, some have defaults, some can be null
@@ -88,6 +214,14 @@ public class OrderService {
             giftWrapType = null;
         }
         
+        // Instructions go on a copy, so they reach neither the caller's address nor the billing one
+        if (deliveryInstructions != null && !deliveryInstructions.trim().isEmpty()) {
+            shippingAddress = shippingAddress.copy();
+            shippingAddress.setDeliveryInstructions(deliveryInstructions);
+        }
+        shippingAddress = addressPool.intern(shippingAddress);
+        billingAddress = addressPool.intern(billingAddress);
+        
         // Create order with massive constructor call
         Order order = new Order(
             null,                    // orderId - will be generated
@@ -95,7 +229,7 @@ public class OrderService {
             customerId,
             customerEmail,
             customerPhoneNumber,
-            LocalDateTime.now(),     // orderDate
+            TimeSources.now(),     // orderDate
             "PENDING",              // orderStatus
             priority,
             BigDecimal.ZERO,        // subtotalAmount - will be calculated
@@ -122,12 +256,7 @@ public class OrderService {
             createdBy
         );
         
-        // Set delivery instructions if provided
-        if (deliveryInstructions != null && !deliveryInstructions.trim().isEmpty()) {
-            order.getShippingAddress().setDeliveryInstructions(deliveryInstructions);
-        }
-        
-        return order;
+        return saveAndJournal(JournalRecordType.CREATE, order);
     }
     
     /**
@@ -167,89 +296,128 @@ public class OrderService {
             throw new IllegalArgumentException("Updated by is required");
         }
         
-        // Simulate finding the order (in real app, this would be from database)
-        Order order = findOrderById(orderId);
-        if (order == null) {
-            throw new IllegalArgumentException("Order not found: " + orderId);
-        }
-        
-        // Update only non-null values - error-prone logic scattered everywhere!
-        if (orderStatus != null) {
-            order.setOrderStatus(orderStatus);
-        }
-        if (priority != null) {
-            order.setPriority(priority);
-        }
-        if (paymentStatus != null) {
-            order.setPaymentStatus(paymentStatus);
-        }
-        if (shippingMethod != null) {
-            order.setShippingMethod(shippingMethod);
-        }
-        if (shippingCarrier != null) {
-            order.setShippingCarrier(shippingCarrier);
-        }
-        if (trackingNumber != null) {
-            order.setTrackingNumber(trackingNumber);
-        }
-        if (estimatedDeliveryDate != null) {
-            order.setEstimatedDeliveryDate(estimatedDeliveryDate);
-        }
-        if (actualDeliveryDate != null) {
-            order.setActualDeliveryDate(actualDeliveryDate);
-        }
-        if (shippingAmount != null) {
-            order.setShippingAmount(shippingAmount);
-        }
-        if (taxAmount != null) {
-            order.setTaxAmount(taxAmount);
-        }
-        if (discountAmount != null) {
-            order.setDiscountAmount(discountAmount);
-        }
-        if (promotionCode != null) {
-            order.setPromotionCode(promotionCode);
-        }
-        if (requiresSignature != null) {
-            order.setRequiresSignature(requiresSignature);
-        }
-        if (isGift != null) {
-            order.setGift(isGift);
-            if (!isGift) {
-                order.setGiftMessage(null);
-                order.setGiftWrapType(null);
+        ReentrantLock lock = orderLocks.lockFor(orderId);
+        lock.lock();
+        try {
+            // Simulate finding the order (in real app, this would be from database)
+            Order order = findOrderById(orderId);
+            if (order == null) {
+                throw new IllegalArgumentException("Order not found: " + orderId);
             }
+
+            // Update only non-null values, staged so the total, international status
+            // and updatedAt are recomputed once at commit instead of per setter
+            Order.Edit edit = order.edit();
+            if (orderStatus != null) {
+                edit.setOrderStatus(orderStatus);
+            }
+            if (priority != null) {
+                edit.setPriority(priority);
+            }
+            if (paymentStatus != null) {
+                edit.setPaymentStatus(paymentStatus);
+            }
+            if (shippingMethod != null) {
+                edit.setShippingMethod(shippingMethod);
+            }
+            if (shippingCarrier != null) {
+                edit.setShippingCarrier(shippingCarrier);
+            }
+            if (trackingNumber != null) {
+                edit.setTrackingNumber(trackingNumber);
+            }
+            if (estimatedDeliveryDate != null) {
+                edit.setEstimatedDeliveryDate(estimatedDeliveryDate);
+            }
+            if (actualDeliveryDate != null) {
+                edit.setActualDeliveryDate(actualDeliveryDate);
+            }
+            if (shippingAmount != null) {
+                edit.setShippingAmount(shippingAmount);
+            }
+            if (taxAmount != null) {
+                edit.setTaxAmount(taxAmount);
+            }
+            if (discountAmount != null) {
+                edit.setDiscountAmount(discountAmount);
+            }
+            if (promotionCode != null) {
+                edit.setPromotionCode(promotionCode);
+            }
+            if (requiresSignature != null) {
+                edit.setRequiresSignature(requiresSignature);
+            }
+            if (isGift != null) {
+                edit.setGift(isGift);
+            }
+            if (giftMessage != null && edit.isGift()) {
+                edit.setGiftMessage(giftMessage);
+            }
+            if (giftWrapType != null && edit.isGift()) {
+                edit.setGiftWrapType(giftWrapType);
+            }
+            // Delivery instructions are set on a copy of the new or current address
+            Address newShippingAddress = shippingAddress != null ? shippingAddress : order.getShippingAddress();
+            if (deliveryInstructions != null && newShippingAddress != null) {
+                newShippingAddress = newShippingAddress.copy();
+                newShippingAddress.setDeliveryInstructions(deliveryInstructions);
+            }
+            if (newShippingAddress != order.getShippingAddress()) {
+                edit.setShippingAddress(addressPool.intern(newShippingAddress));
+            }
+            if (billingAddress != null) {
+                edit.setBillingAddress(addressPool.intern(billingAddress));
+            }
+            if (orderNotes != null) {
+                edit.setOrderNotes(orderNotes);
+            }
+            if (tags != null) {
+                edit.setTags(tags);
+            }
+            edit.setUpdatedBy(updatedBy);
+            edit.commit();
+
+            return saveAndJournal(JournalRecordType.UPDATE, order);
+        } finally {
+            lock.unlock();
         }
-        if (giftMessage != null && order.isGift()) {
-            order.setGiftMessage(giftMessage);
-        }
-        if (giftWrapType != null && order.isGift()) {
-            order.setGiftWrapType(giftWrapType);
-        }
-        if (shippingAddress != null) {
-            order.setShippingAddress(shippingAddress);
-        }
-        if (billingAddress != null) {
-            order.setBillingAddress(billingAddress);
-        }
-        if (deliveryInstructions != null && order.getShippingAddress() != null) {
-            order.getShippingAddress().setDeliveryInstructions(deliveryInstructions);
+    }
+    
+    /**
+     * Change an order from any thread, e.g. fulfillment adding an item,
+     * serialized with every other change to the same order made through
+     * this service. Orders must not be changed directly while the service
+     * may be changing them too.
+     */
+    public Order editOrder(String orderId, Consumer<Order> edit, String updatedBy) {
+        if (orderId == null || orderId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Order ID is required");
         }
-        if (orderNotes != null) {
-            order.setOrderNotes(orderNotes);
+        if (edit == null) {
+            throw new IllegalArgumentException("Edit is required");
         }
-        if (tags != null) {
-            order.setTags(tags);
+        if (updatedBy == null || updatedBy.trim().isEmpty()) {
+            throw new IllegalArgumentException("Updated by is required");
         }
-        
-        order.setUpdatedBy(updatedBy);
-        order.setUpdatedAt(LocalDateTime.now());
-        
-        return order;
+        return orderLocks.withLock(orderId, () -> {
+            Order order = findOrderById(orderId);
+            if (order == null) {
+                throw new IllegalArgumentException("Order not found: " + orderId);
+            }
+            edit.accept(order);
+            order.setUpdatedBy(updatedBy);
+            order.setUpdatedAt(TimeSources.now());
+            return saveAndJournal(JournalRecordType.UPDATE, order);
+        });
     }
     
     /**
      * Process payment method with 16 parameters - PARAMETER NIGHTMARE!
+     *
+     * A declined payment gives the order's stock back but keeps its promotion
+     * uses reserved, so a retry can still redeem the discount. If the payment
+     * cannot be journaled the order is left as it was, reservations included,
+     * and the journal's exception is rethrown.
      */
     public boolean processPayment(
             String orderId,                  // Required
@@ -316,28 +484,73 @@ public class OrderService {
             }
         }
         
-        // Find order
-        Order order = findOrderById(orderId);
-        if (order == null) {
-            throw new IllegalArgumentException("Order not found: " + orderId);
-        }
-        
-        // Simulate payment processing logic
+        ReentrantLock lock = orderLocks.lockFor(orderId);
+        lock.lock();
         try {
-            // In real app, this would call payment gateway
-            String transactionId = "TXN_" + System.currentTimeMillis();
-            
+            // Find order
+            Order order = findOrderById(orderId);
+            if (order == null) {
+                throw new IllegalArgumentException("Order not found: " + orderId);
+            }
+
+            // Simulate payment processing logic
+            String transactionId;
+            try {
+                // In real app, this would call payment gateway
+                transactionId = "TXN_" + System.currentTimeMillis();
+
+                // A retry after a declined payment takes back the stock the decline released
+                if (inventoryLedger != null && "FAILED".equals(order.getPaymentStatus())
+                        && !inventoryLedger.hasReservation(orderId)) {
+                    inventoryLedger.reserve(order);
+                }
+                // Every applied code redeems a reserved use; one given back meanwhile is reserved again
+                for (String code : order.getAppliedDiscountCodes()) {
+                    if (promotionRegistry.getPromotion(code) != null) {
+                        promotionRegistry.reserve(code, orderId);
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // Declined: an item is short or a code has run out of uses.
+                // Unpaid stock goes back to the shelf before the decline is recorded; the order's
+                // promotion uses stay reserved, so a retried payment still redeems its discount
+                if (inventoryLedger != null) {
+                    inventoryLedger.release(orderId);
+                }
+                order.setPaymentStatus("FAILED");
+                order.setUpdatedBy(processedBy);
+                order.setUpdatedAt(TimeSources.now());
+                saveAndJournal(JournalRecordType.PAYMENT, order);
+                return false;
+            }
+
+            String previousTransactionId = order.getPaymentTransactionId();
+            String previousStatus = order.getPaymentStatus();
+            String previousUpdatedBy = order.getUpdatedBy();
+            LocalDateTime previousUpdatedAt = order.getUpdatedAt();
             order.setPaymentTransactionId(transactionId);
             order.setPaymentStatus("PAID");
             order.setUpdatedBy(processedBy);
-            order.setUpdatedAt(LocalDateTime.now());
-            
+            order.setUpdatedAt(TimeSources.now());
+            try {
+                saveAndJournal(JournalRecordType.PAYMENT, order);
+            } catch (RuntimeException e) {
+                // Not durable, so not paid: the order is left as it was, reservations included
+                order.setPaymentTransactionId(previousTransactionId);
+                order.setPaymentStatus(previousStatus);
+                order.setUpdatedBy(previousUpdatedBy);
+                order.setUpdatedAt(previousUpdatedAt);
+                throw e;
+            }
+
+            // The order's reserved promotion uses and stock are now final
+            promotionRegistry.commit(orderId);
+            if (inventoryLedger != null) {
+                inventoryLedger.commit(orderId);
+            }
             return true;
-        } catch (Exception e) {
-            order.setPaymentStatus("FAILED");
-            order.setUpdatedBy(processedBy);
-            order.setUpdatedAt(LocalDateTime.now());
-            return false;
+        } finally {
+            lock.unlock();
         }
     }
     
@@ -378,95 +591,50 @@ public class OrderService {
             throw new IllegalArgumentException("Calculated by is required");
         }
         
-        // Handle defaults for shipping carrier
-        if (shippingCarrier == null || shippingCarrier.trim().isEmpty()) {
-            switch (shippingMethod) {
-                case "STANDARD":
-                    shippingCarrier = "USPS";
-                    break;
-                case "EXPRESS":
-                    shippingCarrier = "FEDEX";
-                    break;
-                case "OVERNIGHT":
-                    shippingCarrier = "UPS";
-                    break;
-                default:
-                    shippingCarrier = "USPS";
-            }
-        }
-        
-        // Complex shipping calculation logic with scattered business rules
-        BigDecimal baseRate = BigDecimal.valueOf(9.99);
-        
-        // Weight-based calculation
-        if (totalWeight.compareTo(BigDecimal.valueOf(5)) > 0) {
-            BigDecimal additionalWeight = totalWeight.subtract(BigDecimal.valueOf(5));
-            baseRate = baseRate.add(additionalWeight.multiply(BigDecimal.valueOf(2.50)));
-        }
-        
-        // International surcharge
-        if (isInternational) {
-            baseRate = baseRate.add(BigDecimal.valueOf(15.00));
-        }
-        
-        // Signature required surcharge
-        if (requiresSignature) {
-            baseRate = baseRate.add(BigDecimal.valueOf(3.50));
-        }
-        
-        // Expedited shipping multiplier
-        if (isExpedited) {
-            baseRate = baseRate.multiply(BigDecimal.valueOf(2.5));
-        }
-        
-        // Shipping method multipliers - hardcoded business logic!
-        switch (shippingMethod) {
-            case "EXPRESS":
-                baseRate = baseRate.multiply(BigDecimal.valueOf(1.8));
-                break;
-            case "OVERNIGHT":
-                baseRate = baseRate.multiply(BigDecimal.valueOf(3.5));
-                break;
-            case "SAME_DAY":
-                baseRate = baseRate.multiply(BigDecimal.valueOf(5.0));
-                break;
+        // Rates, default carriers and restriction add-ons come from the compiled rate table
+        ShippingRateEngine engine = getShippingRateEngine();
+        ShippingRateTable rates = engine.getTable();
+        long weightMilli = Money.toMinor(totalWeight, ShippingRateTable.WEIGHT_SCALE, Money.DEFAULT_ROUNDING);
+        long rate = engine.quote(rates, shippingMethod, shippingCarrier, weightMilli,
+                isInternational, requiresSignature, isExpedited, restrictions);
+        return rates.toBigDecimal(rate);
+    }
+    
+    /**
+     * Price a whole batch of shipments in one call, e.g. a nightly
+     * re-pricing of every open order. The columns are validated in one pass
+     * and every row is quoted against the same rate table; set parallel to
+     * split large batches across cores.
+     *
+     * @return quotes in minor units of the rate table currency, index-aligned with the batch rows
+     */
+    public long[] calculateShippingBatch(ShipmentBatch shipments, boolean parallel, String calculatedBy) {
+        if (shipments == null) {
+            throw new IllegalArgumentException("Shipment batch is required");
         }
-        
-        // Carrier adjustments - more hardcoded logic!
-        switch (shippingCarrier) {
-            case "FEDEX":
-                baseRate = baseRate.multiply(BigDecimal.valueOf(1.1));
-                break;
-            case "UPS":
-                baseRate = baseRate.multiply(BigDecimal.valueOf(1.15));
-                break;
-            case "DHL":
-                baseRate = baseRate.multiply(BigDecimal.valueOf(1.25));
-                break;
+        if (calculatedBy == null || calculatedBy.trim().isEmpty()) {
+            throw new IllegalArgumentException("Calculated by is required");
         }
-        
-        // Handle restrictions - more complex logic
-        if (restrictions != null && !restrictions.isEmpty()) {
-            for (String restriction : restrictions) {
-                switch (restriction) {
-                    case "HAZARDOUS":
-                        baseRate = baseRate.add(BigDecimal.valueOf(25.00));
-                        break;
-                    case "FRAGILE":
-                        baseRate = baseRate.add(BigDecimal.valueOf(10.00));
-                        break;
-                    case "OVERSIZED":
-                        baseRate = baseRate.multiply(BigDecimal.valueOf(1.5));
-                        break;
-                }
+        for (int row = 0; row < shipments.size(); row++) {
+            String method = shipments.getMethod(row);
+            if (method == null || method.trim().isEmpty()) {
+                throw new IllegalArgumentException("Shipping method is required (row " + row + ")");
+            }
+            if (shipments.getWeightMilli(row) <= 0) {
+                throw new IllegalArgumentException("Total weight must be positive (row " + row + ")");
             }
         }
-        
-        return baseRate;
+        return getShippingRateEngine().quote(shipments, parallel);
     }
     
     /**
      * Apply discount method with 14 parameters - YET MORE PARAMETER HELL!
+     * 
+     * The code is registered with this usage limit the first time it is
+     * applied; later calls must pass the same limit.
+     * 
+     * @throws IllegalArgumentException if the code is registered with a different usage limit,
+     *                                  or is already applied to the order
      */
     public BigDecimal applyDiscount(
             String orderId,                  // Required
@@ -504,91 +672,241 @@ public class OrderService {
             throw new IllegalArgumentException("Applied by is required");
         }
         
-        Order order = findOrderById(orderId);
-        if (order == null) {
-            throw new IllegalArgumentException("Order not found: " + orderId);
-        }
+        // The lists are hashed once here; long-lived promotions should be defined once and passed directly
+        Promotion promotion = new Promotion(discountCode, DiscountType.parse(discountType), discountValue);
+        promotion.setMinimumOrderAmount(minimumOrderAmount);
+        promotion.setMaximumDiscount(maximumDiscount);
+        promotion.setEligibleProducts(eligibleProducts);
+        promotion.setExcludedProducts(excludedProducts);
+        promotion.setFirstTimeCustomersOnly(discountCode.startsWith("FIRST"));
+        promotion.setVipCustomersOnly(discountCode.startsWith("VIP"));
+        promotion.setExpirationDate(expirationDate);
+        promotion.setUsageLimit(Math.max(0, usageLimit));
         
-        // Discount validation - scattered business logic everywhere!
-        if (expirationDate != null && LocalDateTime.now().isAfter(expirationDate)) {
-            throw new IllegalArgumentException("Discount code has expired");
+        return applyDiscount(orderId, promotion, isFirstTimeCustomer, isVipCustomer, customerEmail, appliedBy);
+    }
+    
+    /**
+     * Apply a predefined promotion. Its product, category and brand rules
+     * are already hashed, so eligibility costs one pass over the order items.
+     * One use of the code is reserved for the order (registering the code on
+     * first use); it is committed when the order is paid and released if
+     * the payment fails. A code applies to an order once.
+     * 
+     * @throws IllegalArgumentException if the code is already applied to the order, its usage
+     *                                  limit is reached, or it is registered with a different limit
+     */
+    public BigDecimal applyDiscount(
+            String orderId,                  // Required
+            Promotion promotion,             // Required
+            boolean isFirstTimeCustomer,     // Required
+            boolean isVipCustomer,           // Required
+            String customerEmail,            // Required
+            String appliedBy                 // Required
+    ) {
+        if (orderId == null || orderId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Order ID is required");
         }
-        
-        if (minimumOrderAmount != null && order.getSubtotalAmount().compareTo(minimumOrderAmount) < 0) {
-            throw new IllegalArgumentException("Order does not meet minimum amount requirement");
+        if (promotion == null) {
+            throw new IllegalArgumentException("Promotion is required");
         }
-        
-        // Customer eligibility checks - more scattered logic!
-        if (discountCode.startsWith("FIRST") && !isFirstTimeCustomer) {
-            throw new IllegalArgumentException("Discount is only for first-time customers");
+        if (customerEmail == null || customerEmail.trim().isEmpty()) {
+            throw new IllegalArgumentException("Customer email is required");
         }
-        
-        if (discountCode.startsWith("VIP") && !isVipCustomer) {
-            throw new IllegalArgumentException("Discount is only for VIP customers");
+        if (appliedBy == null || appliedBy.trim().isEmpty()) {
+            throw new IllegalArgumentException("Applied by is required");
         }
         
-        // Product eligibility checks - nightmare nested loops!
-        if (eligibleProducts != null && !eligibleProducts.isEmpty()) {
-            boolean hasEligibleProduct = false;
-            for (OrderItem item : order.getOrderItems()) {
-                if (eligibleProducts.contains(item.getProductId())) {
-                    hasEligibleProduct = true;
-                    break;
-                }
+        ReentrantLock lock = orderLocks.lockFor(orderId);
+        lock.lock();
+        try {
+            Order order = findOrderById(orderId);
+            if (order == null) {
+                throw new IllegalArgumentException("Order not found: " + orderId);
             }
-            if (!hasEligibleProduct) {
-                throw new IllegalArgumentException("No eligible products in order");
+
+            if (order.getAppliedDiscountCodes().contains(promotion.getCode())) {
+                throw new IllegalArgumentException("Discount code already applied to order: " + promotion.getCode());
             }
-        }
-        
-        if (excludedProducts != null && !excludedProducts.isEmpty()) {
-            for (OrderItem item : order.getOrderItems()) {
-                if (excludedProducts.contains(item.getProductId())) {
-                    throw new IllegalArgumentException("Order contains excluded products");
-                }
+            String ineligibility = promotion.checkEligibility(order, isFirstTimeCustomer, isVipCustomer, TimeSources.now());
+            if (ineligibility != null) {
+                throw new IllegalArgumentException(ineligibility);
+            }
+            long discountAmount = promotion.calculateDiscountMinorUnits(order);
+
+            Promotion registered = promotionRegistry.registerIfAbsent(promotion);
+            if (registered.getUsageLimit() != promotion.getUsageLimit()) {
+                throw new IllegalArgumentException("Discount code " + promotion.getCode()
+                        + " is registered with usage limit " + registered.getUsageLimit());
             }
+            // Counted against the code's usage limit until the payment settles it
+            if (!promotionRegistry.reserve(promotion.getCode(), orderId)) {
+                throw new IllegalArgumentException("Discount code already applied to order: " + promotion.getCode());
+            }
+
+            // Apply the discount
+            addDiscount(order, discountAmount, Collections.singletonList(promotion.getCode()), appliedBy);
+
+            return Money.toBigDecimal(discountAmount, order.getCurrencyScale());
+        } finally {
+            lock.unlock();
         }
-        
-        // Calculate discount amount - complex logic scattered everywhere!
-        BigDecimal discountAmount = BigDecimal.ZERO;
-        
-        switch (discountType) {
-            case "PERCENTAGE":
-                discountAmount = order.getSubtotalAmount().multiply(discountValue.divide(BigDecimal.valueOf(100)));
-                if (maximumDiscount != null && discountAmount.compareTo(maximumDiscount) > 0) {
-                    discountAmount = maximumDiscount;
+    }
+    
+    /**
+     * The best combination of registered promotions the order qualifies
+     * for, found through the registry's reverse index. Codes without uses
+     * left, and codes already applied to the order, are not considered.
+     * Nothing is applied or reserved.
+     */
+    public PromotionCombination findBestPromotions(String orderId, boolean isFirstTimeCustomer,
+                                                   boolean isVipCustomer) {
+        if (orderId == null || orderId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Order ID is required");
+        }
+        Order order = findOrderById(orderId);
+        if (order == null) {
+            throw new IllegalArgumentException("Order not found: " + orderId);
+        }
+        List<String> applied = order.getAppliedDiscountCodes();
+        return promotionRegistry.getEngine().findBestCombination(order, isFirstTimeCustomer, isVipCustomer,
+                TimeSources.now(), promotion -> !applied.contains(promotion.getCode())
+                        && promotionRegistry.getRemainingUses(promotion.getCode()) > 0);
+    }
+    
+    /**
+     * Find and apply the best combination of registered promotions. Each
+     * code reserves one use; if one of them has run out meanwhile, the
+     * uses reserved here are given back and the order is left unchanged.
+     */
+    public PromotionCombination applyBestPromotions(
+            String orderId,                  // Required
+            boolean isFirstTimeCustomer,     // Required
+            boolean isVipCustomer,           // Required
+            String customerEmail,            // Required
+            String appliedBy                 // Required
+    ) {
+        if (customerEmail == null || customerEmail.trim().isEmpty()) {
+            throw new IllegalArgumentException("Customer email is required");
+        }
+        if (appliedBy == null || appliedBy.trim().isEmpty()) {
+            throw new IllegalArgumentException("Applied by is required");
+        }
+        ReentrantLock lock = orderLocks.lockFor(orderId);
+        lock.lock();
+        try {
+            PromotionCombination best = findBestPromotions(orderId, isFirstTimeCustomer, isVipCustomer);
+            if (best.isEmpty()) {
+                return best;
+            }
+
+            List<String> reservedHere = new ArrayList<>();
+            try {
+                for (Promotion promotion : best.getPromotions()) {
+                    if (!promotionRegistry.reserve(promotion.getCode(), orderId)) {
+                        throw new IllegalArgumentException("Discount code already applied to order: " + promotion.getCode());
+                    }
+                    reservedHere.add(promotion.getCode());
                 }
-                break;
-                
-            case "FIXED_AMOUNT":
-                discountAmount = discountValue;
-                if (discountAmount.compareTo(order.getSubtotalAmount()) > 0) {
-                    discountAmount = order.getSubtotalAmount();
+            } catch (IllegalArgumentException e) {
+                for (String code : reservedHere) {
+                    promotionRegistry.cancel(code, orderId);
                 }
-                break;
-                
-            case "FREE_SHIPPING":
-                discountAmount = order.getShippingAmount();
-                break;
-                
-            default:
-                throw new IllegalArgumentException("Invalid discount type: " + discountType);
+                throw e;
+            }
+
+            addDiscount(findOrderById(orderId), best.getDiscountMinorUnits(), reservedHere, appliedBy);
+            return best;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Hold stock for every item of the order, or for none.
+     *
+     * @throws IllegalArgumentException if an item is short
+     * @throws IllegalStateException if the service has no inventory ledger or the order already holds stock
+     */
+    public void reserveInventory(String orderId) {
+        if (inventoryLedger == null) {
+            throw new IllegalStateException("Inventory is not tracked by this service");
+        }
+        if (orderId == null || orderId.trim().isEmpty()) {
+            throw new IllegalArgumentException("Order ID is required");
+        }
+        ReentrantLock lock = orderLocks.lockFor(orderId);
+        lock.lock();
+        try {
+            Order order = findOrderById(orderId);
+            if (order == null) {
+                throw new IllegalArgumentException("Order not found: " + orderId);
+            }
+            inventoryLedger.reserve(order);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Give the stock held for an order back, e.g. when it is abandoned.
+     *
+     * @return false if the order held none
+     */
+    public boolean releaseInventory(String orderId) {
+        return inventoryLedger != null && inventoryLedger.release(orderId);
+    }
+    
+    /**
+     * Give the promotion uses reserved for an order back, e.g. when it is
+     * abandoned. The order keeps its discount; paying it later reserves the
+     * codes again, and fails if one has run out of uses meanwhile.
+     *
+     * @return the number of codes released
+     */
+    public int releasePromotions(String orderId) {
+        return promotionRegistry.release(orderId);
+    }
+    
+    // Add a discount and its reserved codes to the order and journal it. If journaling fails the
+    // order is put back as it was and the codes' reservations are cancelled before rethrowing.
+    private void addDiscount(Order order, long discountMinor, List<String> codes, String appliedBy) {
+        long previousDiscount = order.getDiscountMinorUnits();
+        List<String> previousCodes = new ArrayList<>(order.getAppliedDiscountCodes());
+        String previousUpdatedBy = order.getUpdatedBy();
+        LocalDateTime previousUpdatedAt = order.getUpdatedAt();
+        order.setDiscountMinorUnits(previousDiscount + discountMinor);
+        for (String code : codes) {
+            order.applyDiscountCode(code);
         }
-        
-        // Apply the discount
-        order.setDiscountAmount(order.getDiscountAmount().add(discountAmount));
-        order.applyDiscountCode(discountCode);
         order.setUpdatedBy(appliedBy);
-        order.setUpdatedAt(LocalDateTime.now());
-        
-        return discountAmount;
+        order.setUpdatedAt(TimeSources.now());
+        try {
+            saveAndJournal(JournalRecordType.DISCOUNT, order);
+        } catch (RuntimeException e) {
+            order.setDiscountMinorUnits(previousDiscount);
+            order.setAppliedDiscountCodes(previousCodes);
+            order.setUpdatedBy(previousUpdatedBy);
+            order.setUpdatedAt(previousUpdatedAt);
+            for (String code : codes) {
+                promotionRegistry.cancel(code, order.getOrderId());
+            }
+            throw e;
+        }
+    }
+    
+    // Helper method - index the order and queue its journal record (group commit, no fsync wait)
+    private Order saveAndJournal(JournalRecordType type, Order order) {
+        orderRepository.save(order);
+        if (orderJournal != null) {
+            orderJournal.append(type, order);
+        }
+        return order;
     }
     
-    // Helper method - simulating database lookup
+    // Helper method - primary index lookup, null if the order is unknown
     private Order findOrderById(String orderId) {
-        // In real app, this would query the database
-        // For demo, just return a sample order
-        return new Order("customer123", "customer@example.com");
+        return orderRepository.findById(orderId);
     }
     
     // More helper methods with their own parameter nightmares...
@@ -616,83 +934,76 @@ public class OrderService {
             throw new IllegalArgumentException("Validated by is required");
         }
         
-        // Complex validation logic with scattered business rules
-        List<String> validationErrors = new ArrayList<>();
-        
-        if (skipValidations == null) {
-            skipValidations = new ArrayList<>();
+        // The flags and skip list pick one of the precompiled pipelines
+        EnumSet<ValidationCheck> checks = EnumSet.of(ValidationCheck.BASIC);
+        if (validatePayment) {
+            checks.add(ValidationCheck.PAYMENT);
         }
-        
-        // Order basic validation
-        if (!skipValidations.contains("BASIC")) {
-            if (order.getCustomerId() == null || order.getCustomerId().trim().isEmpty()) {
-                validationErrors.add("Customer ID is required");
-            }
-            if (order.getOrderItems() == null || order.getOrderItems().isEmpty()) {
-                validationErrors.add("Order must have at least one item");
-            }
+        if (validateShipping) {
+            checks.add(ValidationCheck.SHIPPING);
         }
-        
-        // Payment validation
-        if (validatePayment && !skipValidations.contains("PAYMENT")) {
-            if (order.getPaymentMethod() == null || order.getPaymentMethod().trim().isEmpty()) {
-                validationErrors.add("Payment method is required");
-            }
-            if ("PAID".equals(order.getPaymentStatus()) && 
-                (order.getPaymentTransactionId() == null || order.getPaymentTransactionId().trim().isEmpty())) {
-                validationErrors.add("Payment transaction ID is required for paid orders");
-            }
+        if (validateInventory) {
+            checks.add(ValidationCheck.INVENTORY);
         }
-        
-        // Shipping validation
-        if (validateShipping && !skipValidations.contains("SHIPPING")) {
-            if (order.getShippingAddress() == null) {
-                validationErrors.add("Shipping address is required");
-            } else if (!order.getShippingAddress().isComplete()) {
-                validationErrors.add("Shipping address is incomplete");
-            }
+        if (validatePromotion) {
+            checks.add(ValidationCheck.PROMOTION);
         }
-        
-        // Inventory validation - would require external service calls
-        if (validateInventory && !skipValidations.contains("INVENTORY")) {
-            for (OrderItem item : order.getOrderItems()) {
-                // Simulate inventory check
-                if (item.getQuantity() > 100) { // Arbitrary limit for demo
-                    validationErrors.add("Insufficient inventory for product: " + item.getProductName());
+        if (strictValidation) {
+            checks.add(ValidationCheck.STRICT);
+        }
+        if (skipValidations != null) {
+            for (String skipped : skipValidations) {
+                for (ValidationCheck check : ValidationCheck.values()) {
+                    // STRICT was never skippable by name
+                    if (check != ValidationCheck.STRICT && check.name().equals(skipped)) {
+                        checks.remove(check);
+                    }
                 }
             }
         }
         
-        // Promotion validation
-        if (validatePromotion && !skipValidations.contains("PROMOTION") && 
-            order.getPromotionCode() != null && !order.getPromotionCode().trim().isEmpty()) {
-            // Simulate promotion validation
-            if (order.getPromotionCode().startsWith("EXPIRED")) {
-                validationErrors.add("Promotion code has expired");
-            }
+        ValidationPipeline pipeline = ValidationPipeline.of(checks, ValidationPipeline.Mode.COLLECT_ALL);
+        if (inventoryLedger != null) {
+            pipeline = pipeline.withInventory(inventoryLedger);
         }
-        
-        // Strict validation adds more checks
-        if (strictValidation) {
-            if (order.getTotalAmount().compareTo(BigDecimal.valueOf(10000)) > 0 && 
-                !"VIP".equals(order.getPriority())) {
-                validationErrors.add("High-value orders require VIP priority");
-            }
+        return validateOrder(order, pipeline).isValid();
+    }
+    
+    /**
+     * Validate an order against a compiled pipeline. Nothing is printed;
+     * the result says which rules failed and renders their messages on demand.
+     */
+    public ValidationResult validateOrder(Order order, ValidationPipeline pipeline) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order is required");
         }
-        
-        // Return validation result
-        boolean isValid = validationErrors.isEmpty();
-        
-        // Log validation result (in real app, this would go to logging system)
-        System.out.println("Order validation " + (isValid ? "PASSED" : "FAILED") + 
-                          " for order: " + order.getOrderId() + 
-                          " by: " + validatedBy +
-                          (validationContext != null ? " in context: " + validationContext : ""));
-        
-        if (!isValid) {
-            System.out.println("Validation errors: " + validationErrors);
+        if (pipeline == null) {
+            throw new IllegalArgumentException("Validation pipeline is required");
         }
-        
-        return isValid;
+        return pipeline.validate(order);
+    }
+    
+    /**
+     * Validate a list of orders, e.g. an import file, into one failure mask
+     * per order plus aggregate counts, in parallel if asked to.
+     */
+    public BatchValidationResult validateOrders(List<Order> orders, ValidationPipeline pipeline, boolean parallel) {
+        if (pipeline == null) {
+            throw new IllegalArgumentException("Validation pipeline is required");
+        }
+        return pipeline.validateAll(orders, parallel);
+    }
+    
+    /**
+     * Validate a stream of orders of any length, e.g. a marketplace feed,
+     * with bounded memory: only counts are kept, and each failed order is
+     * handed to onFailure (optional) with its failure mask.
+     */
+    public ValidationSummary validateOrders(Stream<Order> orders, ValidationPipeline pipeline, boolean parallel,
+                                            ObjIntConsumer<Order> onFailure) {
+        if (pipeline == null) {
+            throw new IllegalArgumentException("Validation pipeline is required");
+        }
+        return pipeline.validateAll(orders, parallel, onFailure);
     }
 }
\ No newline at end of file
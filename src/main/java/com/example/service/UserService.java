@@ -2,6 +2,12 @@ package com.example.service;
 
 import com.example.model.User;
 import com.example.model.Address;
+import com.example.search.QueryPlan;
+import com.example.search.UserField;
+import com.example.search.UserIndex;
+import com.example.search.UserQuery;
+import com.example.search.UserSearchPage;
+import com.example.time.TimeSources;
 
 import java.time.LocalDateTime;
 import java.time.LocalDate;
@@ -18,6 +24,23 @@ import java.util.HashMap;
  */
 public class UserService {
     
+    private final UserIndex userIndex;
+    
+    public UserService() {
+        this(new UserIndex());
+    }
+    
+    public UserService(UserIndex userIndex) {
+        if (userIndex == null) {
+            throw new IllegalArgumentException("User index is required");
+        }
+        this.userIndex = userIndex;
+    }
+    
+    public UserIndex getUserIndex() {
+        return userIndex;
+    }
+    
     /**
      * Register user method with 22 parameters - ABSOLUTE NIGHTMARE!
      * Mix of required and optional parameters with complex default handling
@@ -103,7 +126,7 @@ public class UserService {
         
         // Add registration metadata
         customAttributes.put("registrationSource", registrationSource != null ? registrationSource : "WEB");
-        customAttributes.put("registrationTimestamp", LocalDateTime.now().toString());
+        customAttributes.put("registrationTimestamp", TimeSources.now().toString());
         
         // Hash password (simplified for demo)
         String passwordHash = "HASHED_" + password.hashCode();
@@ -148,10 +171,11 @@ public class UserService {
         // Handle referral logic - more scattered business rules
         if (referralCode != null && !referralCode.trim().isEmpty()) {
             // In real app, this would validate referral and give rewards
-            user.getCustomAttributes().put("referralCode", referralCode);
-            user.getTags().add("REFERRED_USER");
+            user.putCustomAttribute("referralCode", referralCode);
+            user.addTag("REFERRED_USER");
         }
         
+        userIndex.index(user);
         return user;
     }
     
@@ -249,7 +273,7 @@ public class UserService {
         
         if (dateOfBirth != null) {
             // Validate age (must be at least 13)
-            if (dateOfBirth.isAfter(LocalDate.now().minusYears(13))) {
+            if (dateOfBirth.isAfter(TimeSources.now().toLocalDate().minusYears(13))) {
                 throw new IllegalArgumentException("User must be at least 13 years old");
             }
             user.setDateOfBirth(dateOfBirth);
@@ -308,12 +332,9 @@ public class UserService {
         
         if (customAttributes != null) {
             // Merge with existing attributes
-            Map<String, String> existing = user.getCustomAttributes();
-            if (existing == null) {
-                existing = new HashMap<>();
-            }
-            existing.putAll(customAttributes);
-            user.setCustomAttributes(existing);
+            Map<String, String> merged = new HashMap<>(user.getCustomAttributes());
+            merged.putAll(customAttributes);
+            user.setCustomAttributes(merged);
         }
         
         if (interests != null) {
@@ -345,7 +366,8 @@ public class UserService {
         }
         
         user.setUpdatedBy(updatedBy);
-        user.setUpdatedAt(LocalDateTime.now());
+        user.setUpdatedAt(TimeSources.now());
+        userIndex.update(user);
         
         return user;
     }
@@ -416,18 +438,18 @@ public class UserService {
         String newPasswordHash = "HASHED_" + newPassword.hashCode();
         user.setPasswordHash(newPasswordHash);
         user.setUpdatedBy(changedBy);
-        user.setUpdatedAt(LocalDateTime.now());
+        user.setUpdatedAt(TimeSources.now());
         
         // Add to custom attributes for audit trail
-        user.getCustomAttributes().put("lastPasswordChange", LocalDateTime.now().toString());
+        user.putCustomAttribute("lastPasswordChange", TimeSources.now().toString());
         if (changeReason != null) {
-            user.getCustomAttributes().put("passwordChangeReason", changeReason);
+            user.putCustomAttribute("passwordChangeReason", changeReason);
         }
         
         // Business logic for post-password change
         if (forceLogout) {
             // In real app, would invalidate all sessions
-            user.getCustomAttributes().put("forceLogoutAfterPasswordChange", "true");
+            user.putCustomAttribute("forceLogoutAfterPasswordChange", "true");
         }
         
         if (sendNotification) {
@@ -483,20 +505,20 @@ public class UserService {
         }
         
         if (twoFactorMethod != null) {
-            user.getCustomAttributes().put("twoFactorMethod", twoFactorMethod);
+            user.putCustomAttribute("twoFactorMethod", twoFactorMethod);
         }
         
         if (emailVerified != null) {
             user.setEmailVerified(emailVerified);
             if (emailVerified) {
-                user.getCustomAttributes().put("emailVerifiedAt", LocalDateTime.now().toString());
+                user.putCustomAttribute("emailVerifiedAt", TimeSources.now().toString());
             }
         }
         
         if (phoneVerified != null) {
             user.setPhoneVerified(phoneVerified);
             if (phoneVerified) {
-                user.getCustomAttributes().put("phoneVerifiedAt", LocalDateTime.now().toString());
+                user.putCustomAttribute("phoneVerifiedAt", TimeSources.now().toString());
             }
         }
         
@@ -533,25 +555,29 @@ public class UserService {
         }
         
         if (trustedDevices != null) {
-            user.getCustomAttributes().put("trustedDevices", String.join(",", trustedDevices));
+            user.putCustomAttribute("trustedDevices", String.join(",", trustedDevices));
         }
         
         if (securityFlags != null) {
             for (Map.Entry<String, String> flag : securityFlags.entrySet()) {
-                user.getCustomAttributes().put("security_" + flag.getKey(), flag.getValue());
+                user.putCustomAttribute("security_" + flag.getKey(), flag.getValue());
             }
         }
         
         user.setUpdatedBy(updatedBy);
-        user.setUpdatedAt(LocalDateTime.now());
+        user.setUpdatedAt(TimeSources.now());
+        userIndex.update(user);
         
         return user;
     }
     
     // Helper method - simulating database lookup
     private User findUserById(String userId) {
-        // In real app, this would query the database
-        // For demo, just return a sample user
+        User user = userIndex.findById(userId);
+        if (user != null) {
+            return user;
+        }
+        // Unknown IDs still get a sample user so the demos keep working
         return new User("johndoe", "john@example.com", "John", "Doe");
     }
     
@@ -680,8 +706,70 @@ public class UserService {
         System.out.println("Sort: " + sortField + " " + sortDirection);
         System.out.println("Pagination: Page " + pageNumber + ", Size " + pageSize);
         
-        // In real app, this would execute complex database query
-        // For demo, return empty list
-        return new ArrayList<>();
+        UserQuery userQuery = new UserQuery();
+        userQuery.setText(query);
+        userQuery.setFilter(UserField.EMAIL, email);
+        userQuery.setFilter(UserField.FIRST_NAME, firstName);
+        userQuery.setFilter(UserField.LAST_NAME, lastName);
+        userQuery.setFilter(UserField.USER_TYPE, userType);
+        userQuery.setFilter(UserField.STATUS, status);
+        userQuery.setFilter(UserField.EMAIL_VERIFIED, emailVerified);
+        userQuery.setFilter(UserField.PHONE_VERIFIED, phoneVerified);
+        userQuery.setFilter(UserField.TWO_FACTOR_ENABLED, twoFactorEnabled);
+        userQuery.setFilter(UserField.MARKETING_OPT_IN, marketingOptIn);
+        userQuery.setFilter(UserField.PREFERRED_LANGUAGE, preferredLanguage);
+        userQuery.setFilter(UserField.TIME_ZONE, timeZone);
+        userQuery.setFilter(UserField.NATIONALITY, nationality);
+        userQuery.setDateOfBirthFrom(dateOfBirthFrom);
+        userQuery.setDateOfBirthTo(dateOfBirthTo);
+        userQuery.setCreatedFrom(createdFrom);
+        userQuery.setCreatedTo(createdTo);
+        userQuery.setTags(tags);
+        userQuery.setCustomAttributes(customAttributes);
+        userQuery.setSortField(sortField);
+        userQuery.setSortDirection(sortDirection);
+        userQuery.setPageSize(pageSize);
+        userQuery.setPageNumber(pageNumber);
+        
+        return userIndex.search(userQuery);
+    }
+    
+    /**
+     * Username / email prefix lookup for search-as-you-type boxes.
+     */
+    public List<User> autocompleteUsers(String prefix, int limit) {
+        if (limit <= 0 || limit > 100) {
+            throw new IllegalArgumentException("Limit must be between 1 and 100");
+        }
+        return userIndex.autocomplete(prefix, limit);
+    }
+    
+    /**
+     * Search with a prepared query, returning one page and a continuation
+     * token. Feed getNextPageToken() back via setContinuationToken() to
+     * stream every page; each page costs the same however deep it is.
+     */
+    public UserSearchPage searchUsers(UserQuery query, String searchedBy) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query is required");
+        }
+        if (searchedBy == null || searchedBy.trim().isEmpty()) {
+            throw new IllegalArgumentException("Searched by is required");
+        }
+        if (query.getPageSize() > 1000) {
+            throw new IllegalArgumentException("Page size cannot exceed 1000");
+        }
+        return userIndex.searchPage(query);
+    }
+    
+    /**
+     * Run a prepared query and return the plan it was executed with, for
+     * finding out why a search is slow.
+     */
+    public QueryPlan explainUserSearch(UserQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query is required");
+        }
+        return userIndex.explain(query);
     }
-}
\ No newline at end of file
+}
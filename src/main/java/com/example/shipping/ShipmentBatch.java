@@ -0,0 +1,111 @@
+package com.example.shipping;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * ShipmentBatch - N shipments to quote at once, stored column by column
+ *
+ * One array per attribute instead of one object per shipment, so a
+ * re-pricing job can fill the columns straight from its source and the
+ * quote loop streams through primitive arrays. Either build it row by row
+ * with add(), or wrap existing columns with of() (the arrays are used as
+ * is, not copied).
+ */
+public final class ShipmentBatch {
+
+    public static final byte INTERNATIONAL = 1;
+    public static final byte REQUIRES_SIGNATURE = 1 << 1;
+    public static final byte EXPEDITED = 1 << 2;
+
+    private String[] methods;
+    private String[] carriers;
+    private long[] weightMilli;
+    private byte[] flags;
+    private String[][] restrictions;
+    private int size;
+
+    public ShipmentBatch(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("Capacity must not be negative");
+        }
+        this.methods = new String[initialCapacity];
+        this.carriers = new String[initialCapacity];
+        this.weightMilli = new long[initialCapacity];
+        this.flags = new byte[initialCapacity];
+        this.restrictions = new String[initialCapacity][];
+    }
+
+    private ShipmentBatch(String[] methods, String[] carriers, long[] weightMilli, byte[] flags,
+                          String[][] restrictions) {
+        this.methods = methods;
+        this.carriers = carriers;
+        this.weightMilli = weightMilli;
+        this.flags = flags;
+        this.restrictions = restrictions;
+        this.size = methods.length;
+    }
+
+    /**
+     * Wrap existing columns, all of the same length. carriers and
+     * restrictions may be null (default carrier, no restrictions), as may
+     * any of their entries.
+     *
+     * @param weightMilli weight of each shipment in thousandths of a unit
+     * @param flags       INTERNATIONAL | REQUIRES_SIGNATURE | EXPEDITED per shipment
+     */
+    public static ShipmentBatch of(String[] methods, String[] carriers, long[] weightMilli, byte[] flags,
+                                   String[][] restrictions) {
+        if (methods == null || weightMilli == null || flags == null) {
+            throw new IllegalArgumentException("Methods, weights and flags are required");
+        }
+        int n = methods.length;
+        if (weightMilli.length != n || flags.length != n
+                || (carriers != null && carriers.length != n)
+                || (restrictions != null && restrictions.length != n)) {
+            throw new IllegalArgumentException("All columns must have the same length");
+        }
+        return new ShipmentBatch(methods, carriers != null ? carriers : new String[n], weightMilli, flags,
+                restrictions != null ? restrictions : new String[n][]);
+    }
+
+    /**
+     * Append one shipment.
+     *
+     * @return its row index, which is also its index in the quote array
+     */
+    public int add(String method, String carrier, long weightMilli, boolean international,
+                   boolean requiresSignature, boolean expedited, List<String> restrictions) {
+        if (size == methods.length) {
+            int capacity = Math.max(16, size + (size >> 1));
+            methods = Arrays.copyOf(methods, capacity);
+            carriers = Arrays.copyOf(carriers, capacity);
+            this.weightMilli = Arrays.copyOf(this.weightMilli, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            this.restrictions = Arrays.copyOf(this.restrictions, capacity);
+        }
+        methods[size] = method;
+        carriers[size] = carrier;
+        this.weightMilli[size] = weightMilli;
+        flags[size] = flagsOf(international, requiresSignature, expedited);
+        this.restrictions[size] = restrictions != null && !restrictions.isEmpty()
+                ? restrictions.toArray(new String[0]) : null;
+        return size++;
+    }
+
+    public static byte flagsOf(boolean international, boolean requiresSignature, boolean expedited) {
+        return (byte) ((international ? INTERNATIONAL : 0)
+                | (requiresSignature ? REQUIRES_SIGNATURE : 0)
+                | (expedited ? EXPEDITED : 0));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getMethod(int row) { return methods[row]; }
+    public String getCarrier(int row) { return carriers[row]; }
+    public long getWeightMilli(int row) { return weightMilli[row]; }
+    public byte getFlags(int row) { return flags[row]; }
+    String[] getRestrictions(int row) { return restrictions[row]; }
+}
@@ -0,0 +1,246 @@
+package com.example.shipping;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * ShippingRateEngine - the current ShippingRateTable plus where it came from
+ *
+ * Quotes always read one volatile reference to an immutable table, so a
+ * reload swaps the rules atomically: a quote in flight finishes on the old
+ * table, the next one sees the new table, and nothing is ever locked.
+ * A rules file that fails to compile is rejected and the old table stays.
+ * Listeners are told about every successful reload (e.g. to re-price
+ * open orders).
+ */
+public class ShippingRateEngine {
+
+    public static final String DEFAULT_RULES_RESOURCE = "/shipping-rates.properties";
+    public static final int PARALLEL_CHUNK_SIZE = 16_384;
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final Path rulesFile;        // null = classpath resource or programmatic rules
+    private final String rulesResource;  // null = file or programmatic rules
+    private final List<Consumer<ShippingRateTable>> reloadListeners = new CopyOnWriteArrayList<>();
+    private volatile ShippingRateTable table;
+    private FileTime loadedModifiedTime;
+
+    private ShippingRateEngine(Path rulesFile, String rulesResource) {
+        this.rulesFile = rulesFile;
+        this.rulesResource = rulesResource;
+    }
+
+    /**
+     * Engine over a rules file on disk; reload() and reloadIfModified() re-read it.
+     */
+    public static ShippingRateEngine fromFile(Path rulesFile) throws IOException {
+        if (rulesFile == null) {
+            throw new IllegalArgumentException("Rules file is required");
+        }
+        ShippingRateEngine engine = new ShippingRateEngine(rulesFile, null);
+        engine.reload();
+        return engine;
+    }
+
+    /**
+     * Engine over a classpath resource, e.g. DEFAULT_RULES_RESOURCE.
+     */
+    public static ShippingRateEngine fromClasspath(String resource) {
+        if (resource == null || resource.trim().isEmpty()) {
+            throw new IllegalArgumentException("Rules resource is required");
+        }
+        ShippingRateEngine engine = new ShippingRateEngine(null, resource);
+        try {
+            engine.reload();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load shipping rules: " + resource, e);
+        }
+        return engine;
+    }
+
+    /**
+     * Engine over rules built in code; only update() changes them.
+     */
+    public static ShippingRateEngine fromRules(Properties rules) {
+        ShippingRateEngine engine = new ShippingRateEngine(null, null);
+        engine.update(rules);
+        return engine;
+    }
+
+    /**
+     * Shared engine over the bundled rules, loaded on first use.
+     */
+    public static ShippingRateEngine getDefault() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    public ShippingRateTable getTable() {
+        return table;
+    }
+
+    /**
+     * Shipping cost in minor units of the current table's currency.
+     */
+    public long quote(String method, String carrier, long weightMilli, boolean international,
+                      boolean requiresSignature, boolean expedited, List<String> restrictions) {
+        return quote(table, method, carrier, weightMilli, international, requiresSignature, expedited, restrictions);
+    }
+
+    /**
+     * Shipping cost against a table the caller already holds (from
+     * getTable()), so the amount and its currency scale come from the same
+     * rules even if they are reloaded in between.
+     */
+    public long quote(ShippingRateTable rates, String method, String carrier, long weightMilli,
+                      boolean international, boolean requiresSignature, boolean expedited,
+                      List<String> restrictions) {
+        return rates.quote(rates.methodId(method), rates.carrierId(carrier), weightMilli,
+                international, requiresSignature, expedited, rates.restrictionMask(restrictions));
+    }
+
+    /**
+     * Quote every shipment of the batch, in minor units of the table
+     * currency, index-aligned with the batch rows.
+     */
+    public long[] quote(ShipmentBatch batch) {
+        return quote(batch, false);
+    }
+
+    /**
+     * Quote every shipment of the batch. The whole batch is priced against
+     * the same table even if the rules are reloaded meanwhile. With
+     * parallel set, batches larger than PARALLEL_CHUNK_SIZE are split into
+     * chunks quoted on the common fork/join pool; the result is the same
+     * as a sequential run.
+     */
+    public long[] quote(ShipmentBatch batch, boolean parallel) {
+        if (batch == null) {
+            throw new IllegalArgumentException("Shipment batch is required");
+        }
+        ShippingRateTable current = table;
+        long[] quotes = new long[batch.size()];
+        if (parallel && batch.size() > PARALLEL_CHUNK_SIZE) {
+            ForkJoinPool.commonPool().invoke(new BatchQuoteTask(current, batch, 0, batch.size(), quotes));
+        } else {
+            current.quote(batch, 0, batch.size(), quotes);
+        }
+        return quotes;
+    }
+
+    /**
+     * Re-read and recompile the rules from their file or resource.
+     *
+     * @throws IllegalArgumentException if the new rules do not compile; the old table stays in use
+     */
+    public synchronized ShippingRateTable reload() throws IOException {
+        if (rulesFile == null && rulesResource == null) {
+            throw new IllegalStateException("Shipping rules were not loaded from a file or resource");
+        }
+        Properties rules = new Properties();
+        if (rulesFile != null) {
+            FileTime modified = Files.getLastModifiedTime(rulesFile);
+            try (Reader reader = Files.newBufferedReader(rulesFile, StandardCharsets.UTF_8)) {
+                rules.load(reader);
+            }
+            ShippingRateTable loaded = update(rules);
+            loadedModifiedTime = modified;
+            return loaded;
+        }
+        try (InputStream in = ShippingRateEngine.class.getResourceAsStream(rulesResource)) {
+            if (in == null) {
+                throw new IOException("Shipping rules not found on classpath: " + rulesResource);
+            }
+            rules.load(in);
+        }
+        return update(rules);
+    }
+
+    /**
+     * Reload the rules file if it changed since it was last loaded; cheap
+     * enough to call from a scheduled task every few seconds.
+     *
+     * @return true if the rules were reloaded
+     */
+    public synchronized boolean reloadIfModified() throws IOException {
+        if (rulesFile == null) {
+            return false;
+        }
+        FileTime modified = Files.getLastModifiedTime(rulesFile);
+        if (modified.equals(loadedModifiedTime)) {
+            return false;
+        }
+        reload();
+        return true;
+    }
+
+    /**
+     * Compile and swap in new rules.
+     */
+    public synchronized ShippingRateTable update(Properties rules) {
+        ShippingRateTable compiled = ShippingRateTable.compile(rules, VERSIONS.incrementAndGet());
+        table = compiled;
+        for (Consumer<ShippingRateTable> listener : reloadListeners) {
+            listener.accept(compiled);
+        }
+        return compiled;
+    }
+
+    public void addReloadListener(Consumer<ShippingRateTable> listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener is required");
+        }
+        reloadListeners.add(listener);
+    }
+
+    public void removeReloadListener(Consumer<ShippingRateTable> listener) {
+        reloadListeners.remove(listener);
+    }
+
+    // Quotes cost tens of nanoseconds each, so a fork/join task needs thousands to be worth it
+    private static final class BatchQuoteTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ShippingRateTable table;
+        private final ShipmentBatch batch;
+        private final int from;
+        private final int to;
+        private final long[] quotes;
+
+        BatchQuoteTask(ShippingRateTable table, ShipmentBatch batch, int from, int to, long[] quotes) {
+            this.table = table;
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.quotes = quotes;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK_SIZE) {
+                table.quote(batch, from, to, quotes);
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new BatchQuoteTask(table, batch, from, middle, quotes),
+                    new BatchQuoteTask(table, batch, middle, to, quotes));
+        }
+    }
+
+    private static final class DefaultHolder {
+        static final ShippingRateEngine INSTANCE = fromClasspath(DEFAULT_RULES_RESOURCE);
+    }
+}
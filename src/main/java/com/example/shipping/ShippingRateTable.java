@@ -0,0 +1,325 @@
+package com.example.shipping;
+
+import com.example.model.Money;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * ShippingRateTable - shipping rules compiled into flat primitive arrays
+ *
+ * Built once from a rules file (see shipping-rates.properties) and then
+ * immutable. Method, carrier and restriction names are resolved to small
+ * integer IDs up front; a quote is then a few array reads, additions and
+ * ppm multiplications on a long amount in minor units, with no string
+ * comparison and no allocation.
+ *
+ * Unknown methods and carriers resolve to an extra trailing slot whose
+ * multiplier is 1, so lookups never branch on "not found". Restrictions
+ * are bits of an int mask, applied in the order the rules file lists them.
+ */
+public final class ShippingRateTable {
+
+    public static final int MAX_RESTRICTIONS = 31;
+
+    // Weights are quoted in thousandths of a unit
+    public static final int WEIGHT_SCALE = 3;
+
+    private final long version;
+    private final String currency;
+    private final int scale;
+
+    private final long baseRate;
+    private final long freeWeightMilli;
+    private final long perWeightUnit;
+    private final long internationalSurcharge;
+    private final long signatureSurcharge;
+    private final long expeditedPpm;
+
+    private final Map<String, Integer> methodIds;
+    private final String[] methodNames;
+    private final long[] methodPpm;
+    private final int[] methodDefaultCarrier;
+
+    private final Map<String, Integer> carrierIds;
+    private final String[] carrierNames;
+    private final long[] carrierPpm;
+
+    private final Map<String, Integer> restrictionBits;
+    private final String[] restrictionNames;
+    private final long[] restrictionSurcharge;
+    private final long[] restrictionPpm;
+
+    private ShippingRateTable(long version, Properties rules) {
+        this.version = version;
+        this.currency = rules.getProperty("currency", Money.DEFAULT_CURRENCY).trim();
+        this.scale = Money.scaleOf(currency);
+
+        this.baseRate = amount(rules, "base.rate", true);
+        this.freeWeightMilli = weight(rules, "weight.free");
+        this.perWeightUnit = amount(rules, "weight.per.unit", false);
+        this.internationalSurcharge = amount(rules, "surcharge.international", false);
+        this.signatureSurcharge = amount(rules, "surcharge.signature", false);
+        this.expeditedPpm = multiplier(rules, "expedited.multiplier");
+
+        this.carrierNames = names(rules, "carriers");
+        this.carrierIds = ids(carrierNames);
+        this.carrierPpm = new long[carrierNames.length + 1];
+        for (int i = 0; i < carrierNames.length; i++) {
+            carrierPpm[i] = multiplier(rules, "carrier." + carrierNames[i] + ".multiplier");
+        }
+        carrierPpm[carrierNames.length] = Money.PPM;
+        int defaultCarrier = knownOrUnknownCarrier(rules.getProperty("carrier.default"));
+
+        this.methodNames = names(rules, "methods");
+        this.methodIds = ids(methodNames);
+        this.methodPpm = new long[methodNames.length + 1];
+        this.methodDefaultCarrier = new int[methodNames.length + 1];
+        for (int i = 0; i < methodNames.length; i++) {
+            methodPpm[i] = multiplier(rules, "method." + methodNames[i] + ".multiplier");
+            String carrier = rules.getProperty("method." + methodNames[i] + ".carrier");
+            methodDefaultCarrier[i] = carrier != null ? knownOrUnknownCarrier(carrier) : defaultCarrier;
+        }
+        methodPpm[methodNames.length] = Money.PPM;
+        methodDefaultCarrier[methodNames.length] = defaultCarrier;
+
+        this.restrictionNames = names(rules, "restrictions");
+        if (restrictionNames.length > MAX_RESTRICTIONS) {
+            throw new IllegalArgumentException("At most " + MAX_RESTRICTIONS + " restrictions are supported");
+        }
+        this.restrictionBits = ids(restrictionNames);
+        this.restrictionSurcharge = new long[restrictionNames.length];
+        this.restrictionPpm = new long[restrictionNames.length];
+        for (int i = 0; i < restrictionNames.length; i++) {
+            restrictionSurcharge[i] = amount(rules, "restriction." + restrictionNames[i] + ".surcharge", false);
+            restrictionPpm[i] = multiplier(rules, "restriction." + restrictionNames[i] + ".multiplier");
+        }
+    }
+
+    /**
+     * Compile a rules file. Throws IllegalArgumentException naming the
+     * offending key if a value is missing or malformed.
+     */
+    public static ShippingRateTable compile(Properties rules, long version) {
+        if (rules == null) {
+            throw new IllegalArgumentException("Shipping rules are required");
+        }
+        return new ShippingRateTable(version, rules);
+    }
+
+    /**
+     * Shipping cost in minor units of getCurrency().
+     *
+     * @param methodId       from methodId()
+     * @param carrierId      from carrierId(), or -1 for the method's default carrier
+     * @param weightMilli    total weight in thousandths of a unit
+     * @param restrictionMask from restrictionMask()
+     */
+    public long quote(int methodId, int carrierId, long weightMilli, boolean international,
+                      boolean requiresSignature, boolean expedited, int restrictionMask) {
+        long rate = baseRate;
+        if (weightMilli > freeWeightMilli) {
+            // Extra weight in thousandths is the per-unit rate's multiplier in ppm / 1000
+            rate += Money.applyRate(perWeightUnit, (weightMilli - freeWeightMilli) * 1_000, Money.DEFAULT_ROUNDING);
+        }
+        if (international) {
+            rate += internationalSurcharge;
+        }
+        if (requiresSignature) {
+            rate += signatureSurcharge;
+        }
+        if (expedited) {
+            rate = Money.applyRate(rate, expeditedPpm, Money.DEFAULT_ROUNDING);
+        }
+        rate = Money.applyRate(rate, methodPpm[methodId], Money.DEFAULT_ROUNDING);
+        int carrier = carrierId >= 0 ? carrierId : methodDefaultCarrier[methodId];
+        rate = Money.applyRate(rate, carrierPpm[carrier], Money.DEFAULT_ROUNDING);
+        for (int mask = restrictionMask; mask != 0; mask &= mask - 1) {
+            int bit = Integer.numberOfTrailingZeros(mask);
+            rate += restrictionSurcharge[bit];
+            rate = Money.applyRate(rate, restrictionPpm[bit], Money.DEFAULT_ROUNDING);
+        }
+        return rate;
+    }
+
+    /**
+     * Quote rows [from, to) of a batch into quotes[from, to).
+     */
+    void quote(ShipmentBatch batch, int from, int to, long[] quotes) {
+        // Jobs usually repeat the same few method/carrier strings; skip the map lookup for a repeat
+        String lastMethod = null;
+        int methodId = methodId(null);
+        String lastCarrier = null;
+        int carrierId = carrierId(null);
+        for (int row = from; row < to; row++) {
+            String method = batch.getMethod(row);
+            if (method != lastMethod) {
+                methodId = methodId(method);
+                lastMethod = method;
+            }
+            String carrier = batch.getCarrier(row);
+            if (carrier != lastCarrier) {
+                carrierId = carrierId(carrier);
+                lastCarrier = carrier;
+            }
+            byte flags = batch.getFlags(row);
+            quotes[row] = quote(methodId, carrierId, batch.getWeightMilli(row),
+                    (flags & ShipmentBatch.INTERNATIONAL) != 0,
+                    (flags & ShipmentBatch.REQUIRES_SIGNATURE) != 0,
+                    (flags & ShipmentBatch.EXPEDITED) != 0,
+                    restrictionMask(batch.getRestrictions(row)));
+        }
+    }
+
+    /**
+     * ID of a shipping method; unknown methods share one ID with no multiplier.
+     */
+    public int methodId(String method) {
+        Integer id = method != null ? methodIds.get(method) : null;
+        return id != null ? id : methodNames.length;
+    }
+
+    /**
+     * ID of a carrier, -1 for null/blank (use the method's default), or
+     * the shared unknown-carrier ID with no multiplier.
+     */
+    public int carrierId(String carrier) {
+        if (carrier == null || carrier.trim().isEmpty()) {
+            return -1;
+        }
+        Integer id = carrierIds.get(carrier);
+        return id != null ? id : carrierNames.length;
+    }
+
+    /**
+     * Bit mask of the known restrictions in the list; unknown ones are ignored.
+     */
+    public int restrictionMask(List<String> restrictions) {
+        if (restrictions == null) {
+            return 0;
+        }
+        int mask = 0;
+        for (String restriction : restrictions) {
+            mask |= restrictionBit(restriction);
+        }
+        return mask;
+    }
+
+    public int restrictionMask(String[] restrictions) {
+        if (restrictions == null) {
+            return 0;
+        }
+        int mask = 0;
+        for (String restriction : restrictions) {
+            mask |= restrictionBit(restriction);
+        }
+        return mask;
+    }
+
+    private int restrictionBit(String restriction) {
+        Integer bit = restriction != null ? restrictionBits.get(restriction) : null;
+        return bit != null ? 1 << bit : 0;
+    }
+
+    /**
+     * Carrier actually used for a method/carrier pair, for reporting.
+     */
+    public String resolveCarrier(int methodId, int carrierId) {
+        int carrier = carrierId >= 0 ? carrierId : methodDefaultCarrier[methodId];
+        return carrier < carrierNames.length ? carrierNames[carrier] : null;
+    }
+
+    public long getVersion() { return version; }
+    public String getCurrency() { return currency; }
+    /** Minor-unit digits of the quotes, e.g. 2 for USD */
+    public int getScale() { return scale; }
+    public List<String> getMethods() { return Arrays.asList(methodNames.clone()); }
+    public List<String> getCarriers() { return Arrays.asList(carrierNames.clone()); }
+    public List<String> getRestrictions() { return Arrays.asList(restrictionNames.clone()); }
+
+    public BigDecimal toBigDecimal(long quote) {
+        return Money.toBigDecimal(quote, scale);
+    }
+
+    private int knownOrUnknownCarrier(String carrier) {
+        int id = carrierId(carrier);
+        return id >= 0 ? id : carrierNames.length;
+    }
+
+    private long amount(Properties rules, String key, boolean required) {
+        BigDecimal value = decimal(rules, key, required);
+        return value != null ? Money.toMinor(value, scale, Money.DEFAULT_ROUNDING) : 0L;
+    }
+
+    private static long weight(Properties rules, String key) {
+        BigDecimal value = decimal(rules, key, false);
+        return value != null ? Money.toMinor(value, WEIGHT_SCALE, Money.DEFAULT_ROUNDING) : 0L;
+    }
+
+    // Missing multipliers mean "no change"
+    private static long multiplier(Properties rules, String key) {
+        BigDecimal value = decimal(rules, key, false);
+        if (value == null) {
+            return Money.PPM;
+        }
+        if (value.signum() < 0) {
+            throw new IllegalArgumentException("Shipping rule " + key + " must not be negative");
+        }
+        return Money.rateToPpm(value);
+    }
+
+    private static BigDecimal decimal(Properties rules, String key, boolean required) {
+        String value = rules.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            if (required) {
+                throw new IllegalArgumentException("Shipping rule " + key + " is required");
+            }
+            return null;
+        }
+        try {
+            return new BigDecimal(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Shipping rule " + key + " is not a number: " + value, e);
+        }
+    }
+
+    private static String[] names(Properties rules, String key) {
+        String value = rules.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return new String[0];
+        }
+        String[] names = value.split(",");
+        for (int i = 0; i < names.length; i++) {
+            names[i] = names[i].trim();
+            if (names[i].isEmpty()) {
+                throw new IllegalArgumentException("Shipping rule " + key + " has an empty entry");
+            }
+        }
+        return names;
+    }
+
+    private static Map<String, Integer> ids(String[] names) {
+        Map<String, Integer> ids = new HashMap<>();
+        for (int i = 0; i < names.length; i++) {
+            if (ids.put(names[i], i) != null) {
+                throw new IllegalArgumentException("Duplicate shipping rule entry: " + names[i]);
+            }
+        }
+        return ids;
+    }
+
+    @Override
+    public String toString() {
+        return "ShippingRateTable{" +
+                "version=" + version +
+                ", currency='" + currency + '\'' +
+                ", methods=" + Arrays.toString(methodNames) +
+                ", carriers=" + Arrays.toString(carrierNames) +
+                ", restrictions=" + Arrays.toString(restrictionNames) +
+                '}';
+    }
+}
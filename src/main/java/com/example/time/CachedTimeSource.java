@@ -0,0 +1,59 @@
+package com.example.time;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Millisecond-precision TimeSource that converts each millisecond to a
+ * LocalDateTime only once
+ *
+ * LocalDateTime.now() reads the clock and resolves the zone offset on
+ * every call, and a single order update stamps updatedAt from a dozen
+ * setters. This source reads only the millisecond clock, and while it has
+ * not moved hands back the LocalDateTime it built for it, so a burst of
+ * setters costs one conversion. The last conversion is published as one
+ * immutable tick, so racing threads at worst both build the same value.
+ *
+ * Timestamps are truncated to the millisecond.
+ */
+public final class CachedTimeSource implements TimeSource {
+
+    private final Clock clock;
+    private final ZoneId zone;
+    private volatile Tick last = new Tick(Long.MIN_VALUE, null);
+
+    public CachedTimeSource() {
+        this(Clock.systemDefaultZone());
+    }
+
+    public CachedTimeSource(Clock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("Clock is required");
+        }
+        this.clock = clock;
+        this.zone = clock.getZone();
+    }
+
+    @Override
+    public LocalDateTime now() {
+        long millis = clock.millis();
+        Tick tick = last;
+        if (tick.millis != millis) {
+            tick = new Tick(millis, LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone));
+            last = tick;
+        }
+        return tick.time;
+    }
+
+    private static final class Tick {
+        private final long millis;
+        private final LocalDateTime time;
+
+        Tick(long millis, LocalDateTime time) {
+            this.millis = millis;
+            this.time = time;
+        }
+    }
+}
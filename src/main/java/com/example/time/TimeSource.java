@@ -0,0 +1,15 @@
+package com.example.time;
+
+import java.time.LocalDateTime;
+
+/**
+ * Source of the timestamps stamped on model objects (createdAt, updatedAt,
+ * orderDate, ...).
+ *
+ * Implementations must be safe to call from any thread.
+ */
+@FunctionalInterface
+public interface TimeSource {
+
+    LocalDateTime now();
+}
@@ -0,0 +1,50 @@
+package com.example.time;
+
+import java.time.LocalDateTime;
+
+/**
+ * Process-wide TimeSource used by the model classes and services.
+ *
+ * Defaults to a CachedTimeSource on the system clock. Replace it with
+ * setDefault(), e.g. with fixed() in tests that compare timestamps, or
+ * with system() where sub-millisecond timestamps are needed.
+ */
+public final class TimeSources {
+
+    private static volatile TimeSource defaultSource = new CachedTimeSource();
+
+    private TimeSources() {
+    }
+
+    public static TimeSource getDefault() {
+        return defaultSource;
+    }
+
+    public static void setDefault(TimeSource source) {
+        if (source == null) {
+            throw new IllegalArgumentException("Time source is required");
+        }
+        defaultSource = source;
+    }
+
+    public static LocalDateTime now() {
+        return defaultSource.now();
+    }
+
+    /**
+     * LocalDateTime.now() on every call, at full clock precision.
+     */
+    public static TimeSource system() {
+        return LocalDateTime::now;
+    }
+
+    /**
+     * Always the given time.
+     */
+    public static TimeSource fixed(LocalDateTime time) {
+        if (time == null) {
+            throw new IllegalArgumentException("Time is required");
+        }
+        return () -> time;
+    }
+}
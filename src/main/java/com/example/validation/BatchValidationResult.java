@@ -0,0 +1,56 @@
+package com.example.validation;
+
+import com.example.inventory.InventoryLedger;
+import com.example.model.Order;
+
+import java.util.List;
+
+/**
+ * BatchValidationResult - the failure mask of every order of a validated
+ * list, index-aligned with it, plus their aggregate counts
+ *
+ * One int per order; see ValidationResult for the meaning of the bits.
+ */
+public final class BatchValidationResult {
+
+    private final List<Order> orders;
+    private final int[] failureMasks;
+    private final ValidationSummary summary;
+    private final InventoryLedger inventory;
+
+    BatchValidationResult(List<Order> orders, int[] failureMasks, ValidationSummary summary,
+                          InventoryLedger inventory) {
+        this.orders = orders;
+        this.failureMasks = failureMasks;
+        this.summary = summary;
+        this.inventory = inventory;
+    }
+
+    public int size() {
+        return failureMasks.length;
+    }
+
+    public int getFailureMask(int index) {
+        return failureMasks[index];
+    }
+
+    public boolean isValid(int index) {
+        return failureMasks[index] == 0;
+    }
+
+    /**
+     * The full result of one order, with its messages.
+     */
+    public ValidationResult getResult(int index) {
+        return new ValidationResult(orders.get(index), failureMasks[index], inventory);
+    }
+
+    public ValidationSummary getSummary() {
+        return summary;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchValidationResult{" + summary + "}";
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.validation;
+
+/**
+ * ValidationCheck - a group of order validation rules that is enabled or
+ * skipped as a whole
+ *
+ * The names match the skipValidations strings OrderService.validateOrder
+ * has always accepted.
+ */
+public enum ValidationCheck {
+    BASIC,
+    PAYMENT,
+    SHIPPING,
+    INVENTORY,
+    PROMOTION,
+    STRICT
+}
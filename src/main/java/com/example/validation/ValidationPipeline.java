@@ -0,0 +1,246 @@
+package com.example.validation;
+
+import com.example.inventory.InventoryLedger;
+import com.example.model.Order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.Stream;
+
+/**
+ * ValidationPipeline - the rules of a set of enabled checks, compiled into
+ * an array run in order
+ *
+ * Which checks are enabled is decided once, when the pipeline is built,
+ * instead of per order by string lookups. Pipelines are immutable and
+ * shared: of() hands out one cached instance per combination of checks
+ * and mode, so validating an order allocates only its result (nothing at
+ * all through failures()) and takes no locks.
+ *
+ * FAIL_FAST stops at the first failed rule; COLLECT_ALL runs every rule.
+ * validateAll() validates whole lists or streams, optionally in parallel,
+ * into one failure mask per order and aggregate counts.
+ */
+public final class ValidationPipeline {
+
+    public enum Mode {
+        FAIL_FAST,
+        COLLECT_ALL
+    }
+
+    public static final int PARALLEL_CHUNK_SIZE = 2_048;
+    public static final int STREAM_BUFFER_SIZE = 16_384;
+
+    private static final int CHECK_COUNT = ValidationCheck.values().length;
+    // One slot per (mode, check set); racy lazy init is fine, pipelines are immutable
+    private static final ValidationPipeline[] CACHE = new ValidationPipeline[Mode.values().length << CHECK_COUNT];
+
+    private final EnumSet<ValidationCheck> checks;
+    private final Mode mode;
+    private final ValidationRule[] rules;
+    private final InventoryLedger inventory; // null = stock levels are not looked up
+
+    private ValidationPipeline(ValidationPipeline pipeline, InventoryLedger inventory) {
+        this.checks = pipeline.checks;
+        this.mode = pipeline.mode;
+        this.rules = pipeline.rules;
+        this.inventory = inventory;
+    }
+
+    private ValidationPipeline(EnumSet<ValidationCheck> checks, Mode mode) {
+        this.checks = checks;
+        this.mode = mode;
+        this.inventory = null;
+        List<ValidationRule> enabled = new ArrayList<>();
+        for (ValidationRule rule : ValidationRule.values()) {
+            if (checks.contains(rule.getCheck())) {
+                enabled.add(rule);
+            }
+        }
+        this.rules = enabled.toArray(new ValidationRule[0]);
+    }
+
+    /**
+     * The pipeline running the given checks; null or empty enables none.
+     */
+    public static ValidationPipeline of(Collection<ValidationCheck> checks, Mode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("Validation mode is required");
+        }
+        int checkMask = 0;
+        if (checks != null) {
+            for (ValidationCheck check : checks) {
+                checkMask |= 1 << check.ordinal();
+            }
+        }
+        int slot = (mode.ordinal() << CHECK_COUNT) | checkMask;
+        ValidationPipeline pipeline = CACHE[slot];
+        if (pipeline == null) {
+            EnumSet<ValidationCheck> enabled = EnumSet.noneOf(ValidationCheck.class);
+            for (ValidationCheck check : ValidationCheck.values()) {
+                if ((checkMask & (1 << check.ordinal())) != 0) {
+                    enabled.add(check);
+                }
+            }
+            pipeline = new ValidationPipeline(enabled, mode);
+            CACHE[slot] = pipeline;
+        }
+        return pipeline;
+    }
+
+    /**
+     * Every check, collecting all failures.
+     */
+    public static ValidationPipeline all() {
+        return of(EnumSet.allOf(ValidationCheck.class), Mode.COLLECT_ALL);
+    }
+
+    /**
+     * The same checks, with the INVENTORY check looking up available stock
+     * in the ledger instead of the fixed quantity limit. Not cached.
+     */
+    public ValidationPipeline withInventory(InventoryLedger inventory) {
+        if (inventory == this.inventory) {
+            return this;
+        }
+        return new ValidationPipeline(this, inventory);
+    }
+
+    public InventoryLedger getInventory() {
+        return inventory;
+    }
+
+    public EnumSet<ValidationCheck> getChecks() {
+        return EnumSet.copyOf(checks);
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public ValidationResult validate(Order order) {
+        return new ValidationResult(order, failures(order), inventory);
+    }
+
+    /**
+     * The failure mask of the order (see ValidationResult); 0 if valid.
+     */
+    public int failures(Order order) {
+        if (order == null) {
+            throw new IllegalArgumentException("Order is required");
+        }
+        int failures = 0;
+        for (ValidationRule rule : rules) {
+            if (rule.fails(order, inventory)) {
+                failures |= rule.bit();
+                if (mode == Mode.FAIL_FAST) {
+                    break;
+                }
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Validate every order of the list. With parallel set, lists larger
+     * than PARALLEL_CHUNK_SIZE are split into chunks validated on the
+     * common fork/join pool; the result is the same as a sequential run.
+     */
+    public BatchValidationResult validateAll(List<Order> orders, boolean parallel) {
+        if (orders == null) {
+            throw new IllegalArgumentException("Orders are required");
+        }
+        List<Order> indexed = orders instanceof RandomAccess ? orders : new ArrayList<>(orders);
+        int[] masks = new int[indexed.size()];
+        validateRange(indexed, masks, indexed.size(), parallel);
+        ValidationSummary summary = new ValidationSummary();
+        for (int mask : masks) {
+            summary.add(mask);
+        }
+        return new BatchValidationResult(indexed, masks, summary, inventory);
+    }
+
+    /**
+     * Validate a stream of any length, STREAM_BUFFER_SIZE orders at a time,
+     * so memory stays bounded however many orders it yields. Only counts
+     * are kept; each failed order is passed to onFailure (may be null)
+     * with its failure mask, in stream order, from the calling thread.
+     */
+    public ValidationSummary validateAll(Stream<Order> orders, boolean parallel, ObjIntConsumer<Order> onFailure) {
+        if (orders == null) {
+            throw new IllegalArgumentException("Orders are required");
+        }
+        ValidationSummary summary = new ValidationSummary();
+        Order[] buffer = new Order[STREAM_BUFFER_SIZE];
+        int[] masks = new int[STREAM_BUFFER_SIZE];
+        List<Order> window = Arrays.asList(buffer);
+        Iterator<Order> iterator = orders.iterator();
+        while (iterator.hasNext()) {
+            int count = 0;
+            while (count < buffer.length && iterator.hasNext()) {
+                buffer[count++] = iterator.next();
+            }
+            validateRange(window, masks, count, parallel);
+            for (int i = 0; i < count; i++) {
+                summary.add(masks[i]);
+                if (masks[i] != 0 && onFailure != null) {
+                    onFailure.accept(buffer[i], masks[i]);
+                }
+            }
+        }
+        return summary;
+    }
+
+    private void validateRange(List<Order> orders, int[] masks, int count, boolean parallel) {
+        if (parallel && count > PARALLEL_CHUNK_SIZE) {
+            ForkJoinPool.commonPool().invoke(new ValidationTask(orders, 0, count, masks));
+        } else {
+            for (int i = 0; i < count; i++) {
+                masks[i] = failures(orders.get(i));
+            }
+        }
+    }
+
+    // A validation costs well under a microsecond, so a task needs thousands of orders to be worth forking
+    private final class ValidationTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<Order> orders;
+        private final int from;
+        private final int to;
+        private final int[] masks;
+
+        ValidationTask(List<Order> orders, int from, int to, int[] masks) {
+            this.orders = orders;
+            this.from = from;
+            this.to = to;
+            this.masks = masks;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_CHUNK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    masks[i] = failures(orders.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new ValidationTask(orders, from, middle, masks),
+                    new ValidationTask(orders, middle, to, masks));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationPipeline{checks=" + checks + ", mode=" + mode + "}";
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.validation;
+
+import com.example.inventory.InventoryLedger;
+import com.example.model.Order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+/**
+ * ValidationResult - which rules an order failed
+ *
+ * The failures are a bitmask of ValidationRule ordinals; the rule set and
+ * the messages are only built when asked for, from the validated order.
+ * In fail-fast mode at most one rule is reported.
+ */
+public final class ValidationResult {
+
+    private final Order order;
+    private final int failures;
+    private final InventoryLedger inventory; // null = stock was not looked up
+
+    ValidationResult(Order order, int failures, InventoryLedger inventory) {
+        this.order = order;
+        this.failures = failures;
+        this.inventory = inventory;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public boolean isValid() {
+        return failures == 0;
+    }
+
+    /**
+     * Bit i is set if the rule with ordinal i failed.
+     */
+    public int getFailureMask() {
+        return failures;
+    }
+
+    public boolean hasFailed(ValidationRule rule) {
+        return (failures & rule.bit()) != 0;
+    }
+
+    public EnumSet<ValidationRule> getFailedRules() {
+        return rulesOf(failures);
+    }
+
+    /**
+     * The failed rules' messages in rule order, e.g. for logging.
+     */
+    public List<String> getMessages() {
+        if (failures == 0) {
+            return Collections.emptyList();
+        }
+        List<String> messages = new ArrayList<>(Integer.bitCount(failures));
+        for (ValidationRule rule : getFailedRules()) {
+            rule.addMessages(order, inventory, messages);
+        }
+        return messages;
+    }
+
+    /**
+     * The rules set in a failure mask.
+     */
+    public static EnumSet<ValidationRule> rulesOf(int failureMask) {
+        EnumSet<ValidationRule> rules = EnumSet.noneOf(ValidationRule.class);
+        for (ValidationRule rule : ValidationRule.values()) {
+            if ((failureMask & rule.bit()) != 0) {
+                rules.add(rule);
+            }
+        }
+        return rules;
+    }
+
+    @Override
+    public String toString() {
+        return "ValidationResult{order=" + (order != null ? order.getOrderId() : null)
+                + ", valid=" + isValid() + (isValid() ? "" : ", failed=" + getFailedRules()) + "}";
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.validation;
+
+import com.example.inventory.InventoryLedger;
+import com.example.model.Money;
+import com.example.model.Order;
+import com.example.model.OrderItem;
+
+import java.math.RoundingMode;
+import java.util.List;
+
+/**
+ * ValidationRule - one order validation rule, the check group it belongs
+ * to and the message it reports
+ *
+ * fails() only reads the order and allocates nothing; messages are only
+ * rendered when a result is asked for them. A rule's ordinal is its bit in
+ * ValidationResult's failure mask, so there can be at most 32 rules.
+ * INSUFFICIENT_INVENTORY checks available stock when the pipeline has an
+ * InventoryLedger - per SKU and warehouse, counting stock already reserved
+ * for the order - and a fixed per-item quantity limit otherwise.
+ */
+public enum ValidationRule {
+
+    CUSTOMER_ID_REQUIRED(ValidationCheck.BASIC, "Customer ID is required") {
+        @Override
+        public boolean fails(Order order) {
+            return isBlank(order.getCustomerId());
+        }
+    },
+    ITEMS_REQUIRED(ValidationCheck.BASIC, "Order must have at least one item") {
+        @Override
+        public boolean fails(Order order) {
+            return !order.hasOrderItems();
+        }
+    },
+    PAYMENT_METHOD_REQUIRED(ValidationCheck.PAYMENT, "Payment method is required") {
+        @Override
+        public boolean fails(Order order) {
+            return isBlank(order.getPaymentMethod());
+        }
+    },
+    PAYMENT_TRANSACTION_REQUIRED(ValidationCheck.PAYMENT, "Payment transaction ID is required for paid orders") {
+        @Override
+        public boolean fails(Order order) {
+            return order.isPaid() && isBlank(order.getPaymentTransactionId());
+        }
+    },
+    SHIPPING_ADDRESS_REQUIRED(ValidationCheck.SHIPPING, "Shipping address is required") {
+        @Override
+        public boolean fails(Order order) {
+            return order.getShippingAddress() == null;
+        }
+    },
+    SHIPPING_ADDRESS_INCOMPLETE(ValidationCheck.SHIPPING, "Shipping address is incomplete") {
+        @Override
+        public boolean fails(Order order) {
+            return order.getShippingAddress() != null && !order.getShippingAddress().isComplete();
+        }
+    },
+    INSUFFICIENT_INVENTORY(ValidationCheck.INVENTORY, "Insufficient inventory for product: ") {
+        @Override
+        public boolean fails(Order order) {
+            return fails(order, null);
+        }
+
+        @Override
+        boolean fails(Order order, InventoryLedger inventory) {
+            List<OrderItem> items = order.getOrderItems();
+            if (items != null) {
+                for (int i = 0; i < items.size(); i++) {
+                    if (isShort(order, items.get(i), inventory)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        // One message per item short of inventory
+        @Override
+        void addMessages(Order order, InventoryLedger inventory, List<String> messages) {
+            List<OrderItem> items = order.getOrderItems();
+            if (items != null) {
+                for (OrderItem item : items) {
+                    if (isShort(order, item, inventory)) {
+                        messages.add(getMessage() + item.getProductName());
+                    }
+                }
+            }
+        }
+    },
+    PROMOTION_EXPIRED(ValidationCheck.PROMOTION, "Promotion code has expired") {
+        @Override
+        public boolean fails(Order order) {
+            String code = order.getPromotionCode();
+            return code != null && !code.trim().isEmpty() && code.startsWith("EXPIRED");
+        }
+    },
+    HIGH_VALUE_REQUIRES_VIP(ValidationCheck.STRICT, "High-value orders require VIP priority") {
+        @Override
+        public boolean fails(Order order) {
+            long threshold = Money.rescale(HIGH_VALUE_THRESHOLD, 0, order.getCurrencyScale(), RoundingMode.UNNECESSARY);
+            return order.getTotalMinorUnits() > threshold && !order.isVipPriority();
+        }
+    };
+
+    /** Orders above this total (in major units) need VIP priority under strict validation */
+    public static final long HIGH_VALUE_THRESHOLD = 10_000;
+    /** Without an InventoryLedger, no item may order more than this */
+    public static final int MAX_QUANTITY_IN_STOCK = 100;
+
+    private final ValidationCheck check;
+    private final String message;
+
+    ValidationRule(ValidationCheck check, String message) {
+        this.check = check;
+        this.message = message;
+    }
+
+    public ValidationCheck getCheck() {
+        return check;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Whether the order breaks this rule.
+     */
+    public abstract boolean fails(Order order);
+
+    // Rules that look at stock consult the ledger if there is one
+    boolean fails(Order order, InventoryLedger inventory) {
+        return fails(order);
+    }
+
+    // The rule's messages for an order that failed it
+    void addMessages(Order order, InventoryLedger inventory, List<String> messages) {
+        messages.add(message);
+    }
+
+    int bit() {
+        return 1 << ordinal();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    // Checks availability only; InventoryLedger.reserve() is what holds the stock
+    private static boolean isShort(Order order, OrderItem item, InventoryLedger inventory) {
+        if (inventory == null) {
+            return item.getQuantity() > MAX_QUANTITY_IN_STOCK;
+        }
+        return inventory.isShort(order, item);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.validation;
+
+/**
+ * ValidationSummary - aggregate counts of a batch validation
+ */
+public final class ValidationSummary {
+
+    private static final ValidationRule[] RULES = ValidationRule.values();
+
+    private long orderCount;
+    private long validCount;
+    private final long[] failuresByRule = new long[RULES.length];
+
+    ValidationSummary() {
+    }
+
+    void add(int failureMask) {
+        orderCount++;
+        if (failureMask == 0) {
+            validCount++;
+            return;
+        }
+        for (int mask = failureMask; mask != 0; mask &= mask - 1) {
+            failuresByRule[Integer.numberOfTrailingZeros(mask)]++;
+        }
+    }
+
+    public long getOrderCount() { return orderCount; }
+    public long getValidCount() { return validCount; }
+    public long getInvalidCount() { return orderCount - validCount; }
+
+    /**
+     * Number of orders that failed the rule.
+     */
+    public long getFailureCount(ValidationRule rule) {
+        return failuresByRule[rule.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder failures = new StringBuilder();
+        for (ValidationRule rule : RULES) {
+            long count = failuresByRule[rule.ordinal()];
+            if (count > 0) {
+                if (failures.length() > 0) {
+                    failures.append(", ");
+                }
+                failures.append(rule).append('=').append(count);
+            }
+        }
+        return "ValidationSummary{orders=" + orderCount + ", valid=" + validCount
+                + ", invalid=" + getInvalidCount() + ", failures={" + failures + "}}";
+    }
+}
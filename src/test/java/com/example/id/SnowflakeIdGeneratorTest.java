@@ -0,0 +1,87 @@
+package com.example.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long START = SnowflakeIdGenerator.EPOCH_MILLIS + 1_000_000;
+
+    @Test
+    void idsCarryNodeTimestampAndSequence() {
+        ManualClockGenerator generator = new ManualClockGenerator(42, START);
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertEquals(42, SnowflakeIdGenerator.extractNodeId(first));
+        assertEquals(START, SnowflakeIdGenerator.extractTimestampMillis(first));
+        assertEquals(0, SnowflakeIdGenerator.extractSequence(first));
+        assertEquals(1, SnowflakeIdGenerator.extractSequence(second));
+    }
+
+    @Test
+    void exhaustedMillisecondWaitsForTheClock() {
+        // The clock only moves while the generator is waiting for it
+        ManualClockGenerator generator = new ManualClockGenerator(1, START);
+        generator.advanceAfterReads = 4096 + 1;
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+        for (int i = 0; i < 4096 * 3; i++) {
+            long id = generator.nextId();
+            assertTrue(id > previous);
+            assertTrue(SnowflakeIdGenerator.extractTimestampMillis(id) <= generator.now);
+            assertTrue(ids.add(id));
+            previous = id;
+        }
+        assertEquals(START + 2, generator.now);
+    }
+
+    @Test
+    void smallBackwardsStepWaitsAndLargeOneFails() {
+        ManualClockGenerator generator = new ManualClockGenerator(1, START);
+        long before = generator.nextId();
+
+        generator.now = START - 5;
+        generator.advanceAfterReads = 1;
+        long after = generator.nextId();
+        assertTrue(after > before);
+        assertTrue(SnowflakeIdGenerator.extractTimestampMillis(after) <= generator.now);
+
+        generator.advanceAfterReads = 0;
+        generator.now -= SnowflakeIdGenerator.MAX_CLOCK_BACKWARDS_MILLIS + 10;
+        assertThrows(IllegalStateException.class, generator::nextId);
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1));
+    }
+
+    // Single-threaded clock that, if asked to, ticks one millisecond every advanceAfterReads reads
+    private static final class ManualClockGenerator extends SnowflakeIdGenerator {
+        private long now;
+        private int advanceAfterReads;
+        private int reads;
+
+        ManualClockGenerator(int nodeId, long now) {
+            super(nodeId);
+            this.now = now;
+        }
+
+        @Override
+        protected long currentTimeMillis() {
+            if (advanceAfterReads > 0 && ++reads % advanceAfterReads == 0) {
+                now++;
+            }
+            return now;
+        }
+    }
+}
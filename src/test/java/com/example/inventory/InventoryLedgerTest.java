@@ -0,0 +1,149 @@
+package com.example.inventory;
+
+import com.example.model.Order;
+import com.example.model.OrderItem;
+import com.example.validation.ValidationCheck;
+import com.example.validation.ValidationPipeline;
+import com.example.validation.ValidationRule;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryLedgerTest {
+
+    private final InventoryLedger ledger = new InventoryLedger();
+
+    @Test
+    void shortLineReservesNothing() {
+        ledger.receive("SKU_A", null, 10);
+        ledger.receive("SKU_B", null, 1);
+        Order order = order(item("SKU_A", 4), item("SKU_B", 2));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ledger.reserve(order));
+        assertTrue(e.getMessage().contains("SKU_B"));
+        assertFalse(ledger.hasReservation(order.getOrderId()));
+        assertEquals(10, ledger.getAvailable("SKU_A", null));
+        assertEquals(0, ledger.getReserved("SKU_A", null));
+    }
+
+    @Test
+    void commitTakesStockOffHandAndReleaseReturnsIt() {
+        ledger.receive("SKU_A", "EAST", 10);
+        Order paid = order(item("SKU_A", "EAST", 3));
+        Order abandoned = order(item("SKU_A", "EAST", 2));
+        ledger.reserve(paid);
+        ledger.reserve(abandoned);
+        assertEquals(5, ledger.getAvailable("SKU_A", "EAST"));
+        assertEquals(0, ledger.getAvailable("SKU_A", null));
+
+        assertTrue(ledger.commit(paid.getOrderId()));
+        assertTrue(ledger.release(abandoned.getOrderId()));
+        assertEquals(7, ledger.getOnHand("SKU_A", "EAST"));
+        assertEquals(0, ledger.getReserved("SKU_A", "EAST"));
+        assertFalse(ledger.commit(paid.getOrderId()));
+        assertFalse(ledger.release(abandoned.getOrderId()));
+    }
+
+    @Test
+    void orderCannotReserveTwice() {
+        ledger.receive("SKU_A", null, 10);
+        Order order = order(item("SKU_A", 1));
+        ledger.reserve(order);
+        assertThrows(IllegalStateException.class, () -> ledger.reserve(order));
+        assertEquals(1, ledger.getReserved("SKU_A", null));
+    }
+
+    @Test
+    void linesOfOneSkuAreValidatedTogether() {
+        ledger.receive("SKU_A", null, 5);
+        ledger.receive("SKU_A", "EAST", 5);
+        Order order = order(item("SKU_A", 3), item("SKU_A", 3), item("SKU_A", "EAST", 3));
+        ValidationPipeline pipeline = ValidationPipeline.of(EnumSet.of(ValidationCheck.INVENTORY),
+                ValidationPipeline.Mode.COLLECT_ALL).withInventory(ledger);
+
+        assertTrue(ledger.isShort(order, order.getOrderItems().get(0)));
+        assertFalse(ledger.isShort(order, order.getOrderItems().get(2)));
+        assertTrue(pipeline.validate(order).hasFailed(ValidationRule.INSUFFICIENT_INVENTORY));
+    }
+
+    @Test
+    void reservedOrderIsNotShortOfItsOwnStock() {
+        ledger.receive("SKU_A", null, 4);
+        Order order = order(item("SKU_A", 2), item("SKU_A", 2));
+        ValidationPipeline pipeline = ValidationPipeline.of(EnumSet.of(ValidationCheck.INVENTORY),
+                ValidationPipeline.Mode.COLLECT_ALL).withInventory(ledger);
+        ledger.reserve(order);
+
+        assertTrue(pipeline.validate(order).isValid());
+        assertTrue(ledger.isShort(order(item("SKU_A", 1)), item("SKU_A", 1)));
+    }
+
+    @Test
+    void racingOrdersNeverOversellAHotSku() throws Exception {
+        int stock = 500;
+        ledger.receive("HOT", null, stock);
+        ledger.receive("SIDE", null, 1_000_000);
+        int threads = 8;
+        int ordersPerThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int won = 0;
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        if (ledger.tryReserve(order(item("SIDE", 1), item("HOT", 1)))) {
+                            won++;
+                        }
+                    }
+                    return won;
+                }));
+            }
+            start.countDown();
+            int won = 0;
+            for (Future<Integer> result : results) {
+                won += result.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(stock, won);
+            assertEquals(stock, ledger.getReserved("HOT", null));
+            assertEquals(0, ledger.getAvailable("HOT", null));
+            // Losing orders gave back the side item they had already reserved
+            assertEquals(stock, ledger.getReserved("SIDE", null));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Order order(OrderItem... items) {
+        Order order = new Order("CUST_1", "customer@example.com");
+        order.setOrderItems(new ArrayList<>(Arrays.asList(items)));
+        return order;
+    }
+
+    private static OrderItem item(String sku, int quantity) {
+        return item(sku, null, quantity);
+    }
+
+    private static OrderItem item(String sku, String warehouseLocation, int quantity) {
+        OrderItem item = new OrderItem("PROD_" + sku, "Product " + sku, new BigDecimal("1.00"), quantity);
+        item.setProductSku(sku);
+        item.setWarehouseLocation(warehouseLocation);
+        return item;
+    }
+}
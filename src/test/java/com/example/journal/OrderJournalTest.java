@@ -0,0 +1,95 @@
+package com.example.journal;
+
+import com.example.model.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderJournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysAppendedOrdersInOrder() throws IOException {
+        Path file = dir.resolve("orders.journal");
+        Order first = new Order("CUST_1", "first@example.com");
+        Order second = new Order("CUST_2", "second@example.com");
+        try (OrderJournal journal = new OrderJournal(file)) {
+            journal.append(JournalRecordType.CREATE, first);
+            journal.awaitDurable(journal.append(JournalRecordType.UPDATE, second));
+        }
+
+        List<String> replayed = new ArrayList<>();
+        try (OrderJournal journal = new OrderJournal(file)) {
+            assertEquals(2, journal.replay((type, order) -> replayed.add(type + " " + order.getOrderId())));
+        }
+        assertEquals(List.of("CREATE " + first.getOrderId(), "UPDATE " + second.getOrderId()), replayed);
+    }
+
+    @Test
+    void tornTailIsTruncatedOnOpen() throws IOException {
+        Path file = dir.resolve("orders.journal");
+        try (OrderJournal journal = new OrderJournal(file)) {
+            journal.append(JournalRecordType.CREATE, new Order("CUST_1", "first@example.com"));
+        }
+        long intactLength = Files.size(file);
+        Files.write(file, new byte[] {0, 0, 1, 0, 7}, StandardOpenOption.APPEND);
+
+        try (OrderJournal journal = new OrderJournal(file)) {
+            assertEquals(intactLength, Files.size(file));
+            assertEquals(1, journal.replay((type, order) -> { }));
+        }
+    }
+
+    @Test
+    void secondJournalOnSameFileIsRefused() throws IOException {
+        Path file = dir.resolve("orders.journal");
+        try (OrderJournal journal = new OrderJournal(file)) {
+            assertThrows(IllegalStateException.class, () -> new OrderJournal(file));
+        }
+        new OrderJournal(file).close();
+    }
+
+    @Test
+    void undecodableIntactRecordFailsReplay() throws IOException {
+        Path file = dir.resolve("orders.journal");
+        try (OrderJournal journal = new OrderJournal(file)) {
+            journal.append(JournalRecordType.CREATE, new Order("CUST_1", "first@example.com"));
+        }
+        Files.write(file, intactRecord((byte) 99, new byte[] {1, 2, 3}), StandardOpenOption.APPEND);
+
+        try (OrderJournal journal = new OrderJournal(file)) {
+            assertThrows(IOException.class, () -> journal.replay((type, order) -> { }));
+        }
+    }
+
+    @Test
+    void closedJournalRefusesAppends() throws IOException {
+        OrderJournal journal = new OrderJournal(dir.resolve("orders.journal"));
+        journal.close();
+        assertThrows(IllegalStateException.class,
+                () -> journal.append(JournalRecordType.CREATE, new Order("CUST_1", "first@example.com")));
+    }
+
+    // Same framing as OrderJournal: [int payloadLength][int crc32][byte type][payload]
+    private static byte[] intactRecord(byte type, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(4 + 4 + 1 + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(type).put(payload);
+        return record.array();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AddressPoolTest {
+
+    private final AddressPool pool = new AddressPool();
+
+    @Test
+    void sameContentSharesOneInstance() {
+        Address first = new Address("12 Main St ", "Springfield", "IL", "62701", "US");
+        Address second = new Address("12 MAIN ST", "springfield", "IL", "62701", "US");
+
+        Address shared = pool.intern(first);
+        assertSame(shared, pool.intern(second));
+        assertNotSame(first, shared);
+        assertTrue(shared.isShared());
+        assertSame(shared, pool.intern(shared));
+        assertThrows(IllegalStateException.class, () -> shared.setCity("Shelbyville"));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    void unreferencedAddressesAreCollected() throws InterruptedException {
+        Address kept = pool.intern(address(-1));
+        for (int i = 0; i < 1000; i++) {
+            pool.intern(address(i));
+        }
+        for (int attempt = 0; attempt < 50 && pool.size() > 1; attempt++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+
+        assertEquals(1, pool.size());
+        assertSame(kept, pool.intern(address(-1)));
+        // Content seen before but since collected is pooled again
+        Address again = pool.intern(address(7));
+        assertSame(again, pool.intern(address(7)));
+        assertEquals(2, pool.size());
+    }
+
+    @Test
+    void keptAddressesStayPooled() {
+        List<Address> held = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            held.add(pool.intern(address(i)));
+        }
+        System.gc();
+
+        assertEquals(100, pool.size());
+        for (int i = 0; i < 100; i++) {
+            assertSame(held.get(i), pool.intern(address(i)));
+        }
+    }
+
+    private static Address address(int number) {
+        return new Address(number + " Main St", "Springfield", "IL", "62701", "US");
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LazyCollectionsTest {
+
+    @Test
+    void gettersOfNewModelsAcceptWrites() {
+        Order order = new Order();
+        order.getTags().add("rush");
+        order.getOrderNotes().put("gate", "code 1234");
+        order.getCustomAttributes().put("channel", "app");
+
+        assertEquals(Arrays.asList("rush"), order.getTags());
+        assertEquals("code 1234", order.getOrderNotes().get("gate"));
+        assertEquals("app", order.getCustomAttributes().get("channel"));
+
+        User user = new User();
+        user.getInterests().add("cycling");
+        user.getTags().add("vip");
+        user.getCustomAttributes().put("locale", "en-US");
+        assertEquals(Arrays.asList("cycling"), user.getInterests());
+        assertEquals(Arrays.asList("vip"), user.getTags());
+        assertEquals("en-US", user.getCustomAttributes().get("locale"));
+
+        OrderItem item = new OrderItem("PROD_1", "Widget", new BigDecimal("1.00"), 1);
+        item.getProductAttributes().put("color", "red");
+        assertEquals("red", item.getProductAttributes().get("color"));
+    }
+
+    @Test
+    void heldViewFollowsTheField() {
+        Order order = new Order();
+        List<String> tags = order.getTags();
+        Map<String, String> notes = order.getOrderNotes();
+
+        order.addTag("first");
+        order.putOrderNote("gate", "code 1234");
+        assertEquals(Arrays.asList("first"), tags);
+        assertEquals("code 1234", notes.get("gate"));
+
+        tags.add("second");
+        notes.remove("gate");
+        assertEquals(Arrays.asList("first", "second"), order.getTags());
+        assertTrue(order.getOrderNotes().isEmpty());
+    }
+
+    @Test
+    void readingDoesNotWrite() {
+        Order order = new Order();
+        assertTrue(order.getTags().isEmpty());
+        assertNull(order.getOrderNotes().get("gate"));
+        assertEquals(new Order().getTags(), order.getTags());
+        assertEquals(Collections.emptyList(), order.getTags());
+    }
+
+    @Test
+    void addAndPutCopyUnmodifiableCollectionsGivenToSetters() {
+        Order order = new Order();
+        order.setTags(List.of());
+        order.setOrderNotes(Map.of("gate", "code 1234"));
+        order.addTag("rush");
+        order.putOrderNote("floor", "3");
+
+        assertEquals(Arrays.asList("rush"), order.getTags());
+        assertEquals(Map.of("gate", "code 1234", "floor", "3"), order.getOrderNotes());
+
+        User user = new User();
+        user.setInterests(Collections.unmodifiableList(Arrays.asList("cycling")));
+        user.addInterest("chess");
+        assertEquals(Arrays.asList("cycling", "chess"), user.getInterests());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void divideRoundsLikeBigDecimal() {
+        long[] divisors = {2, 3, 7, 10, 1_000_000, -4};
+        for (RoundingMode mode : RoundingMode.values()) {
+            if (mode == RoundingMode.UNNECESSARY) {
+                continue;
+            }
+            for (long dividend = -25; dividend <= 25; dividend++) {
+                for (long divisor : divisors) {
+                    long expected = BigDecimal.valueOf(dividend)
+                            .divide(BigDecimal.valueOf(divisor), 0, mode).longValueExact();
+                    assertEquals(expected, Money.divide(dividend, divisor, mode), dividend + " / " + divisor + " " + mode);
+                }
+            }
+        }
+        assertThrows(ArithmeticException.class, () -> Money.divide(7, 2, RoundingMode.UNNECESSARY));
+        assertEquals(3, Money.divide(6, 2, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    void applyRateFallsBackOnOverflow() {
+        assertEquals(1150, Money.applyRate(1000, Money.rateToPpm(new BigDecimal("1.15")), RoundingMode.HALF_UP));
+        // 10% of 125 cents is 12.5 cents
+        assertEquals(13, Money.applyRate(125, 100_000, RoundingMode.HALF_UP));
+        assertEquals(12, Money.applyRate(125, 100_000, RoundingMode.HALF_EVEN));
+
+        long large = Long.MAX_VALUE / 1_000;
+        long expected = BigDecimal.valueOf(large).multiply(new BigDecimal("1.5"))
+                .setScale(0, RoundingMode.HALF_UP).longValueExact();
+        assertEquals(expected, Money.applyRate(large, 1_500_000, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void percentagesAndRatesConvertToPartsPerMillion() {
+        assertEquals(100_000, Money.percentToPpm(new BigDecimal("10")));
+        assertEquals(125_000, Money.percentToPpm(new BigDecimal("12.5")));
+        assertEquals(1_800_000, Money.rateToPpm(new BigDecimal("1.8")));
+        assertEquals(1_800_000, Money.rateToPpm(1.8));
+        assertEquals(0, Money.percentToPpm(null));
+    }
+
+    @Test
+    void currencyScalesAndRescaling() {
+        assertEquals(2, Money.scaleOf("USD"));
+        assertEquals(0, Money.scaleOf("JPY"));
+        assertEquals(3, Money.scaleOf("BHD"));
+        assertEquals(2, Money.scaleOf("NOT_A_CURRENCY"));
+
+        assertEquals(1235, Money.rescale(123_456, 2, 0, RoundingMode.HALF_UP));
+        assertEquals(123_400, Money.rescale(1234, 0, 2, RoundingMode.HALF_UP));
+        assertEquals(new BigDecimal("12.34"), Money.toBigDecimal(1234, 2));
+        assertEquals(1235, Money.toMinor(new BigDecimal("12.345"), 2, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void valuesRefuseMixedCurrencies() {
+        Money dollars = Money.of(new BigDecimal("19.99"), "USD");
+        assertEquals(Money.ofMinor(3998, "USD"), dollars.times(2));
+        assertEquals(Money.ofMinor(999, "USD"), dollars.minus(Money.ofMinor(1000, "USD")));
+        assertEquals(Money.ofMinor(1799, "USD"), dollars.percentage(new BigDecimal("90"), RoundingMode.HALF_UP));
+        assertThrows(IllegalArgumentException.class, () -> dollars.plus(Money.ofMinor(100, "EUR")));
+        assertThrows(ArithmeticException.class, () -> Money.ofMinor(Long.MAX_VALUE, "USD").plus(Money.ofMinor(1, "USD")));
+    }
+
+    @Test
+    void orderItemTotalsUseMinorUnits() {
+        OrderItem item = new OrderItem("PROD_1", "Widget", new BigDecimal("0.10"), 3);
+        assertEquals(new BigDecimal("0.30"), item.getTotalPrice());
+    }
+}
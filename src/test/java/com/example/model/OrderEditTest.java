@@ -0,0 +1,95 @@
+package com.example.model;
+
+import com.example.time.TimeSource;
+import com.example.time.TimeSources;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderEditTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private final TimeSource previous = TimeSources.getDefault();
+    private final AtomicInteger clockReads = new AtomicInteger();
+
+    @AfterEach
+    void restoreClock() {
+        TimeSources.setDefault(previous);
+    }
+
+    @Test
+    void multiFieldEditRecomputesDerivedFieldsOnce() {
+        Order order = order();
+        Address home = new Address("1 Main St", "Springfield", "IL", "62701", "US");
+        order.setShippingAddress(home);
+        order.setBillingAddress(home);
+        Address abroad = new Address("10 King St", "Toronto", "ON", "M5H 1A1", "CA");
+        countClockReads();
+
+        Order.Edit edit = order.edit();
+        edit.setShippingAmount(new BigDecimal("5.00"));
+        edit.setTaxAmount(new BigDecimal("2.50"));
+        edit.setDiscountAmount(new BigDecimal("1.00"));
+        edit.setShippingAddress(abroad);
+        edit.setTrackingNumber("TRK_1");
+        // Equal to the current value, so not a change
+        edit.setPriority("NORMAL");
+        EnumSet<OrderField> changed = edit.commit();
+
+        assertEquals(EnumSet.of(OrderField.SHIPPING_AMOUNT, OrderField.TAX_AMOUNT, OrderField.DISCOUNT_AMOUNT,
+                OrderField.SHIPPING_ADDRESS, OrderField.TRACKING_NUMBER, OrderField.TOTAL_AMOUNT,
+                OrderField.INTERNATIONAL), changed);
+        assertEquals(new BigDecimal("26.50"), order.getTotalAmount());
+        assertTrue(order.isInternational());
+        assertEquals("CA", order.getDestinationCountry());
+        // The setters would each have stamped updatedAt; the edit does it once
+        assertEquals(1, clockReads.get());
+        assertThrows(IllegalStateException.class, edit::commit);
+    }
+
+    @Test
+    void noOpEditChangesNothing() {
+        Order order = order();
+        order.setUpdatedAt(CREATED);
+        order.setTrackingNumber("TRK_1");
+        order.setUpdatedAt(CREATED);
+        countClockReads();
+
+        Order.Edit edit = order.edit();
+        edit.setTrackingNumber("TRK_1");
+        edit.setPriority("NORMAL");
+        edit.setShippingAmount(order.getShippingAmount());
+        assertFalse(edit.isEmpty());
+
+        assertTrue(edit.commit().isEmpty());
+        assertEquals(CREATED, order.getUpdatedAt());
+        assertEquals(new BigDecimal("20.00"), order.getTotalAmount());
+        assertEquals(0, clockReads.get());
+    }
+
+    private void countClockReads() {
+        TimeSources.setDefault(() -> {
+            clockReads.incrementAndGet();
+            return CREATED.plusHours(1);
+        });
+    }
+
+    private static Order order() {
+        Order order = new Order("CUST_1", "customer@example.com");
+        OrderItem item = new OrderItem("PROD_1", "Widget", new BigDecimal("10.00"), 2);
+        order.setOrderItems(new ArrayList<>(Arrays.asList(item)));
+        return order;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderStatusTest {
+
+    @Test
+    void shippingMethodsOfTheRateTableAreListed() {
+        for (String method : new String[] {"STANDARD", "EXPRESS", "OVERNIGHT", "SAME_DAY"}) {
+            assertNotEquals(StatusField.UNLISTED, StatusField.SHIPPING_METHOD.codeOf(method), method);
+        }
+        assertEquals(StatusField.UNLISTED, StatusField.SHIPPING_METHOD.codeOf("PICKUP"));
+    }
+
+    @Test
+    void unlistedValuesRoundTrip() {
+        Order order = new Order("CUST_1", "customer@example.com");
+        order.setShippingMethod("PICKUP");
+        order.setShippingCarrier("LOCAL_COURIER");
+        assertEquals("PICKUP", order.getShippingMethod());
+        assertEquals("LOCAL_COURIER", order.getShippingCarrier());
+        assertFalse(order.isExpedited());
+
+        order.setShippingMethod("EXPRESS");
+        order.setShippingCarrier(null);
+        assertEquals("EXPRESS", order.getShippingMethod());
+        assertNull(order.getShippingCarrier());
+        assertTrue(order.isExpedited());
+    }
+
+    @Test
+    void readerNeverSeesAMissingValueWhileTheFieldLeavesItsUnlistedValue() throws InterruptedException {
+        Order order = new Order("CUST_1", "customer@example.com");
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicReference<String> seen = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            while (!done.get()) {
+                String method = order.getShippingMethod();
+                if (!"EXPRESS".equals(method) && !"PICKUP".equals(method)) {
+                    seen.compareAndSet(null, String.valueOf(method));
+                }
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < 5_000_000 && seen.get() == null; i++) {
+                order.setShippingMethod(i % 2 == 0 ? "PICKUP" : "EXPRESS");
+            }
+        } finally {
+            done.set(true);
+            reader.join();
+        }
+        assertNull(seen.get());
+    }
+}
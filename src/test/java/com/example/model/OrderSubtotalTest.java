@@ -0,0 +1,104 @@
+package com.example.model;
+
+import com.example.service.OrderService;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OrderSubtotalTest {
+
+    @Test
+    void createdOrderStartsFromItsItemsAndFollowsTheirChanges() {
+        OrderItem item = new OrderItem("PROD_1", "Widget", new BigDecimal("10.00"), 1);
+        Order order = createOrder(new ArrayList<>(Arrays.asList(item)));
+
+        assertEquals(new BigDecimal("10.00"), order.getSubtotalAmount());
+
+        item.setQuantity(3);
+        assertEquals(new BigDecimal("30.00"), order.getSubtotalAmount());
+
+        order.removeOrderItem("PROD_1");
+        assertEquals(new BigDecimal("0.00"), order.getSubtotalAmount());
+        assertEquals(0, order.getTotalMinorUnits());
+    }
+
+    @Test
+    void addAndRemoveAdjustSubtotalByItemTotal() {
+        Order order = new Order("CUST_1", "customer@example.com");
+        order.addOrderItem(new OrderItem("PROD_1", "Widget", new BigDecimal("2.50"), 2));
+        order.addOrderItem(new OrderItem("PROD_2", "Gadget", new BigDecimal("1.25"), 1));
+
+        assertEquals(625, order.getSubtotalMinorUnits());
+
+        order.removeOrderItem("PROD_1");
+        assertEquals(125, order.getSubtotalMinorUnits());
+    }
+
+    @Test
+    void itemOfAnotherOrderIsRefused() {
+        OrderItem item = new OrderItem("PROD_1", "Widget", new BigDecimal("10.00"), 1);
+        Order first = new Order("CUST_1", "first@example.com");
+        first.addOrderItem(item);
+        Order second = new Order("CUST_2", "second@example.com");
+
+        assertThrows(IllegalStateException.class, () -> second.addOrderItem(item));
+        assertThrows(IllegalStateException.class, () -> second.setOrderItems(new ArrayList<>(Arrays.asList(item))));
+        assertEquals(0, second.getSubtotalMinorUnits());
+        assertEquals(0, second.getItemCount());
+
+        item.setQuantity(2);
+        assertEquals(2000, first.getSubtotalMinorUnits());
+        assertSame(first, item.getOwner());
+    }
+
+    @Test
+    void removedItemCanJoinAnotherOrder() {
+        OrderItem item = new OrderItem("PROD_1", "Widget", new BigDecimal("10.00"), 1);
+        Order first = new Order("CUST_1", "first@example.com");
+        first.addOrderItem(item);
+        first.removeOrderItem("PROD_1");
+
+        Order second = new Order("CUST_2", "second@example.com");
+        second.addOrderItem(item);
+        item.setQuantity(2);
+
+        assertEquals(0, first.getSubtotalMinorUnits());
+        assertEquals(2000, second.getSubtotalMinorUnits());
+    }
+
+    @Test
+    void itemsAndCodesChangeOnlyThroughTheOrder() {
+        Order order = new Order("CUST_1", "customer@example.com");
+        OrderItem item = new OrderItem("PROD_1", "Widget", new BigDecimal("10.00"), 1);
+        assertThrows(UnsupportedOperationException.class, () -> order.getOrderItems().add(item));
+        assertThrows(UnsupportedOperationException.class, () -> order.getAppliedDiscountCodes().add("SAVE10"));
+
+        List<OrderItem> before = order.getOrderItems();
+        order.addOrderItem(item);
+        order.applyDiscountCode("SAVE10");
+        assertThrows(UnsupportedOperationException.class, () -> order.getOrderItems().remove(0));
+        assertThrows(UnsupportedOperationException.class, () -> order.getAppliedDiscountCodes().clear());
+        assertEquals(1000, order.getSubtotalMinorUnits());
+        assertEquals(Arrays.asList("SAVE10"), order.getAppliedDiscountCodes());
+
+        // A list read earlier is a snapshot the writes above did not touch
+        assertTrue(before.isEmpty());
+        List<OrderItem> held = order.getOrderItems();
+        order.removeOrderItem("PROD_1");
+        assertEquals(Arrays.asList(item), held);
+    }
+
+    private static Order createOrder(List<OrderItem> items) {
+        Address address = new Address("1 Main St", "Springfield", "IL", "62701", "US");
+        return new OrderService().createOrder("CUST_1", "customer@example.com", null, "CREDIT_CARD", null,
+                address, null, null, null, false, null, null, null, null, null, items, null, "test");
+    }
+}
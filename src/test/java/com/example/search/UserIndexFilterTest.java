@@ -0,0 +1,132 @@
+package com.example.search;
+
+import com.example.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserIndexFilterTest {
+
+    @Test
+    void bitmapOperationsMatchBitSets() {
+        Random random = new Random(42);
+        BitSet expectedA = new BitSet();
+        BitSet expectedB = new BitSet();
+        RoaringBitmap a = new RoaringBitmap();
+        RoaringBitmap b = new RoaringBitmap();
+        // Dense and sparse chunks, so containers cross the array/bitmap threshold both ways
+        for (int i = 0; i < 40_000; i++) {
+            int dense = random.nextInt(70_000);
+            int sparse = 200_000 + random.nextInt(1_000_000);
+            a.add(dense);
+            expectedA.set(dense);
+            b.add(sparse);
+            expectedB.set(sparse);
+            if (i % 3 == 0) {
+                b.add(dense);
+                expectedB.set(dense);
+            }
+        }
+        for (int i = 0; i < 30_000; i++) {
+            int value = random.nextInt(70_000);
+            a.remove(value);
+            expectedA.clear(value);
+        }
+
+        assertArrayEquals(expectedA.stream().toArray(), a.toArray());
+        assertEquals(expectedA.cardinality(), a.cardinality());
+        assertArrayEquals(and(expectedA, expectedB).stream().toArray(), RoaringBitmap.and(a, b).toArray());
+        BitSet or = (BitSet) expectedA.clone();
+        or.or(expectedB);
+        assertArrayEquals(or.stream().toArray(), RoaringBitmap.or(a, b).toArray());
+        BitSet andNot = (BitSet) expectedA.clone();
+        andNot.andNot(expectedB);
+        assertArrayEquals(andNot.stream().toArray(), RoaringBitmap.andNot(a, b).toArray());
+    }
+
+    @Test
+    void filtersAreIntersected() {
+        UserIndex index = new UserIndex();
+        List<User> users = users(300);
+        users.forEach(index::index);
+
+        UserQuery query = new UserQuery();
+        query.setFilter(UserField.STATUS, "active");
+        query.setFilter(UserField.EMAIL_VERIFIED, true);
+        query.setTags(Arrays.asList("VIP"));
+        query.setCustomAttributes(Collections.singletonMap("tier", "gold"));
+        query.setPageSize(1000);
+
+        Set<String> expected = new HashSet<>();
+        for (User user : users) {
+            if ("ACTIVE".equals(user.getStatus()) && user.isEmailVerified() && user.getTags().contains("vip")
+                    && "gold".equals(user.getCustomAttributes().get("tier"))) {
+                expected.add(user.getId());
+            }
+        }
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, ids(index.search(query)));
+        assertEquals(expected.size(), index.count(query));
+    }
+
+    @Test
+    void reindexedAndRemovedUsersLeaveTheirOldPostings() {
+        UserIndex index = new UserIndex();
+        List<User> users = users(50);
+        users.forEach(index::index);
+        UserQuery suspended = new UserQuery();
+        suspended.setFilter(UserField.STATUS, "SUSPENDED");
+        int before = index.count(suspended);
+
+        User moved = users.get(0);
+        assertEquals("ACTIVE", moved.getStatus());
+        moved.setStatus("SUSPENDED");
+        assertTrue(index.update(moved));
+        assertEquals(before + 1, index.count(suspended));
+        assertTrue(ids(index.search(suspended)).contains(moved.getId()));
+
+        assertTrue(index.remove(moved.getId()));
+        assertEquals(before, index.count(suspended));
+        assertFalse(index.contains(moved.getId()));
+        assertEquals(49, index.size());
+    }
+
+    private static List<User> users(int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            User user = new User("user" + i, "user" + i + "@example.com", "First", "Last");
+            user.setStatus(i % 4 == 3 ? "SUSPENDED" : "ACTIVE");
+            user.setEmailVerified(i % 3 != 0);
+            user.setTags(new ArrayList<>(i % 2 == 0 ? Arrays.asList("vip") : Arrays.asList("new")));
+            user.putCustomAttribute("tier", i % 5 < 2 ? "gold" : "silver");
+            users.add(user);
+        }
+        return users;
+    }
+
+    private static Set<String> ids(List<User> users) {
+        Set<String> ids = new HashSet<>();
+        for (User user : users) {
+            ids.add(user.getId());
+        }
+        return ids;
+    }
+
+    private static BitSet and(BitSet a, BitSet b) {
+        BitSet result = (BitSet) a.clone();
+        result.and(b);
+        return result;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.search;
+
+import com.example.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UserIndexPaginationTest {
+
+    private static final LocalDate BORN = LocalDate.of(1960, 1, 1);
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final UserIndex index = new UserIndex();
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 2000; i++) {
+            User user = new User(String.format("user%04d", (i * 7919) % 2000), "u" + i + "@example.com", "First", "Last");
+            user.setCompany(i % 3 == 0 ? "Acme Corp" : "Globex");
+            user.setDateOfBirth(BORN.plusDays(i * 11L % 15000));
+            // Few distinct keys, so pages break inside runs of equal created times
+            user.setCreatedAt(CREATED.plusMinutes(i % 7));
+            users.add(user);
+            index.index(user);
+        }
+    }
+
+    @Test
+    void continuationPagesMatchTheFullOrdering() {
+        UserQuery query = filteredQuery("username", "ASC");
+        List<User> expected = matching(query);
+        expected.sort(Comparator.comparing(User::getUsername));
+
+        assertEquals(expected, readAllPages(query, 25));
+    }
+
+    @Test
+    void continuationPagesBreakTiesByDocument() {
+        UserQuery query = filteredQuery("createdAt", "DESC");
+        List<User> expected = matching(query);
+        // Documents are numbered in insertion order, which is the order of the users list
+        expected.sort(Comparator.comparing(User::getCreatedAt).reversed());
+
+        assertEquals(expected, readAllPages(query, 30));
+    }
+
+    @Test
+    void continuationPageResumesTheWalkInsteadOfExecutingThePlan() {
+        UserQuery query = filteredQuery("username", "ASC");
+        query.setPageSize(20);
+        query.setContinuationToken(index.searchPage(query).getNextPageToken());
+
+        QueryPlan plan = index.explain(query);
+        assertTrue(plan.getPageStrategy().startsWith("resumed index walk"), plan.toString());
+        for (QueryPlan.Step step : plan.getSteps()) {
+            assertEquals(-1, step.getActualRows());
+        }
+    }
+
+    @Test
+    void tokenOfAnotherSortOrderIsRejected() {
+        UserQuery query = filteredQuery("username", "ASC");
+        query.setPageSize(10);
+        String token = index.searchPage(query).getNextPageToken();
+
+        UserQuery other = filteredQuery("username", "DESC");
+        other.setContinuationToken(token);
+        assertThrows(IllegalArgumentException.class, () -> index.searchPage(other));
+    }
+
+    // Free text plus a range on a field other than the sort field, neither of them a stored posting
+    private static UserQuery filteredQuery(String sortField, String direction) {
+        UserQuery query = new UserQuery();
+        query.setText("acme");
+        query.setDateOfBirthFrom(BORN.plusDays(2000));
+        query.setDateOfBirthTo(BORN.plusDays(12000));
+        query.setSortField(sortField);
+        query.setSortDirection(direction);
+        return query;
+    }
+
+    private List<User> matching(UserQuery query) {
+        List<User> matches = new ArrayList<>();
+        for (User user : users) {
+            if (user.getCompany().startsWith("Acme")
+                    && !user.getDateOfBirth().isBefore(query.getDateOfBirthFrom())
+                    && !user.getDateOfBirth().isAfter(query.getDateOfBirthTo())) {
+                matches.add(user);
+            }
+        }
+        assertFalse(matches.isEmpty());
+        return matches;
+    }
+
+    private List<User> readAllPages(UserQuery query, int pageSize) {
+        query.setPageSize(pageSize);
+        List<User> read = new ArrayList<>();
+        UserSearchPage page = index.searchPage(query);
+        read.addAll(page.getUsers());
+        while (page.hasNextPage()) {
+            assertEquals(pageSize, page.getUsers().size());
+            query.setContinuationToken(page.getNextPageToken());
+            page = index.searchPage(query);
+            read.addAll(page.getUsers());
+        }
+        return read;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.service;
+
+import com.example.model.Address;
+import com.example.model.Order;
+import com.example.model.OrderItem;
+import com.example.promotion.DiscountType;
+import com.example.promotion.Promotion;
+import com.example.promotion.PromotionCombination;
+import com.example.promotion.PromotionRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderServiceDiscountTest {
+
+    private OrderService orderService;
+    private PromotionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        orderService = new OrderService();
+        registry = orderService.getPromotionRegistry();
+    }
+
+    @Test
+    void sameCodeAppliesOnce() {
+        Order order = createOrder("100.00");
+        Promotion promotion = new Promotion("SAVE10", DiscountType.FIXED_AMOUNT, new BigDecimal("10.00"));
+        promotion.setUsageLimit(5);
+
+        orderService.applyDiscount(order.getOrderId(), promotion, false, false, "customer@example.com", "test");
+        assertThrows(IllegalArgumentException.class, () ->
+                orderService.applyDiscount(order.getOrderId(), promotion, false, false, "customer@example.com", "test"));
+
+        assertEquals(1000, order.getDiscountMinorUnits());
+        assertEquals(1, registry.getReservedCount("SAVE10"));
+        assertEquals(4, registry.getRemainingUses("SAVE10"));
+    }
+
+    @Test
+    void usageLimitHoldsAcrossOrders() {
+        Promotion promotion = new Promotion("ONCE", DiscountType.PERCENTAGE, new BigDecimal("10"));
+        promotion.setUsageLimit(1);
+        Order first = createOrder("50.00");
+        Order second = createOrder("50.00");
+
+        orderService.applyDiscount(first.getOrderId(), promotion, false, false, "customer@example.com", "test");
+        assertThrows(IllegalArgumentException.class, () ->
+                orderService.applyDiscount(second.getOrderId(), promotion, false, false, "customer@example.com", "test"));
+
+        assertEquals(500, first.getDiscountMinorUnits());
+        assertEquals(0, second.getDiscountMinorUnits());
+    }
+
+    @Test
+    void conflictingUsageLimitIsRejected() {
+        Order first = createOrder("50.00");
+        Order second = createOrder("50.00");
+        orderService.applyDiscount(first.getOrderId(), "SPRING", "FIXED_AMOUNT", new BigDecimal("5.00"), null, null,
+                null, null, false, false, "customer@example.com", null, 3, "test");
+
+        assertThrows(IllegalArgumentException.class, () ->
+                orderService.applyDiscount(second.getOrderId(), "SPRING", "FIXED_AMOUNT", new BigDecimal("5.00"),
+                        null, null, null, null, false, false, "customer@example.com", null, 10, "test"));
+        assertEquals(2, registry.getRemainingUses("SPRING"));
+        assertEquals(0, second.getDiscountMinorUnits());
+    }
+
+    @Test
+    void bestPromotionsDoNotStackOnRepeat() {
+        Promotion promotion = new Promotion("AUTO5", DiscountType.FIXED_AMOUNT, new BigDecimal("5.00"));
+        promotion.setStackable(true);
+        registry.register(promotion);
+        Order order = createOrder("40.00");
+
+        PromotionCombination first = orderService.applyBestPromotions(order.getOrderId(), false, false,
+                "customer@example.com", "test");
+        PromotionCombination second = orderService.applyBestPromotions(order.getOrderId(), false, false,
+                "customer@example.com", "test");
+
+        assertEquals(500, first.getDiscountMinorUnits());
+        assertTrue(second.isEmpty());
+        assertEquals(500, order.getDiscountMinorUnits());
+        assertEquals(1, registry.getReservedCount("AUTO5"));
+    }
+
+    private Order createOrder(String price) {
+        Address address = new Address("1 Main St", "Springfield", "IL", "62701", "US");
+        OrderItem item = new OrderItem("PROD_1", "Widget", new BigDecimal(price), 1);
+        return orderService.createOrder("CUST_1", "customer@example.com", null, "CREDIT_CARD", null,
+                address, null, null, null, false, null, null, null, null, null,
+                new ArrayList<>(Arrays.asList(item)), null, "test");
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.service;
+
+import com.example.inventory.InventoryLedger;
+import com.example.journal.OrderJournal;
+import com.example.model.Address;
+import com.example.model.Order;
+import com.example.model.OrderItem;
+import com.example.promotion.DiscountType;
+import com.example.promotion.Promotion;
+import com.example.promotion.PromotionRegistry;
+import com.example.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderServicePaymentTest {
+
+    @TempDir
+    Path dir;
+
+    private final InventoryLedger ledger = new InventoryLedger();
+
+    @Test
+    void paymentAfterReleasedPromotionsReservesTheCodeAgain() {
+        OrderService orderService = service(null);
+        PromotionRegistry registry = orderService.getPromotionRegistry();
+        Order order = createOrder(orderService);
+        orderService.applyDiscount(order.getOrderId(), promotion(2), false, false, "customer@example.com", "test");
+
+        assertEquals(1, orderService.releasePromotions(order.getOrderId()));
+        assertEquals(0, registry.getReservedCount("SAVE5"));
+
+        assertTrue(pay(orderService, order));
+        assertEquals(1, registry.getRedeemedCount("SAVE5"));
+        assertEquals(0, registry.getReservedCount("SAVE5"));
+        assertEquals(1, registry.getRemainingUses("SAVE5"));
+    }
+
+    @Test
+    void declineReleasesStockAndKeepsTheDiscountReservedForARetry() {
+        OrderService orderService = service(null);
+        PromotionRegistry registry = orderService.getPromotionRegistry();
+        Order abandoned = createOrder(orderService);
+        Order other = createOrder(orderService);
+        orderService.reserveInventory(abandoned.getOrderId());
+        orderService.applyDiscount(abandoned.getOrderId(), promotion(1), false, false, "customer@example.com", "test");
+
+        // The only use goes to another order while the first one's is given back
+        orderService.releasePromotions(abandoned.getOrderId());
+        orderService.applyDiscount(other.getOrderId(), promotion(1), false, false, "customer@example.com", "test");
+
+        assertFalse(pay(orderService, abandoned));
+        assertEquals("FAILED", abandoned.getPaymentStatus());
+        assertEquals(0, ledger.getReserved("SKU_1", null));
+        assertEquals(0, registry.getRedeemedCount("SAVE5"));
+        assertEquals(1, registry.getReservedCount("SAVE5"));
+
+        // The other order's payment redeems the use it holds
+        assertTrue(pay(orderService, other));
+        assertEquals(1, registry.getRedeemedCount("SAVE5"));
+    }
+
+    @Test
+    void retryAfterDeclineReservesTheReleasedStock() {
+        OrderService orderService = service(null);
+        Order order = createOrder(orderService);
+        orderService.reserveInventory(order.getOrderId());
+        Promotion promotion = promotion(1);
+        orderService.applyDiscount(order.getOrderId(), promotion, false, false, "customer@example.com", "test");
+        orderService.releasePromotions(order.getOrderId());
+        Order other = createOrder(orderService);
+        orderService.applyDiscount(other.getOrderId(), promotion, false, false, "customer@example.com", "test");
+        assertFalse(pay(orderService, order));
+
+        // The use comes free again, so the retry succeeds and takes its stock
+        orderService.releasePromotions(other.getOrderId());
+        assertTrue(pay(orderService, order));
+        assertEquals("PAID", order.getPaymentStatus());
+        assertEquals(4, ledger.getOnHand("SKU_1", null));
+        assertEquals(0, ledger.getReserved("SKU_1", null));
+    }
+
+    @Test
+    void journalFailureLeavesTheOrderAndItsReservationsAsTheyWere() throws IOException {
+        OrderJournal journal = new OrderJournal(dir.resolve("orders.journal"));
+        OrderService orderService = service(journal);
+        PromotionRegistry registry = orderService.getPromotionRegistry();
+        Order order = createOrder(orderService);
+        orderService.reserveInventory(order.getOrderId());
+        orderService.applyDiscount(order.getOrderId(), promotion(3), false, false, "customer@example.com", "test");
+        journal.close();
+
+        assertThrows(IllegalStateException.class, () -> pay(orderService, order));
+        assertEquals("PENDING", order.getPaymentStatus());
+        assertEquals(1, registry.getReservedCount("SAVE5"));
+        assertEquals(1, ledger.getReserved("SKU_1", null));
+
+        Promotion other = new Promotion("TAKE2", DiscountType.FIXED_AMOUNT, new BigDecimal("2.00"));
+        other.setUsageLimit(3);
+        assertThrows(IllegalStateException.class, () -> orderService.applyDiscount(order.getOrderId(), other,
+                false, false, "customer@example.com", "test"));
+        assertEquals(500, order.getDiscountMinorUnits());
+        assertEquals(Arrays.asList("SAVE5"), order.getAppliedDiscountCodes());
+        assertEquals(0, registry.getReservedCount("TAKE2"));
+    }
+
+    private OrderService service(OrderJournal journal) {
+        ledger.receive("SKU_1", null, 5);
+        return new OrderService(new OrderRepository(), journal, null, new PromotionRegistry(), ledger);
+    }
+
+    private static Promotion promotion(int usageLimit) {
+        Promotion promotion = new Promotion("SAVE5", DiscountType.FIXED_AMOUNT, new BigDecimal("5.00"));
+        promotion.setUsageLimit(usageLimit);
+        return promotion;
+    }
+
+    private static Order createOrder(OrderService orderService) {
+        Address address = new Address("1 Main St", "Springfield", "IL", "62701", "US");
+        OrderItem item = new OrderItem("PROD_1", "Widget", new BigDecimal("50.00"), 1);
+        item.setProductSku("SKU_1");
+        return orderService.createOrder("CUST_1", "customer@example.com", null, "CREDIT_CARD", null,
+                address, null, null, null, false, null, null, null, null, null,
+                new ArrayList<>(Arrays.asList(item)), null, "test");
+    }
+
+    private static boolean pay(OrderService orderService, Order order) {
+        return orderService.processPayment(order.getOrderId(), "PAYPAL", new BigDecimal("45.00"), null,
+                null, null, null, null, null, null, null, null, false, null, null, "test");
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.shipping;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ShippingRateTableTest {
+
+    private final ShippingRateEngine engine = ShippingRateEngine.fromClasspath(ShippingRateEngine.DEFAULT_RULES_RESOURCE);
+
+    @Test
+    void weightAboveAllowanceIsBilledExactly() {
+        // 9.99 base; 0.05 over the 5.00 allowance at 2.50 per unit is 0.125, rounded half-up
+        assertEquals(1012, engine.quote("STANDARD", null, 5_050, false, false, false, null));
+        assertEquals(999, engine.quote("STANDARD", null, 5_000, false, false, false, null));
+        assertEquals(1249, engine.quote("STANDARD", null, 6_000, false, false, false, null));
+    }
+
+    @Test
+    void methodCarrierAndRestrictionsApplyInOrder() {
+        // (9.99 + 15.00 international) * 1.8 express * 1.1 FedEx, then + 10.00 fragile
+        long quote = engine.quote("EXPRESS", null, 1_000, true, false, false, Arrays.asList("FRAGILE"));
+        assertEquals(5948, quote);
+    }
+
+    @Test
+    void batchMatchesSingleQuotes() {
+        ShipmentBatch batch = new ShipmentBatch(3);
+        batch.add("STANDARD", null, 5_050, false, false, false, null);
+        batch.add("OVERNIGHT", "DHL", 12_345, true, true, true, Arrays.asList("OVERSIZED"));
+        batch.add("SAME_DAY", null, 500, false, true, false, null);
+
+        long[] quotes = engine.quote(batch, false);
+        assertEquals(engine.quote("STANDARD", null, 5_050, false, false, false, null), quotes[0]);
+        assertEquals(engine.quote("OVERNIGHT", "DHL", 12_345, true, true, true, Arrays.asList("OVERSIZED")), quotes[1]);
+        assertEquals(engine.quote("SAME_DAY", null, 500, false, true, false, null), quotes[2]);
+    }
+}